@@ -0,0 +1,70 @@
+package com.info.bench;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import com.info.model.Person;
+import com.info.service.PersonServiceImpl;
+
+/**
+ * Base H2 embarquée en mode MySQL, partagée par les benchmarks d'un même fork JMH.
+ */
+public final class BenchmarkDatabase {
+
+    public static final String URL = "jdbc:h2:mem:tp333bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;IGNORECASE=TRUE";
+
+    private static PersonServiceImpl service;
+    private static int rows;
+
+    private BenchmarkDatabase() {}
+
+    /**
+     * Pointe ConnexionDB vers H2, crée le schéma et remplit la table jusqu'à
+     * {@code size} lignes.
+     * @param size Nombre de lignes voulues dans la table.
+     * @return Le service JDBC branché sur H2.
+     */
+    public static synchronized PersonServiceImpl open(int size) throws SQLException {
+        if (service == null) {
+            System.setProperty("tp333.db.url", URL);
+            System.setProperty("tp333.db.user", "sa");
+            System.setProperty("tp333.db.password", "");
+            service = new PersonServiceImpl();
+            service.createTableIfNotExists();
+            try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM person")) {
+                rows = rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+        if (rows < size) {
+            service.addPersons(samplePersons(size - rows, rows));
+            rows = size;
+        }
+        return service;
+    }
+
+    /**
+     * @return Le nombre de lignes actuellement dans la table.
+     */
+    public static synchronized int rows() {
+        return rows;
+    }
+
+    /**
+     * Génère des personnes sans ID.
+     * @param count Nombre de personnes.
+     * @param offset Décalage appliqué aux noms générés.
+     * @return Les personnes.
+     */
+    public static Person[] samplePersons(int count, int offset) {
+        Person[] persons = new Person[count];
+        for (int i = 0; i < count; i++) {
+            persons[i] = new Person(0, "Personne " + (offset + i), 18 + (offset + i) % 70);
+        }
+        return persons;
+    }
+}
@@ -0,0 +1,85 @@
+package com.info.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.info.model.Person;
+
+/**
+ * Taille et coût d'encodage d'un tableau de personnes selon la représentation
+ * (JSON ou CBOR) et la compression (aucune ou gzip), comme pour GET /persons/all.
+ *
+ * Les tailles obtenues sont affichées au démarrage de chaque combinaison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersonEncodingBenchmark {
+
+    @Param({ "100", "10000" })
+    public int size;
+
+    @Param({ "json", "cbor" })
+    public String format;
+
+    @Param({ "identity", "gzip" })
+    public String encoding;
+
+    private ObjectMapper mapper;
+    private Person[] persons;
+    private byte[] payload;
+
+    @Setup
+    public void setup() throws IOException {
+        mapper = "cbor".equals(format) ? new ObjectMapper(new CBORFactory()) : new ObjectMapper();
+        persons = BenchmarkDatabase.samplePersons(size, 0);
+        for (int i = 0; i < size; i++) {
+            persons[i].setId(i + 1);
+        }
+        payload = encode();
+        System.out.printf("%n%s/%s, %d personnes : %d octets (%.1f octets par personne)%n",
+                format, encoding, size, payload.length, (double) payload.length / size);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+        try (OutputStream output = "gzip".equals(encoding) ? new GZIPOutputStream(bytes, 8192) : bytes) {
+            mapper.writeValue(output, persons);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Person[] decode() throws IOException {
+        if ("gzip".equals(encoding)) {
+            try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(payload), 8192)) {
+                return mapper.readValue(input, Person[].class);
+            }
+        }
+        return mapper.readValue(payload, Person[].class);
+    }
+}
@@ -0,0 +1,108 @@
+package com.info.bench;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.info.model.Person;
+
+/**
+ * Coût de la conversion Person <-> JSON par Jackson, pour un objet seul et pour
+ * un tableau complet, ainsi que l'écriture en flux utilisée par GET /persons/all.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersonJsonBenchmark {
+
+    @Param({ "100", "10000" })
+    public int size;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private Person person;
+    private byte[] personJson;
+    private Person[] persons;
+    private byte[] personsJson;
+
+    @Setup
+    public void setup() throws IOException {
+        person = new Person(42, "Marie Curie", 45);
+        personJson = mapper.writeValueAsBytes(person);
+        persons = BenchmarkDatabase.samplePersons(size, 0);
+        for (int i = 0; i < size; i++) {
+            persons[i].setId(i + 1);
+        }
+        personsJson = mapper.writeValueAsBytes(persons);
+    }
+
+    @Benchmark
+    public byte[] serializePerson() throws IOException {
+        return mapper.writeValueAsBytes(person);
+    }
+
+    @Benchmark
+    public Person deserializePerson() throws IOException {
+        return mapper.readValue(personJson, Person.class);
+    }
+
+    @Benchmark
+    public byte[] serializeArray() throws IOException {
+        return mapper.writeValueAsBytes(persons);
+    }
+
+    @Benchmark
+    public Person[] deserializeArray() throws IOException {
+        return mapper.readValue(personsJson, Person[].class);
+    }
+
+    @Benchmark
+    public void serializeArrayStreaming(Blackhole blackhole) throws IOException {
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(new BlackholeOutputStream(blackhole))) {
+            generator.writeStartArray();
+            for (Person p : persons) {
+                generator.writeObject(p);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * Flux de sortie qui consomme les octets sans les conserver.
+     */
+    static final class BlackholeOutputStream extends OutputStream {
+        private final Blackhole blackhole;
+
+        BlackholeOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(b);
+            blackhole.consume(len);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.info.bench;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.info.model.Person;
+import com.info.service.CachingPersonService;
+import com.info.service.InMemoryPersonService;
+import com.info.service.PersonService;
+
+/**
+ * Appels de bout en bout au service Person sur H2 embarquée (mode MySQL) ou
+ * sur le moteur en mémoire, avec et sans le cache en lecture.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersonServiceBenchmark {
+
+    private static final int ROWS = 10000;
+
+    @Param({ "jdbc", "memory" })
+    public String backend;
+
+    @Param({ "false", "true" })
+    public boolean cached;
+
+    private PersonService service;
+
+    @Setup
+    public void setup() throws SQLException {
+        PersonService storage;
+        if ("memory".equals(backend)) {
+            InMemoryPersonService memory = new InMemoryPersonService();
+            memory.addPersons(BenchmarkDatabase.samplePersons(ROWS, 0));
+            storage = memory;
+        } else {
+            storage = BenchmarkDatabase.open(ROWS);
+        }
+        service = cached ? new CachingPersonService(storage, ROWS, 60000) : storage;
+    }
+
+    @Benchmark
+    public Person getPerson() {
+        return service.getPerson(1 + ThreadLocalRandom.current().nextInt(ROWS));
+    }
+
+    @Benchmark
+    public Person getPersonByName() {
+        return service.getPersonByName("Personne " + ThreadLocalRandom.current().nextInt(ROWS - 4));
+    }
+
+    @Benchmark
+    public Person[] getPersonsPage() {
+        return service.getPersons(ThreadLocalRandom.current().nextInt(ROWS - 100), 100);
+    }
+
+    @Benchmark
+    public boolean addThenDeletePerson() {
+        Person person = new Person(0, "Bench", 30);
+        service.addPerson(person);
+        return service.deletePerson(person.getId());
+    }
+}
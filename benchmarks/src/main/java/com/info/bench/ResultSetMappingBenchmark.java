@@ -0,0 +1,100 @@
+package com.info.bench;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.info.model.Person;
+import com.info.service.PersonRowMapper;
+import com.info.service.PersonServiceImpl;
+
+/**
+ * Boucle ResultSet -> Person : la boucle JDBC brute avec accès par libellé sur
+ * SELECT *, avec accès par position sur les colonnes explicites (PersonRowMapper,
+ * comme PersonServiceImpl), et le même parcours via le service (emprunt au pool compris).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResultSetMappingBenchmark {
+
+    @Param({ "100", "5000" })
+    public int rows;
+
+    private PersonServiceImpl service;
+    private Connection connection;
+    private PreparedStatement select;
+    private PreparedStatement selectColumns;
+
+    @Setup
+    public void setup() throws SQLException {
+        service = BenchmarkDatabase.open(rows);
+        connection = DriverManager.getConnection(BenchmarkDatabase.URL, "sa", "");
+        select = connection.prepareStatement("SELECT * FROM person WHERE id > ? ORDER BY id LIMIT ?");
+        selectColumns = connection.prepareStatement(
+                "SELECT " + PersonRowMapper.COLUMNS + " FROM person WHERE id > ? ORDER BY id LIMIT ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        select.close();
+        selectColumns.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Person> mapByLabel() throws SQLException {
+        select.setInt(1, 0);
+        select.setInt(2, rows);
+        List<Person> result = new ArrayList<>(rows);
+        try (ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                Person person = new Person();
+                person.setId(rs.getInt("id"));
+                person.setName(rs.getString("name"));
+                person.setAge(rs.getInt("age"));
+                result.add(person);
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<Person> mapByIndex() throws SQLException {
+        selectColumns.setInt(1, 0);
+        selectColumns.setInt(2, rows);
+        List<Person> result = new ArrayList<>(rows);
+        try (ResultSet rs = selectColumns.executeQuery()) {
+            while (rs.next()) {
+                result.add(PersonRowMapper.map(rs));
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Person[] servicePage() {
+        return service.getPersons(0, rows);
+    }
+}
@@ -0,0 +1,96 @@
+package com.info.bench;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.info.model.Person;
+import com.info.service.PersonRowMapper;
+
+/**
+ * Lecture d'une personne par ID : requête préparée à chaque appel (comme
+ * PersonServiceImpl) ou préparée une fois et réutilisée. Avec queryCache=0,
+ * H2 réanalyse le SQL à chaque prepareStatement(), comme MySQL sans
+ * cachePrepStmts ; avec queryCache=8, le cache de la session joue le rôle du
+ * cache de requêtes préparées du driver MySQL.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatementPreparationBenchmark {
+
+    private static final int ROWS = 1000;
+    private static final String SQL = "SELECT " + PersonRowMapper.COLUMNS + " FROM person WHERE id = ?";
+
+    @Param({ "0", "8" })
+    public int queryCache;
+
+    private Connection connection;
+    private PreparedStatement reused;
+
+    @Setup
+    public void setup() throws SQLException {
+        // Réglage lu à l'ouverture de la base : une base par valeur du paramètre
+        connection = DriverManager.getConnection("jdbc:h2:mem:tp333prep" + queryCache
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;QUERY_CACHE_SIZE=" + queryCache, "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE person (id INT AUTO_INCREMENT PRIMARY KEY, "
+                    + "name VARCHAR(100) NOT NULL, age INT NOT NULL, version INT NOT NULL DEFAULT 0)");
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO person (name, age) VALUES (?, ?)")) {
+            for (Person p : BenchmarkDatabase.samplePersons(ROWS, 0)) {
+                insert.setString(1, p.getName());
+                insert.setInt(2, p.getAge());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        reused = connection.prepareStatement(SQL);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        reused.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public Person prepareEachCall() throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(SQL)) {
+            return find(pstmt);
+        }
+    }
+
+    @Benchmark
+    public Person reuseStatement() throws SQLException {
+        return find(reused);
+    }
+
+    private static Person find(PreparedStatement pstmt) throws SQLException {
+        pstmt.setInt(1, 1 + ThreadLocalRandom.current().nextInt(ROWS));
+        try (ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? PersonRowMapper.map(rs) : null;
+        }
+    }
+}
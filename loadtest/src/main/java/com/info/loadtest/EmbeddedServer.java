@@ -0,0 +1,59 @@
+package com.info.loadtest;
+
+import java.net.URI;
+
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+
+import com.info.config.RestApplication;
+
+/**
+ * L'application JAX-RS servie par Grizzly dans le processus du test, sur une base
+ * H2 en mémoire (mode MySQL) : aucun conteneur ni serveur MySQL à installer.
+ */
+public final class EmbeddedServer {
+
+    public static final String H2_URL = "jdbc:h2:mem:tp333load;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;IGNORECASE=TRUE";
+
+    private final HttpServer server;
+    private final String baseUri;
+
+    private EmbeddedServer(HttpServer server, String baseUri) {
+        this.server = server;
+        this.baseUri = baseUri;
+    }
+
+    /**
+     * Démarre l'application. Les réglages tp333.* déjà fournis (-D) sont conservés.
+     * @param port Port d'écoute sur localhost.
+     * @return Le serveur démarré.
+     */
+    public static EmbeddedServer start(int port) {
+        defaultProperty("tp333.db.url", H2_URL);
+        defaultProperty("tp333.db.user", "sa");
+        defaultProperty("tp333.db.password", "");
+        String baseUri = "http://localhost:" + port + "/api";
+        HttpServer server = GrizzlyHttpServerFactory.createHttpServer(URI.create(baseUri + "/"), new RestApplication());
+        return new EmbeddedServer(server, baseUri);
+    }
+
+    private static void defaultProperty(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    /**
+     * @return L'URI de base de l'API, sans "/" final.
+     */
+    public String getBaseUri() {
+        return baseUri;
+    }
+
+    /**
+     * Arrête le serveur ; l'application ferme alors son stockage.
+     */
+    public void stop() {
+        server.shutdownNow();
+    }
+}
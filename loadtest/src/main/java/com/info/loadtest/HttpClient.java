@@ -0,0 +1,94 @@
+package com.info.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Client HTTP minimal au-dessus de HttpURLConnection.
+ *
+ * Le corps de chaque réponse est lu jusqu'au bout, y compris en cas d'erreur :
+ * la connexion retourne alors au cache keep-alive du JDK et sert à la requête
+ * suivante, comme chez un vrai client.
+ */
+public class HttpClient {
+
+    /** Statut renvoyé quand la requête échoue sans réponse HTTP (connexion, délai). */
+    public static final int IO_ERROR = -1;
+
+    private final String baseUri;
+    private final int timeoutMs;
+
+    /**
+     * @param baseUri URI de base de l'API, sans "/" final.
+     * @param timeoutMs Délai de connexion et de lecture (ms).
+     */
+    public HttpClient(String baseUri, int timeoutMs) {
+        this.baseUri = baseUri;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Envoie une requête et lit toute la réponse.
+     * @param request La requête.
+     * @return Le statut HTTP, ou IO_ERROR.
+     */
+    public int send(Request request) {
+        try {
+            return exchange(request, null);
+        } catch (IOException e) {
+            return IO_ERROR;
+        }
+    }
+
+    /**
+     * Envoie une requête et renvoie le corps de la réponse (préparation des données).
+     * @param request La requête.
+     * @return Le corps de la réponse.
+     * @throws IOException si la requête échoue ou si le statut n'est pas 2xx.
+     */
+    public String fetch(Request request) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        int status = exchange(request, body);
+        String text = new String(body.toByteArray(), StandardCharsets.UTF_8);
+        if (status < 200 || status >= 300) {
+            throw new IOException(request.getMethod() + " " + request.getPath() + " : HTTP " + status + " " + text);
+        }
+        return text;
+    }
+
+    private int exchange(Request request, ByteArrayOutputStream body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUri + request.getPath()).openConnection();
+        connection.setConnectTimeout(timeoutMs);
+        connection.setReadTimeout(timeoutMs);
+        connection.setRequestMethod(request.getMethod());
+        connection.setRequestProperty("Accept", "application/json");
+        if (request.getBody() != null) {
+            byte[] bytes = request.getBody().getBytes(StandardCharsets.UTF_8);
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setFixedLengthStreamingMode(bytes.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(bytes);
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        if (in != null) {
+            try (InputStream stream = in) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = stream.read(buffer)) != -1) {
+                    if (body != null) {
+                        body.write(buffer, 0, read);
+                    }
+                }
+            }
+        }
+        return status;
+    }
+}
@@ -0,0 +1,129 @@
+package com.info.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Génère la charge selon l'un des deux modèles :
+ * <ul>
+ * <li>fermé (rate = 0) : "clients" clients enchaînent chacun requête, réponse,
+ * temps de réflexion ; le débit s'adapte à la vitesse du serveur ;</li>
+ * <li>ouvert (rate &gt; 0) : les requêtes partent à cadence fixe, quelle que soit
+ * la vitesse du serveur, sur au plus "clients" connexions simultanées.</li>
+ * </ul>
+ * En modèle ouvert, la latence est mesurée depuis l'instant où la requête devait
+ * partir : l'attente due à un serveur saturé est comptée, au lieu d'être masquée
+ * par un client qui ralentit avec lui (omission coordonnée).
+ */
+public class LoadGenerator {
+
+    private final HttpClient client;
+    private final Workload workload;
+    private final int[] ids;
+    private final int clients;
+    private final double rate;
+    private final long thinkTimeMs;
+
+    /**
+     * @param client Le client HTTP.
+     * @param workload Le mélange d'opérations.
+     * @param ids Les IDs existants, pour les lectures et mises à jour.
+     * @param clients Nombre de clients (modèle fermé) ou de requêtes simultanées au plus (modèle ouvert).
+     * @param rate Requêtes par seconde en modèle ouvert, 0 pour le modèle fermé.
+     * @param thinkTimeMs Pause entre deux requêtes d'un client (modèle fermé).
+     */
+    public LoadGenerator(HttpClient client, Workload workload, int[] ids, int clients, double rate, long thinkTimeMs) {
+        if (ids.length == 0 || clients <= 0 || rate < 0) {
+            throw new IllegalArgumentException("IDs, nombre de clients ou cadence invalides");
+        }
+        this.client = client;
+        this.workload = workload;
+        this.ids = ids;
+        this.clients = clients;
+        this.rate = rate;
+        this.thinkTimeMs = thinkTimeMs;
+    }
+
+    /**
+     * Exécute une phase de charge et attend la fin des requêtes en cours.
+     * @param durationMs Durée de la phase (ms).
+     * @return Les résultats par opération.
+     */
+    public Map<Operation, OperationStats> run(long durationMs) throws InterruptedException {
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(clients, daemonThreads());
+        long durationNanos = TimeUnit.MILLISECONDS.toNanos(durationMs);
+        if (rate > 0) {
+            open(pool, stats, durationNanos);
+        } else {
+            closed(pool, stats, durationNanos);
+        }
+        pool.shutdown();
+        if (!pool.awaitTermination(durationMs + 60000, TimeUnit.MILLISECONDS)) {
+            pool.shutdownNow();
+        }
+        return stats;
+    }
+
+    private void closed(ExecutorService pool, Map<Operation, OperationStats> stats, long durationNanos) {
+        long deadline = System.nanoTime() + durationNanos;
+        for (int i = 0; i < clients; i++) {
+            pool.execute(() -> {
+                Random random = ThreadLocalRandom.current();
+                while (System.nanoTime() - deadline < 0) {
+                    Operation operation = workload.next(random);
+                    Request request = operation.create(random, ids);
+                    long start = System.nanoTime();
+                    int status = client.send(request);
+                    stats.get(operation).record(System.nanoTime() - start, status);
+                    if (thinkTimeMs > 0) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(thinkTimeMs));
+                    }
+                }
+            });
+        }
+    }
+
+    private void open(ExecutorService pool, Map<Operation, OperationStats> stats, long durationNanos) {
+        Random random = ThreadLocalRandom.current();
+        long start = System.nanoTime();
+        for (long i = 0; ; i++) {
+            long offset = (long) (i * 1e9 / rate);
+            if (offset >= durationNanos) {
+                return;
+            }
+            long intended = start + offset;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = workload.next(random);
+            Request request = operation.create(random, ids);
+            // Une requête qui attend une connexion libre prend ce retard dans sa latence
+            pool.execute(() -> {
+                int status = client.send(request);
+                stats.get(operation).record(System.nanoTime() - intended, status);
+            });
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "load-client-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
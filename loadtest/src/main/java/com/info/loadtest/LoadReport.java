@@ -0,0 +1,213 @@
+package com.info.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Rapport JSON d'un test de charge, comparable d'un build à l'autre.
+ *
+ * Pour l'ensemble et pour chaque opération : nombre de requêtes, débit (req/s),
+ * taux d'erreur, latences p50, p90, p99, p99.9, max et moyenne (ms) et nombre de
+ * réponses par statut. Les réglages du test sont recopiés dans "settings".
+ */
+public class LoadReport {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final ObjectNode root;
+
+    private LoadReport(ObjectNode root) {
+        this.root = root;
+    }
+
+    /**
+     * @param settings Les réglages du test.
+     * @param stats Les résultats de la phase mesurée, par opération.
+     * @param elapsedSeconds Durée de la phase mesurée, fin des dernières requêtes comprise.
+     * @return Le rapport.
+     */
+    public static LoadReport of(Map<String, Object> settings, Map<Operation, OperationStats> stats,
+                                double elapsedSeconds) {
+        ObjectNode root = MAPPER.createObjectNode();
+        root.set("settings", MAPPER.valueToTree(settings));
+        root.put("elapsedSeconds", round(elapsedSeconds));
+
+        Histogram all = new Histogram(3);
+        long requests = 0;
+        long errors = 0;
+        ObjectNode statuses = MAPPER.createObjectNode();
+        ObjectNode operations = MAPPER.createObjectNode();
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats operation = entry.getValue();
+            if (operation.getRequests() == 0) {
+                continue;
+            }
+            Histogram latencies = operation.takeLatencies();
+            all.add(latencies);
+            requests += operation.getRequests();
+            errors += operation.getErrors();
+            for (Map.Entry<Integer, Long> status : operation.getStatuses().entrySet()) {
+                String key = statusKey(status.getKey());
+                statuses.put(key, statuses.path(key).asLong() + status.getValue());
+            }
+            operations.set(entry.getKey().getKey(), summary(operation.getRequests(), operation.getErrors(),
+                    statusesOf(operation), latencies, elapsedSeconds));
+        }
+        root.set("total", summary(requests, errors, statuses, all, elapsedSeconds));
+        root.set("operations", operations);
+        return new LoadReport(root);
+    }
+
+    private static ObjectNode summary(long requests, long errors, ObjectNode statuses, Histogram latencies,
+                                      double elapsedSeconds) {
+        ObjectNode node = MAPPER.createObjectNode();
+        node.put("requests", requests);
+        node.put("errors", errors);
+        node.put("errorRate", requests > 0 ? round((double) errors / requests) : 0.0);
+        node.put("throughput", elapsedSeconds > 0 ? round(requests / elapsedSeconds) : 0.0);
+        ObjectNode latency = node.putObject("latencyMs");
+        latency.put("p50", millis(latencies.getValueAtPercentile(50)));
+        latency.put("p90", millis(latencies.getValueAtPercentile(90)));
+        latency.put("p99", millis(latencies.getValueAtPercentile(99)));
+        latency.put("p999", millis(latencies.getValueAtPercentile(99.9)));
+        latency.put("max", millis(latencies.getMaxValue()));
+        latency.put("mean", round(latencies.getMean() / 1000.0));
+        node.set("statuses", statuses);
+        return node;
+    }
+
+    private static ObjectNode statusesOf(OperationStats operation) {
+        ObjectNode statuses = MAPPER.createObjectNode();
+        for (Map.Entry<Integer, Long> status : operation.getStatuses().entrySet()) {
+            statuses.put(statusKey(status.getKey()), status.getValue());
+        }
+        return statuses;
+    }
+
+    private static String statusKey(int status) {
+        return status == HttpClient.IO_ERROR ? "io" : Integer.toString(status);
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+
+    /**
+     * @return Le taux d'erreur de l'ensemble des requêtes.
+     */
+    public double getErrorRate() {
+        return root.path("total").path("errorRate").asDouble();
+    }
+
+    /**
+     * @param file Le fichier JSON à écrire (dossiers créés au besoin).
+     */
+    public void write(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Impossible de créer " + parent);
+        }
+        MAPPER.writeValue(file, root);
+    }
+
+    /**
+     * @param file Un rapport écrit par un test précédent.
+     * @return Le rapport relu.
+     */
+    public static LoadReport read(File file) throws IOException {
+        return new LoadReport((ObjectNode) MAPPER.readTree(file));
+    }
+
+    /**
+     * @return Le tableau des résultats, une ligne par opération puis le total.
+     */
+    public String format() {
+        StringBuilder text = new StringBuilder(String.format(Locale.ROOT, "%-8s %9s %10s %8s %9s %9s %9s %9s%n",
+                "op", "requests", "req/s", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        Iterator<Map.Entry<String, JsonNode>> operations = root.path("operations").fields();
+        while (operations.hasNext()) {
+            Map.Entry<String, JsonNode> entry = operations.next();
+            line(text, entry.getKey(), entry.getValue());
+        }
+        line(text, "total", root.path("total"));
+        return text.toString();
+    }
+
+    private static void line(StringBuilder text, String name, JsonNode node) {
+        JsonNode latency = node.path("latencyMs");
+        text.append(String.format(Locale.ROOT, "%-8s %9d %10.1f %7.2f%% %9.3f %9.3f %9.3f %9.3f%n", name,
+                node.path("requests").asLong(), node.path("throughput").asDouble(),
+                node.path("errorRate").asDouble() * 100, latency.path("p50").asDouble(),
+                latency.path("p99").asDouble(), latency.path("p999").asDouble(), latency.path("max").asDouble()));
+    }
+
+    /** Réglages qui doivent être identiques pour que deux rapports soient comparables. */
+    private static final String[] LOAD_SETTINGS = { "persons", "clients", "rate", "thinkMs", "duration", "mix" };
+
+    /**
+     * Compare ce rapport à celui d'un build précédent : variation du débit et du p99,
+     * pour le total et chaque opération présente dans les deux. En modèle ouvert, le
+     * débit est imposé par la cadence : seul le p99 est alors vérifié.
+     * @param baseline Le rapport de référence.
+     * @param tolerancePercent Dégradation tolérée du débit ou du p99 total, en %.
+     * @return Les lignes de comparaison ; la dernière commence par "REGRESSION" si la tolérance est dépassée.
+     */
+    public List<String> compare(LoadReport baseline, double tolerancePercent) {
+        List<String> lines = new ArrayList<>();
+        for (String setting : LOAD_SETTINGS) {
+            JsonNode before = baseline.root.path("settings").path(setting);
+            JsonNode after = root.path("settings").path(setting);
+            if (!before.equals(after)) {
+                lines.add("Attention : " + setting + " différent (" + before + " -> " + after + "), comparaison indicative");
+            }
+        }
+        boolean openModel = root.path("settings").path("rate").asDouble() > 0;
+        Iterator<Map.Entry<String, JsonNode>> operations = root.path("operations").fields();
+        while (operations.hasNext()) {
+            Map.Entry<String, JsonNode> entry = operations.next();
+            JsonNode before = baseline.root.path("operations").path(entry.getKey());
+            if (!before.isMissingNode()) {
+                lines.add(compareLine(entry.getKey(), before, entry.getValue()));
+            }
+        }
+        JsonNode before = baseline.root.path("total");
+        JsonNode after = root.path("total");
+        lines.add(compareLine("total", before, after));
+        double throughputChange = change(before.path("throughput").asDouble(), after.path("throughput").asDouble());
+        double p99Change = change(before.path("latencyMs").path("p99").asDouble(),
+                after.path("latencyMs").path("p99").asDouble());
+        if ((!openModel && -throughputChange > tolerancePercent) || p99Change > tolerancePercent) {
+            lines.add(String.format(Locale.ROOT, "REGRESSION : débit %+.1f%%, p99 %+.1f%% (tolérance %.1f%%)",
+                    throughputChange, p99Change, tolerancePercent));
+        }
+        return lines;
+    }
+
+    private static String compareLine(String name, JsonNode before, JsonNode after) {
+        return String.format(Locale.ROOT, "%-8s req/s %10.1f -> %10.1f (%+6.1f%%)   p99 %9.3f -> %9.3f ms (%+6.1f%%)",
+                name, before.path("throughput").asDouble(), after.path("throughput").asDouble(),
+                change(before.path("throughput").asDouble(), after.path("throughput").asDouble()),
+                before.path("latencyMs").path("p99").asDouble(), after.path("latencyMs").path("p99").asDouble(),
+                change(before.path("latencyMs").path("p99").asDouble(), after.path("latencyMs").path("p99").asDouble()));
+    }
+
+    private static double change(double before, double after) {
+        return before > 0 ? (after - before) * 100.0 / before : 0.0;
+    }
+}
@@ -0,0 +1,165 @@
+package com.info.loadtest;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Test de charge de l'API /persons.
+ *
+ * Démarre l'application dans le processus (Grizzly + H2), ou vise un serveur
+ * existant avec target=, crée les personnes de test, chauffe le serveur puis
+ * mesure. Les réglages se passent en arguments clé=valeur :
+ * <pre>
+ * java -jar target/loadtest.jar clients=64 duration=30 mix=get=80,update=20
+ * java -jar target/loadtest.jar rate=2000 clients=256 baseline=previous.json
+ * </pre>
+ * Les réglages de l'application (tp333.*) restent des propriétés système (-D).
+ * Code de sortie 1 si le taux d'erreur dépasse maxErrorRate ou si la comparaison
+ * à baseline dépasse la tolérance.
+ */
+public final class LoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int SEED_CHUNK = 1000;
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = defaults();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals <= 0 || !options.containsKey(arg.substring(0, equals))) {
+                System.err.println("Argument inconnu : " + arg + "\nRéglages disponibles (valeurs par défaut) : " + options);
+                System.exit(2);
+            }
+            options.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        int clients = Integer.parseInt(options.get("clients"));
+        double rate = Double.parseDouble(options.get("rate"));
+        Workload workload = Workload.parse(options.get("mix"));
+
+        // Une connexion keep-alive par client, au lieu des 5 par défaut du JDK
+        System.setProperty("http.maxConnections", Integer.toString(clients));
+
+        EmbeddedServer server = null;
+        String target = options.get("target");
+        if (target.isEmpty()) {
+            server = EmbeddedServer.start(Integer.parseInt(options.get("port")));
+            target = server.getBaseUri();
+        }
+        int exitCode;
+        try {
+            HttpClient client = new HttpClient(target, Integer.parseInt(options.get("timeoutMs")));
+            int[] ids = prepare(client, Integer.parseInt(options.get("persons")));
+            LoadGenerator generator = new LoadGenerator(client, workload, ids, clients, rate,
+                    Long.parseLong(options.get("thinkMs")));
+
+            long warmupMs = Long.parseLong(options.get("warmup")) * 1000;
+            if (warmupMs > 0) {
+                System.out.println("Chauffe : " + warmupMs / 1000 + " s");
+                generator.run(warmupMs);
+            }
+            long durationMs = Long.parseLong(options.get("duration")) * 1000;
+            System.out.println("Mesure : " + durationMs / 1000 + " s, " + (rate > 0
+                    ? "modèle ouvert à " + rate + " req/s, " + clients + " connexions au plus"
+                    : "modèle fermé, " + clients + " clients"));
+            long start = System.nanoTime();
+            Map<Operation, OperationStats> stats = generator.run(durationMs);
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+            Map<String, Object> settings = new LinkedHashMap<>(options);
+            settings.put("target", target);
+            settings.put("mix", workload.describe());
+            settings.put("embedded", server != null);
+            settings.put("javaVersion", System.getProperty("java.version"));
+            settings.put("processors", Runtime.getRuntime().availableProcessors());
+            LoadReport report = LoadReport.of(settings, stats, elapsedSeconds);
+            File file = new File(options.get("report"));
+            report.write(file);
+            System.out.print(report.format());
+            System.out.println("Rapport : " + file.getAbsolutePath());
+
+            exitCode = 0;
+            double errorRate = report.getErrorRate();
+            if (errorRate > Double.parseDouble(options.get("maxErrorRate"))) {
+                System.out.println("ÉCHEC : taux d'erreur " + errorRate);
+                exitCode = 1;
+            }
+            if (!options.get("baseline").isEmpty()) {
+                List<String> comparison = report.compare(LoadReport.read(new File(options.get("baseline"))),
+                        Double.parseDouble(options.get("tolerance")));
+                comparison.forEach(System.out::println);
+                if (comparison.get(comparison.size() - 1).startsWith("REGRESSION")) {
+                    exitCode = 1;
+                }
+            }
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    private static Map<String, String> defaults() {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("target", "");
+        options.put("port", "8090");
+        options.put("persons", "10000");
+        options.put("clients", "32");
+        options.put("rate", "0");
+        options.put("thinkMs", "0");
+        options.put("warmup", "10");
+        options.put("duration", "30");
+        options.put("mix", Workload.DEFAULT_MIX);
+        options.put("timeoutMs", "10000");
+        options.put("maxErrorRate", "0.01");
+        options.put("report", "target/loadtest-report.json");
+        options.put("label", "");
+        options.put("baseline", "");
+        options.put("tolerance", "10");
+        return options;
+    }
+
+    /**
+     * Crée les personnes de test par lots ; avec persons=0, utilise celles qui existent.
+     * @return Les IDs disponibles pour les lectures et mises à jour.
+     */
+    private static int[] prepare(HttpClient client, int persons) throws Exception {
+        List<Integer> ids = new ArrayList<>(Math.max(persons, 16));
+        if (persons == 0) {
+            for (JsonNode person : MAPPER.readTree(client.fetch(new Request("GET", "/persons/all?limit=1000", null)))) {
+                ids.add(person.path("id").asInt());
+            }
+        }
+        Random random = new Random(42);
+        for (int from = 0; from < persons; from += SEED_CHUNK) {
+            StringBuilder body = new StringBuilder("[");
+            for (int i = from; i < Math.min(persons, from + SEED_CHUNK); i++) {
+                body.append(i > from ? "," : "").append(Operation.json(0, random));
+            }
+            body.append(']');
+            for (JsonNode result : MAPPER.readTree(client.fetch(new Request("POST", "/persons/bulk", body.toString())))) {
+                if (result.path("id").asInt() > 0) {
+                    ids.add(result.path("id").asInt());
+                }
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("Aucune personne disponible pour le test");
+        }
+        System.out.println(ids.size() + " personnes disponibles pour le test");
+        int[] result = new int[ids.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ids.get(i);
+        }
+        return result;
+    }
+}
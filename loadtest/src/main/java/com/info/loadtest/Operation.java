@@ -0,0 +1,132 @@
+package com.info.loadtest;
+
+import java.util.Random;
+
+/**
+ * Les opérations du mélange de charge, chacune sur un endpoint de /persons.
+ * Les IDs sont tirés parmi les personnes créées avant la mesure.
+ */
+public enum Operation {
+
+	/** GET /persons/{id} */
+	GET("get") {
+		@Override
+		Request create(Random random, int[] ids) {
+			return new Request("GET", "/persons/" + pick(random, ids), null);
+		}
+	},
+
+	/** GET /persons?ids=... (10 IDs) */
+	IDS("ids") {
+		@Override
+		Request create(Random random, int[] ids) {
+			StringBuilder path = new StringBuilder("/persons?ids=").append(pick(random, ids));
+			for (int i = 1; i < 10; i++) {
+				path.append(',').append(pick(random, ids));
+			}
+			return new Request("GET", path.toString(), null);
+		}
+	},
+
+	/** GET /persons/all, une page de 50 */
+	LIST("list") {
+		@Override
+		Request create(Random random, int[] ids) {
+			return new Request("GET", "/persons/all?afterId=" + pick(random, ids) + "&limit=50", null);
+		}
+	},
+
+	/** GET /persons/search, par préfixe */
+	SEARCH("search") {
+		@Override
+		Request create(Random random, int[] ids) {
+			return new Request("GET", "/persons/search?q=" + NAME_PREFIX + random.nextInt(100) + "&limit=20", null);
+		}
+	},
+
+	/** GET /persons/age, tranche de 10 ans */
+	AGE("age") {
+		@Override
+		Request create(Random random, int[] ids) {
+			int min = 18 + random.nextInt(60);
+			return new Request("GET", "/persons/age?min=" + min + "&max=" + (min + 9) + "&limit=50", null);
+		}
+	},
+
+	/** GET /persons/stats */
+	STATS("stats") {
+		@Override
+		Request create(Random random, int[] ids) {
+			return new Request("GET", "/persons/stats", null);
+		}
+	},
+
+	/** POST /persons/add */
+	ADD("add") {
+		@Override
+		Request create(Random random, int[] ids) {
+			return new Request("POST", "/persons/add", json(0, random));
+		}
+	},
+
+	/** PUT /persons/update, sans If-Match */
+	UPDATE("update") {
+		@Override
+		Request create(Random random, int[] ids) {
+			return new Request("PUT", "/persons/update", json(pick(random, ids), random));
+		}
+	};
+
+	/** Début des noms générés : "load-12345". */
+	public static final String NAME_PREFIX = "load-";
+
+	private final String key;
+
+	private Operation(String key) {
+		this.key = key;
+	}
+
+	/**
+	 * @return Le nom de l'opération dans le mélange et le rapport.
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * Construit une requête aléatoire.
+	 * @param random Le générateur du thread courant.
+	 * @param ids Les IDs existants.
+	 * @return La requête.
+	 */
+	abstract Request create(Random random, int[] ids);
+
+	/**
+	 * @param key Le nom de l'opération ("get", "list"...).
+	 * @return L'opération.
+	 * @throws IllegalArgumentException si le nom est inconnu.
+	 */
+	public static Operation fromKey(String key) {
+		for (Operation operation : values()) {
+			if (operation.key.equals(key)) {
+				return operation;
+			}
+		}
+		throw new IllegalArgumentException("Opération inconnue : " + key);
+	}
+
+	/**
+	 * Corps JSON d'une personne (id 0 pour une création).
+	 */
+	public static String json(int id, Random random) {
+		String name = NAME_PREFIX + random.nextInt(1000000);
+		int age = 18 + random.nextInt(70);
+		return id > 0
+				? "{\"id\":" + id + ",\"name\":\"" + name + "\",\"age\":" + age + "}"
+				: "{\"name\":\"" + name + "\",\"age\":" + age + "}";
+	}
+
+	private static int pick(Random random, int[] ids) {
+		return ids[random.nextInt(ids.length)];
+	}
+}
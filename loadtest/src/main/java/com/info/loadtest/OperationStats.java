@@ -0,0 +1,70 @@
+package com.info.loadtest;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Résultats d'une opération : latences (histogramme HDR, microsecondes, 3 chiffres
+ * significatifs pour un p99.9 fiable) et nombre de réponses par statut.
+ */
+public class OperationStats {
+
+    private final Recorder recorder = new Recorder(3);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    /**
+     * Enregistre une réponse.
+     * @param nanos Durée, depuis l'instant où la requête devait partir.
+     * @param status Statut HTTP, ou HttpClient.IO_ERROR.
+     */
+    public void record(long nanos, int status) {
+        recorder.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        requests.increment();
+        if (isError(status)) {
+            errors.increment();
+        }
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    /**
+     * 304 et 404 sont des réponses normales de l'API ; les autres 4xx, les 5xx et
+     * les échecs sans réponse comptent comme des erreurs.
+     */
+    static boolean isError(int status) {
+        return status == HttpClient.IO_ERROR || (status >= 400 && status != 404);
+    }
+
+    /**
+     * @return Les latences enregistrées depuis le dernier appel.
+     */
+    public Histogram takeLatencies() {
+        return recorder.getIntervalHistogram();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * @return Le nombre de réponses par statut, triés.
+     */
+    public Map<Integer, Long> getStatuses() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        for (Map.Entry<Integer, LongAdder> entry : statuses.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,35 @@
+package com.info.loadtest;
+
+/**
+ * Une requête HTTP à envoyer : méthode, chemin relatif à l'API et corps JSON éventuel.
+ */
+public final class Request {
+
+    private final String method;
+    private final String path;
+    private final String body;
+
+    public Request(String method, String path, String body) {
+        this.method = method;
+        this.path = path;
+        this.body = body;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return Le chemin, requête comprise, ex: "/persons/12".
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return Le corps JSON, ou null.
+     */
+    public String getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,79 @@
+package com.info.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Mélange pondéré d'opérations, ex: "get=70,list=10,update=20".
+ */
+public final class Workload {
+
+    public static final String DEFAULT_MIX = "get=60,ids=10,list=8,search=6,age=5,stats=1,add=4,update=6";
+
+    private final Map<Operation, Integer> weights;
+    private final Operation[] operations;
+    private final int[] cumulative;
+
+    private Workload(Map<Operation, Integer> weights) {
+        this.weights = weights;
+        this.operations = weights.keySet().toArray(new Operation[0]);
+        this.cumulative = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulative[i] = total;
+        }
+    }
+
+    /**
+     * @param mix Les poids, "opération=poids" séparés par des virgules.
+     * @return Le mélange.
+     * @throws IllegalArgumentException si le mélange est vide ou mal formé.
+     */
+    public static Workload parse(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Entrée du mélange invalide : " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Poids négatif : " + entry);
+            }
+            if (weight > 0) {
+                weights.put(Operation.fromKey(parts[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Mélange vide : " + mix);
+        }
+        return new Workload(weights);
+    }
+
+    /**
+     * @param random Le générateur du thread courant.
+     * @return Une opération tirée selon les poids.
+     */
+    public Operation next(Random random) {
+        int draw = random.nextInt(cumulative[cumulative.length - 1]);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (draw < cumulative[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    /**
+     * @return Les poids, par nom d'opération.
+     */
+    public Map<String, Integer> describe() {
+        Map<String, Integer> description = new LinkedHashMap<>();
+        for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+            description.put(entry.getKey().getKey(), entry.getValue());
+        }
+        return description;
+    }
+}
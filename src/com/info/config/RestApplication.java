@@ -0,0 +1,243 @@
+package com.info.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+
+import org.glassfish.jersey.jackson.JacksonFeature;
+import org.glassfish.jersey.message.DeflateEncoder;
+import org.glassfish.jersey.message.GZipEncoder;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.filter.EncodingFilter;
+import org.glassfish.jersey.server.spi.AbstractContainerLifecycleListener;
+import org.glassfish.jersey.server.spi.Container;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.bridge.SLF4JBridgeHandler;
+
+import com.fasterxml.jackson.jaxrs.cbor.JacksonCBORProvider;
+import com.info.db.DatabaseHealthMonitor;
+import com.info.filter.AdminKeyFilter;
+import com.info.filter.CompressionInterceptor;
+import com.info.filter.ReadYourWritesFilter;
+import com.info.filter.RepresentationTagFilter;
+import com.info.metrics.MetricsFilter;
+import com.info.metrics.MetricsRegistry;
+import com.info.router.AdminRouter;
+import com.info.router.AsyncDispatcher;
+import com.info.router.ChangeStream;
+import com.info.router.HealthRouter;
+import com.info.router.MetricsRouter;
+import com.info.router.RestRouter;
+import com.info.service.AgeStatistics;
+import com.info.service.CachingPersonService;
+import com.info.service.ChangeFeed;
+import com.info.service.CoalescingPersonService;
+import com.info.service.ModificationCounter;
+import com.info.service.NameIndex;
+import com.info.service.ObservablePersonService;
+import com.info.service.PersonService;
+import com.info.service.StorageProvider;
+import com.info.service.TimedPersonService;
+import com.info.service.WriteBehindQueue;
+
+/**
+ * Configuration de l'application JAX-RS (remplace le scan de packages).
+ *
+ * Le schéma est créé une seule fois au démarrage et les ressources sont des
+ * singletons : une requête HTTP ne coûte plus que sa propre requête SQL.
+ * Si le stockage est indisponible, le déploiement échoue immédiatement.
+ */
+public class RestApplication extends ResourceConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RestApplication.class);
+
+    public RestApplication() {
+        // Les journaux de Jersey (java.util.logging) passent par SLF4J
+        SLF4JBridgeHandler.removeHandlersForRootLogger();
+        SLF4JBridgeHandler.install();
+
+        // Moteur de stockage choisi par tp333.storage (mysql, h2 ou memory)
+        StorageProvider storage = StorageProvider.fromSettings();
+        PersonService personService;
+        try {
+            personService = storage.open();
+        } catch (SQLException e) {
+            storage.close();
+            throw new IllegalStateException("❌ Stockage " + storage.getName() + " indisponible au démarrage : "
+                    + e.getMessage(), e);
+        }
+        LOGGER.info("✅ Stockage des personnes : {}", storage.getName());
+
+        // Chronométrage au plus près de la base, sous le cache
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.poolStats(storage::getPoolStats);
+        PersonService timedService = new TimedPersonService(personService, metrics);
+
+        // Les écritures réussies sont diffusées aux index en mémoire
+        ObservablePersonService observableService = new ObservablePersonService(timedService);
+
+        // Version de la table pour les ETag des listes
+        ModificationCounter modifications = new ModificationCounter();
+        observableService.addListener(modifications);
+
+        // Journal des modifications diffusé en SSE sur /persons/changes
+        ChangeFeed changeFeed = new ChangeFeed(Settings.getInt("tp333.changes.bufferSize", 10000));
+        observableService.addListener(changeFeed);
+        ChangeStream changeStream = new ChangeStream(changeFeed, Settings.getLong("tp333.changes.heartbeatMs", 15000),
+                Settings.getLong("tp333.changes.sendTimeoutMs", 10000));
+        changeStream.start();
+        metrics.gauge("tp333_changes_subscribers", changeStream::getSubscribers);
+        metrics.counter("tp333_changes_disconnected_total", changeStream::getDisconnected);
+
+        // Index des noms pour l'autocomplétion : -Dtp333.search.index.enabled=false pour le désactiver
+        NameIndex nameIndex = null;
+        if (Settings.getBoolean("tp333.search.index.enabled", true)) {
+            nameIndex = new NameIndex();
+            try {
+                nameIndex.load(observableService);
+            } catch (IOException e) {
+                changeStream.stop();
+                storage.close();
+                throw new IllegalStateException("❌ Chargement de l'index des noms impossible : " + e.getMessage(), e);
+            }
+            observableService.addListener(nameIndex);
+            NameIndex nameIndexRef = nameIndex;
+            metrics.gauge("tp333_name_index_size", nameIndexRef::size);
+        }
+
+        // Statistiques d'âge de /persons/stats : -Dtp333.stats.enabled=false pour les calculer à la demande
+        AgeStatistics ageStatistics = null;
+        if (Settings.getBoolean("tp333.stats.enabled", true)) {
+            ageStatistics = new AgeStatistics(
+                    Settings.getInt("tp333.stats.bucketWidth", AgeStatistics.DEFAULT_BUCKET_WIDTH));
+            try {
+                ageStatistics.load(observableService);
+            } catch (IOException e) {
+                changeStream.stop();
+                storage.close();
+                throw new IllegalStateException("❌ Chargement des statistiques d'âge impossible : " + e.getMessage(), e);
+            }
+            observableService.addListener(ageStatistics);
+            LOGGER.info("✅ Statistiques d'âge chargées : {} personnes", ageStatistics.size());
+        }
+
+        // Lectures par ID concurrentes regroupées en requêtes IN : -Dtp333.coalesce.enabled=false pour le désactiver
+        PersonService service = observableService;
+        if (Settings.getBoolean("tp333.coalesce.enabled", true)) {
+            CoalescingPersonService coalescing = new CoalescingPersonService(observableService,
+                    Settings.getLong("tp333.coalesce.windowMs", 1),
+                    Settings.getInt("tp333.coalesce.maxBatchSize", 64));
+            service = coalescing;
+            metrics.counter("tp333_coalesce_lookups_total", coalescing::getLookups);
+            metrics.counter("tp333_coalesce_merged_total", coalescing::getMerged);
+            metrics.counter("tp333_coalesce_batches_total", coalescing::getBatches);
+        }
+
+        // Cache activable par déploiement : -Dtp333.cache.enabled=false pour le désactiver
+        CachingPersonService cache = null;
+        if (Settings.getBoolean("tp333.cache.enabled", true)) {
+            // Avec des répliques, une personne qui vient d'être modifiée est relue sur le primaire
+            long replicaLagMs = Settings.get("tp333.db.replicas", "").isEmpty()
+                    ? 0 : Settings.getLong("tp333.db.readYourWritesMs", 2000);
+            cache = new CachingPersonService(service,
+                    Settings.getInt("tp333.cache.maxSize", 10000),
+                    Settings.getLong("tp333.cache.ttlMs", 60000), replicaLagMs);
+            service = cache;
+            CachingPersonService cacheRef = cache;
+            metrics.gauge("tp333_cache_size", () -> cacheRef.getStats().getSize());
+            metrics.gauge("tp333_cache_hit_ratio", () -> cacheRef.getStats().getHitRatio());
+        }
+
+        // État du stockage vérifié en tâche de fond pour les sondes /health
+        DatabaseHealthMonitor healthMonitor = new DatabaseHealthMonitor(storage::isHealthy,
+                Settings.getLong("tp333.health.intervalMs", 5000));
+        healthMonitor.start();
+
+        // Accès base hors des threads du conteneur, avec file bornée (503 au-delà)
+        AsyncDispatcher dispatcher = new AsyncDispatcher(
+                Settings.getInt("tp333.async.threads", 32),
+                Settings.getInt("tp333.async.maxPending", 256),
+                Settings.getLong("tp333.async.timeoutMs", 10000),
+                Settings.getBoolean("tp333.async.virtualThreads", true));
+        metrics.gauge("tp333_async_in_flight", dispatcher::getInFlight);
+        metrics.gauge("tp333_async_pending", dispatcher::getPending);
+        metrics.counter("tp333_async_rejected_total", dispatcher::getRejected);
+        metrics.counter("tp333_async_timeouts_total", dispatcher::getTimeouts);
+        metrics.gauge("tp333_async_timed_out_running", dispatcher::getTimedOutRunning);
+
+        // Ajouts acquittés par 202 et écrits par lots en tâche de fond : -Dtp333.ingest.writeBehind=true
+        WriteBehindQueue writeBehind = null;
+        if (Settings.getBoolean("tp333.ingest.writeBehind", false)) {
+            String journal = Settings.get("tp333.ingest.journal", "");
+            String deadLetter = Settings.get("tp333.ingest.deadLetter", journal.isEmpty() ? "" : journal + ".rejects");
+            WriteBehindQueue queue;
+            try {
+                queue = new WriteBehindQueue(service,
+                        Settings.getInt("tp333.ingest.capacity", 100000),
+                        Settings.getInt("tp333.ingest.batchSize", 500),
+                        Settings.getLong("tp333.ingest.lingerMs", 50),
+                        Settings.getInt("tp333.ingest.maxAttempts", 10),
+                        journal.isEmpty() ? null : new File(journal),
+                        deadLetter.isEmpty() ? null : new File(deadLetter),
+                        metrics.timer("tp333_ingest_flush_duration_seconds", "Durée d'écriture d'un lot d'ajouts différés."));
+            } catch (IOException e) {
+                healthMonitor.stop();
+                dispatcher.shutdown();
+                changeStream.stop();
+                storage.close();
+                throw new IllegalStateException("❌ Journal d'ingestion illisible : " + e.getMessage(), e);
+            }
+            queue.start();
+            metrics.gauge("tp333_ingest_queue_depth", queue::getDepth);
+            metrics.gauge("tp333_ingest_lag_seconds", queue::getLagSeconds);
+            metrics.counter("tp333_ingest_accepted_total", queue::getAccepted);
+            metrics.counter("tp333_ingest_rejected_total", queue::getRejected);
+            metrics.counter("tp333_ingest_flushed_total", queue::getFlushed);
+            metrics.counter("tp333_ingest_failed_total", queue::getFailed);
+            metrics.counter("tp333_ingest_batches_total", queue::getBatches);
+            LOGGER.info("✅ Écriture différée des ajouts activée{}", journal.isEmpty() ? "" : " (journal " + journal + ")");
+            writeBehind = queue;
+        }
+        WriteBehindQueue writeBehindRef = writeBehind;
+
+        register(new RestRouter(service, healthMonitor, dispatcher, nameIndex, ageStatistics, modifications,
+                changeStream, writeBehind));
+        register(new HealthRouter(healthMonitor));
+        String adminKey = Settings.get("tp333.admin.key", "");
+        if (!adminKey.isEmpty()) {
+            // Routes /admin (pool, configuration, cache) absentes tant qu'aucune clé n'est définie
+            register(new AdminRouter(cache, storage));
+            register(new AdminKeyFilter(adminKey));
+        } else {
+            LOGGER.info("Routes /admin désactivées (tp333.admin.key non défini)");
+        }
+        register(new MetricsRouter(metrics));
+        register(new MetricsFilter(metrics));
+        register(JacksonFeature.class);
+        register(JacksonCBORProvider.class);
+
+        // Compression négociée par Accept-Encoding, au-delà de tp333.compression.minBytes
+        EncodingFilter.enableFor(this, GZipEncoder.class, DeflateEncoder.class);
+        register(new CompressionInterceptor(Settings.getInt("tp333.compression.minBytes", 1024)));
+        // ETag fort distinct pour JSON, CBOR et chaque encodage
+        register(RepresentationTagFilter.class);
+        if (!Settings.get("tp333.db.replicas", "").isEmpty()) {
+            // Lectures sur les répliques, sauf pour un client qui vient d'écrire
+            register(new ReadYourWritesFilter(Settings.getLong("tp333.db.readYourWritesMs", 2000)));
+        }
+        register(new AbstractContainerLifecycleListener() {
+            @Override
+            public void onShutdown(Container container) {
+                healthMonitor.stop();
+                dispatcher.shutdown();
+                if (writeBehindRef != null) {
+                    // Ajouts en attente écrits avant la fermeture du stockage
+                    writeBehindRef.stop(Settings.getLong("tp333.ingest.shutdownTimeoutMs", 30000));
+                }
+                changeStream.stop();
+                storage.close();
+            }
+        });
+    }
+}
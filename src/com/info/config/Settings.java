@@ -0,0 +1,137 @@
+package com.info.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Paramètres "tp333.*" de l'application.
+ *
+ * Une clé est cherchée, par ordre de priorité : dans les propriétés système
+ * (-Dtp333.db.url=...), dans l'environnement (TP333_DB_URL=...), puis dans le
+ * fichier de configuration. Ce fichier est celui désigné par -Dtp333.config ou
+ * TP333_CONFIG, à défaut tp333.properties dans le classpath. Il peut être relu
+ * à chaud avec {@link #reload()}.
+ */
+public final class Settings {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Settings.class);
+
+    private static final String CLASSPATH_FILE = "tp333.properties";
+
+    private static volatile Properties file = loadFile();
+
+    private Settings() {}
+
+    /**
+     * @param key Clé, ex: "tp333.db.url".
+     * @return La valeur, ou null si elle n'est définie nulle part.
+     */
+    public static String get(String key) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = System.getenv(environmentName(key));
+        }
+        if (value == null) {
+            value = file.getProperty(key);
+        }
+        return value != null ? value.trim() : null;
+    }
+
+    public static String get(String key, String defaultValue) {
+        String value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key);
+        try {
+            return value != null ? Integer.parseInt(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valeur entière invalide pour " + key + " : " + value, e);
+        }
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = get(key);
+        try {
+            return value != null ? Long.parseLong(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valeur entière invalide pour " + key + " : " + value, e);
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key);
+        return value != null ? Boolean.parseBoolean(value) : defaultValue;
+    }
+
+    /**
+     * Clés commençant par un préfixe, lues dans le fichier puis dans les propriétés
+     * système (prioritaires). L'environnement ne permet pas d'énumérer ces clés.
+     * @param prefix Préfixe, ex: "tp333.db.driver.".
+     * @return Les valeurs, indexées par la clé sans le préfixe.
+     */
+    public static Map<String, String> withPrefix(String prefix) {
+        Map<String, String> values = new TreeMap<>();
+        collect(file, prefix, values);
+        collect(System.getProperties(), prefix, values);
+        return values;
+    }
+
+    /**
+     * Relit le fichier de configuration. Les composants relisent leurs
+     * paramètres quand ils le peuvent (ex: le pool de connexions).
+     */
+    public static synchronized void reload() {
+        file = loadFile();
+    }
+
+    private static void collect(Properties source, String prefix, Map<String, String> values) {
+        for (String key : source.stringPropertyNames()) {
+            if (key.startsWith(prefix) && key.length() > prefix.length()) {
+                values.put(key.substring(prefix.length()), source.getProperty(key).trim());
+            }
+        }
+    }
+
+    private static String environmentName(String key) {
+        return key.toUpperCase(Locale.ROOT).replace('.', '_');
+    }
+
+    private static Properties loadFile() {
+        Properties properties = new Properties();
+        String location = System.getProperty("tp333.config", System.getenv("TP333_CONFIG"));
+        try {
+            if (location != null) {
+                Path path = Paths.get(location);
+                try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                    properties.load(reader);
+                }
+                LOGGER.info("✅ Configuration chargée depuis {} ({} clés)", path.toAbsolutePath(), properties.size());
+                return properties;
+            }
+            try (InputStream in = Settings.class.getClassLoader().getResourceAsStream(CLASSPATH_FILE)) {
+                if (in != null) {
+                    properties.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+                    LOGGER.info("✅ Configuration chargée depuis le classpath ({} clés)", properties.size());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("❌ Fichier de configuration illisible : " + e.getMessage(), e);
+        }
+        return properties;
+    }
+}
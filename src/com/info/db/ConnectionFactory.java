@@ -0,0 +1,17 @@
+package com.info.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Ouvre une nouvelle connexion physique vers la base de données.
+ */
+public interface ConnectionFactory {
+
+	/**
+	 * Crée une connexion.
+	 * @return Une nouvelle connexion ouverte.
+	 * @throws SQLException si la connexion échoue.
+	 */
+	public Connection create() throws SQLException;
+}
@@ -0,0 +1,468 @@
+package com.info.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool de connexions JDBC borné.
+ *
+ * Les connexions libres sont réutilisées en LIFO (la plus récente d'abord) pour
+ * laisser vieillir puis évincer les connexions en trop. Chaque emprunt renvoie un
+ * proxy dont close() rend la connexion physique au pool.
+ */
+public class ConnectionPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionPool.class);
+
+    /** En dessous de cette durée d'inactivité, la validation à l'emprunt est sautée. */
+    private static final long VALIDATION_BYPASS_MS = 500;
+
+    /** Quantiles des temps d'attente publiés dans les statistiques. */
+    private static final double[] WAIT_QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+    private final String name;
+    private final ConnectionFactory factory;
+    private volatile PoolConfig config;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<PooledEntry> idle = new ArrayDeque<>();
+    private int total;
+    private int waiters;
+    private boolean closed;
+
+    private final Set<Lease> leases = ConcurrentHashMap.newKeySet();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong validationFailureCount = new AtomicLong();
+    private final WaitTimeHistogram waitHistogram = new WaitTimeHistogram();
+
+    private final ScheduledExecutorService housekeeper;
+    private ScheduledFuture<?> housekeeping;
+
+    /**
+     * Crée le pool et démarre la tâche de maintenance.
+     * @param name Nom du pool (pour les journaux).
+     * @param factory Fabrique de connexions physiques.
+     * @param config Paramètres du pool.
+     */
+    public ConnectionPool(String name, ConnectionFactory factory, PoolConfig config) {
+        config.validate();
+        this.name = name;
+        this.factory = factory;
+        this.config = config.copy();
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pool-" + name + "-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        this.housekeeping = scheduleHousekeeping(0, config.getHousekeepingIntervalMs());
+    }
+
+    /**
+     * @return Une copie des paramètres actuels du pool.
+     */
+    public PoolConfig getConfig() {
+        return config.copy();
+    }
+
+    /**
+     * Applique de nouveaux paramètres à chaud. Les emprunts en cours ne sont pas
+     * interrompus : si le pool est réduit, les connexions en trop sont fermées à
+     * leur retour ou par la maintenance ; s'il est agrandi, les appelants en
+     * attente sont réveillés pour ouvrir de nouvelles connexions. Les nouveaux
+     * délais s'appliquent aux emprunts suivants.
+     * @param newConfig Les nouveaux paramètres.
+     * @throws IllegalArgumentException si les paramètres sont invalides.
+     */
+    public void setConfig(PoolConfig newConfig) {
+        newConfig.validate();
+        PoolConfig applied = newConfig.copy();
+        PoolConfig previous;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            previous = config;
+            config = applied;
+            available.signalAll();
+            if (applied.getHousekeepingIntervalMs() != previous.getHousekeepingIntervalMs()) {
+                housekeeping.cancel(false);
+                housekeeping = scheduleHousekeeping(applied.getHousekeepingIntervalMs(),
+                        applied.getHousekeepingIntervalMs());
+            }
+        } finally {
+            lock.unlock();
+        }
+        // Maintenance immédiate : éviction au-delà du nouveau maximum, ouverture jusqu'au nouveau minimum
+        housekeeper.execute(this::housekeep);
+        LOGGER.info("🔄 Pool {} reconfiguré : {} (précédemment {})", name, applied, previous);
+    }
+
+    /**
+     * Emprunte une connexion, en attendant au plus borrowTimeoutMs.
+     * @return Une connexion à fermer après usage pour la rendre au pool.
+     * @throws SQLException si aucune connexion n'est disponible à temps ou si l'ouverture échoue.
+     */
+    public Connection borrow() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(config.getBorrowTimeoutMs());
+        while (true) {
+            PooledEntry entry = null;
+            boolean create = false;
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed) {
+                        throw new SQLException("Pool " + name + " fermé");
+                    }
+                    entry = idle.pollFirst();
+                    if (entry != null) {
+                        break;
+                    }
+                    if (total < config.getMaxSize()) {
+                        total++;
+                        create = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeoutCount.incrementAndGet();
+                        throw new SQLTimeoutException("Aucune connexion disponible dans le pool " + name
+                                + " après " + config.getBorrowTimeoutMs() + " ms");
+                    }
+                    waiters++;
+                    try {
+                        available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Attente de connexion interrompue", e);
+                    } finally {
+                        waiters--;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (create) {
+                try {
+                    entry = new PooledEntry(factory.create());
+                } catch (SQLException | RuntimeException e) {
+                    discardSlot();
+                    throw e;
+                }
+            } else if (!isUsable(entry)) {
+                validationFailureCount.incrementAndGet();
+                destroy(entry);
+                continue;
+            }
+
+            waitHistogram.record(System.nanoTime() - start);
+            borrowCount.incrementAndGet();
+            return lease(entry);
+        }
+    }
+
+    /**
+     * @return La charge actuelle : connexions empruntées plus appelants en attente.
+     */
+    public int getLoad() {
+        lock.lock();
+        try {
+            return total - idle.size() + waiters;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Un instantané des statistiques du pool.
+     */
+    public PoolStats getStats() {
+        PoolStats stats = new PoolStats();
+        PoolConfig current = config;
+        lock.lock();
+        try {
+            stats.setIdle(idle.size());
+            stats.setTotal(total);
+            stats.setActive(total - idle.size());
+            stats.setWaiters(waiters);
+        } finally {
+            lock.unlock();
+        }
+        stats.setMinSize(current.getMinSize());
+        stats.setMaxSize(current.getMaxSize());
+        stats.setBorrowCount(borrowCount.get());
+        stats.setTimeoutCount(timeoutCount.get());
+        stats.setLeakCount(leakCount.get());
+        stats.setValidationFailureCount(validationFailureCount.get());
+        stats.setAverageWaitMs(waitHistogram.averageMillis());
+        stats.setTotalWaitMs(waitHistogram.totalMillis());
+        stats.setWaitTimeQuantilesMs(waitHistogram.quantilesMillis(WAIT_QUANTILES));
+        stats.setWaitTimeHistogram(waitHistogram.snapshot());
+        return stats;
+    }
+
+    /**
+     * Ferme le pool : les connexions libres sont fermées immédiatement,
+     * les connexions empruntées le seront à leur retour.
+     */
+    public void close() {
+        List<PooledEntry> toClose;
+        lock.lock();
+        try {
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            total -= idle.size();
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        housekeeper.shutdownNow();
+        for (PooledEntry entry : toClose) {
+            closeQuietly(entry);
+        }
+        LOGGER.info("✅ Pool {} fermé.", name);
+    }
+
+    private ScheduledFuture<?> scheduleHousekeeping(long initialDelayMs, long intervalMs) {
+        return housekeeper.scheduleWithFixedDelay(this::housekeep, initialDelayMs, intervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private boolean isUsable(PooledEntry entry) {
+        if (System.currentTimeMillis() - entry.lastUsed < VALIDATION_BYPASS_MS) {
+            return true;
+        }
+        try {
+            return entry.raw.isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection lease(PooledEntry entry) {
+        Lease lease = new Lease(entry, config.getLeakDetectionThresholdMs() > 0);
+        leases.add(lease);
+        return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, lease);
+    }
+
+    /**
+     * Remet une connexion dans le pool, ou la ferme si elle est inutilisable
+     * ou si le pool a été réduit entre-temps.
+     */
+    private void release(PooledEntry entry) {
+        boolean keep = !entry.broken;
+        if (keep) {
+            try {
+                if (!entry.raw.getAutoCommit()) {
+                    entry.raw.rollback();
+                    entry.raw.setAutoCommit(true);
+                }
+                keep = !entry.raw.isClosed();
+            } catch (SQLException e) {
+                keep = false;
+            }
+        }
+        lock.lock();
+        try {
+            if (keep && !closed && total <= config.getMaxSize()) {
+                entry.lastUsed = System.currentTimeMillis();
+                idle.addFirst(entry);
+                available.signal();
+                return;
+            }
+            total--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        closeQuietly(entry);
+    }
+
+    private void destroy(PooledEntry entry) {
+        discardSlot();
+        closeQuietly(entry);
+    }
+
+    private void discardSlot() {
+        lock.lock();
+        try {
+            total--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeQuietly(PooledEntry entry) {
+        try {
+            entry.raw.close();
+        } catch (SQLException e) {
+            LOGGER.warn("❌ Erreur fermeture connexion du pool {} : {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * Tâche périodique : évince les connexions inactives au-delà du minimum,
+     * rouvre jusqu'au minimum et signale les emprunts trop longs.
+     */
+    private void housekeep() {
+        try {
+            PoolConfig current = config;
+            long now = System.currentTimeMillis();
+            List<PooledEntry> evicted = new ArrayList<>();
+            int toCreate;
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                Iterator<PooledEntry> it = idle.descendingIterator();
+                while (it.hasNext() && total > current.getMinSize()) {
+                    PooledEntry entry = it.next();
+                    if (total > current.getMaxSize() || now - entry.lastUsed > current.getIdleTimeoutMs()) {
+                        it.remove();
+                        total--;
+                        evicted.add(entry);
+                    }
+                }
+                toCreate = Math.max(0, current.getMinSize() - total);
+                total += toCreate;
+            } finally {
+                lock.unlock();
+            }
+
+            for (PooledEntry entry : evicted) {
+                closeQuietly(entry);
+            }
+            for (int i = 0; i < toCreate; i++) {
+                try {
+                    PooledEntry entry = new PooledEntry(factory.create());
+                    lock.lock();
+                    try {
+                        idle.addFirst(entry);
+                        available.signal();
+                    } finally {
+                        lock.unlock();
+                    }
+                } catch (SQLException e) {
+                    discardSlot();
+                    LOGGER.error("❌ Pool {} : ouverture de connexion échouée : {}", name, e.getMessage());
+                }
+            }
+
+            long threshold = current.getLeakDetectionThresholdMs();
+            if (threshold > 0) {
+                for (Lease lease : leases) {
+                    if (!lease.leakReported && now - lease.borrowedAt > threshold) {
+                        lease.leakReported = true;
+                        leakCount.incrementAndGet();
+                        LOGGER.warn("⚠️ Fuite probable : connexion du pool {} empruntée depuis {} ms",
+                                name, now - lease.borrowedAt, lease.origin);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("❌ Erreur maintenance du pool {} : {}", name, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Connexion physique gérée par le pool.
+     */
+    private static final class PooledEntry {
+        final Connection raw;
+        volatile long lastUsed = System.currentTimeMillis();
+        volatile boolean broken;
+
+        PooledEntry(Connection raw) {
+            this.raw = raw;
+        }
+    }
+
+    /**
+     * Emprunt en cours : intercepte close() pour rendre la connexion au pool.
+     */
+    private final class Lease implements InvocationHandler {
+        final PooledEntry entry;
+        final long borrowedAt = System.currentTimeMillis();
+        final Throwable origin;
+        final AtomicBoolean returned = new AtomicBoolean();
+        volatile boolean leakReported;
+
+        Lease(PooledEntry entry, boolean trackOrigin) {
+            this.entry = entry;
+            this.origin = trackOrigin ? new Throwable("Emprunt de la connexion") : null;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (returned.compareAndSet(false, true)) {
+                        leases.remove(this);
+                        release(entry);
+                        if (leakReported) {
+                            LOGGER.info("🔄 Connexion signalée comme fuite finalement rendue au pool {}", name);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return returned.get();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + name + "]";
+                default:
+                    break;
+            }
+            if (returned.get()) {
+                throw new SQLException("Connexion déjà rendue au pool " + name);
+            }
+            try {
+                return method.invoke(entry.raw, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException) {
+                    String state = ((SQLException) cause).getSQLState();
+                    // Classe SQLSTATE 08 : erreur de connexion, la connexion physique est perdue
+                    if (state != null && state.startsWith("08")) {
+                        entry.broken = true;
+                    }
+                }
+                throw cause;
+            }
+        }
+    }
+}
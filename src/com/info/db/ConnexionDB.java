@@ -3,84 +3,328 @@ package com.info.db;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.info.config.Settings;
 
 public class ConnexionDB {
-    
-    private static ConnexionDB instance;
-    private Connection connection;
-    
-    // Modifier selon votre configuration MySQL
-    private final String url = "jdbc:mysql://localhost:3306/tp2db?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true&useUnicode=true&characterEncoding=UTF-8";
-    private final String login = "root";
-    private final String password = ""; // Mot de passe vide
-    
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnexionDB.class);
+
+    private static volatile ConnexionDB instance;
+    private final ConnectionPool pool;
+    /** Ouvre les connexions physiques du primaire (pool et vérification de santé). */
+    private final ConnectionFactory factory;
+    /** Connexion réservée à la vérification de santé, hors du pool des requêtes. */
+    private Connection probe;
+
+    /** Après un échec d'ouverture, une réplique est écartée des lectures pendant ce délai (ms). */
+    private static final long REPLICA_RETRY_MS = 5000;
+
+    /** URL utilisée par le moteur h2 (tp333.storage=h2) si tp333.db.url n'est pas renseignée. */
+    public static final String H2_DEFAULT_URL =
+            "jdbc:h2:mem:tp333;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;IGNORECASE=TRUE";
+
+    // Base H2 embarquée par défaut pour le moteur h2, sans toucher aux propriétés système
+    private final boolean h2Defaults = "h2".equalsIgnoreCase(Settings.get("tp333.storage", "mysql"))
+            && Settings.get("tp333.db.url") == null;
+    // Modifier selon votre configuration MySQL (surcharge par tp333.db.url, .user, .password : voir Settings)
+    private final String url = h2Defaults ? H2_DEFAULT_URL : Settings.get("tp333.db.url", "jdbc:mysql://localhost:3306/tp2db?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true&useUnicode=true&characterEncoding=UTF-8&useCursorFetch=true&rewriteBatchedStatements=true");
+    private final String login = Settings.get("tp333.db.user", h2Defaults ? "sa" : "root");
+    private final String password = Settings.get("tp333.db.password", ""); // Mot de passe vide
+
+    // Répliques en lecture seule (URLs JDBC ou noms JNDI séparés par des espaces), vide par défaut
+    private final List<Replica> replicas = new ArrayList<>();
+    private final boolean leastLoaded = "leastLoaded".equalsIgnoreCase(
+            Settings.get("tp333.db.replicaStrategy", "roundRobin"));
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
     private ConnexionDB() {
+        PoolConfig config = PoolConfig.fromSettings();
+        String jndiName = Settings.get("tp333.db.jndi");
+        if (jndiName != null && !jndiName.isEmpty()) {
+            // DataSource fournie par le conteneur : url, user et password sont ignorés
+            factory = lookup(jndiName)::getConnection;
+            pool = new ConnectionPool("jndi", factory, config);
+            LOGGER.info("✅ Pool de connexions sur la DataSource {} initialisé : {}", jndiName, config);
+        } else {
+            factory = driverFactory(url, login, password);
+            pool = openPool(url.startsWith("jdbc:h2:") ? "h2" : "mysql", factory, config);
+        }
+
+        String replicaUser = Settings.get("tp333.db.replicaUser", login);
+        String replicaPassword = Settings.get("tp333.db.replicaPassword", password);
+        for (String source : Settings.get("tp333.db.replicas", "").split("\\s+")) {
+            if (source.isEmpty()) {
+                continue;
+            }
+            String name = "replica-" + (replicas.size() + 1);
+            ConnectionPool replicaPool = source.startsWith("java:")
+                    ? new ConnectionPool(name, lookup(source)::getConnection, config)
+                    : openPool(name, driverFactory(source, replicaUser, replicaPassword), config);
+            replicas.add(new Replica(source, replicaPool));
+        }
+        ReadRouting.setReplicasConfigured(!replicas.isEmpty());
+        if (!replicas.isEmpty()) {
+            LOGGER.info("✅ {} réplique(s) en lecture, répartition {}", replicas.size(),
+                    leastLoaded ? "vers la moins chargée" : "tour à tour");
+        }
+    }
+
+    private static ConnectionFactory driverFactory(String jdbcUrl, String user, String secret) {
+        // Charger le driver MySQL (les autres drivers, comme H2, s'enregistrent d'eux-mêmes)
+        if (jdbcUrl.startsWith("jdbc:mysql:")) {
+            try {
+                Class.forName("com.mysql.cj.jdbc.Driver");
+                LOGGER.info("✅ Driver MySQL chargé.");
+            } catch (ClassNotFoundException e) {
+                LOGGER.error("❌ Driver MySQL manquant : {}", e.getMessage(), e);
+            }
+        }
+
+        Properties properties = connectionProperties(jdbcUrl, user, secret);
+        return () -> DriverManager.getConnection(jdbcUrl, properties);
+    }
+
+    private static ConnectionPool openPool(String name, ConnectionFactory factory, PoolConfig config) {
+        // Les connexions physiques sont ouvertes par le pool, à la demande
+        ConnectionPool created = new ConnectionPool(name, factory, config);
+        LOGGER.info("✅ Pool de connexions {} initialisé : {}", name, config);
+        return created;
+    }
+
+    private static DataSource lookup(String jndiName) {
         try {
-            // Charger le driver MySQL
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            System.out.println("✅ Driver MySQL chargé.");
-            
-            // Établir la connexion
-            connection = DriverManager.getConnection(url, login, password);
-            
-            if (connection != null && !connection.isClosed()) {
-                System.out.println("✅ Connexion MySQL réussie : " + connection.getCatalog());
-            } else {
-                System.err.println("❌ Connexion MySQL échouée");
+            return (DataSource) new InitialContext().lookup(jndiName);
+        } catch (NamingException | ClassCastException e) {
+            throw new IllegalStateException("❌ DataSource JNDI introuvable : " + jndiName, e);
+        }
+    }
+
+    /**
+     * Identifiants et, pour MySQL, cache des requêtes préparées côté serveur :
+     * chaque connexion physique du pool garde ses requêtes préparées, et un
+     * prepareStatement() sur un SQL déjà vu ne repasse pas par l'analyse du serveur.
+     * Les paramètres présents dans l'URL restent prioritaires. Les clés
+     * "tp333.db.driver.*" sont transmises telles quelles au driver.
+     */
+    private static Properties connectionProperties(String jdbcUrl, String user, String secret) {
+        Properties properties = new Properties();
+        properties.setProperty("user", user);
+        properties.setProperty("password", secret);
+        if (jdbcUrl.startsWith("jdbc:mysql:")) {
+            defaultProperty(properties, jdbcUrl, "useServerPrepStmts", "true");
+            defaultProperty(properties, jdbcUrl, "cachePrepStmts", "true");
+            defaultProperty(properties, jdbcUrl, "prepStmtCacheSize", Settings.get("tp333.db.prepStmtCacheSize", "250"));
+            defaultProperty(properties, jdbcUrl, "prepStmtCacheSqlLimit", "2048");
+        }
+        properties.putAll(Settings.withPrefix("tp333.db.driver."));
+        return properties;
+    }
+
+    /**
+     * Le driver MySQL donne priorité aux Properties sur l'URL : une valeur n'est
+     * ajoutée que si l'URL ne la fixe pas déjà.
+     */
+    private static void defaultProperty(Properties properties, String jdbcUrl, String key, String value) {
+        if (!jdbcUrl.contains(key + "=")) {
+            properties.setProperty(key, value);
+        }
+    }
+
+    /**
+     * Emprunte une connexion pour une lecture : à une réplique disponible, sinon
+     * (aucune réplique, lecture de ses propres écritures, répliques en échec) au primaire.
+     */
+    private Connection borrowForRead() throws SQLException {
+        if (replicas.isEmpty() || ReadRouting.isPrimaryRequired()) {
+            return pool.borrow();
+        }
+        Replica replica = chooseReplica(System.currentTimeMillis());
+        if (replica != null) {
+            try {
+                return replica.pool.borrow();
+            } catch (SQLTimeoutException e) {
+                // Réplique saturée mais joignable : même contre-pression que le primaire
+                throw e;
+            } catch (SQLException e) {
+                replica.downUntil = System.currentTimeMillis() + REPLICA_RETRY_MS;
+                LOGGER.warn("⚠️ Réplique {} indisponible, lecture sur le primaire : {}", replica.source, e.getMessage());
             }
-        } catch (ClassNotFoundException e) {
-            System.err.println("❌ Driver MySQL manquant : " + e.getMessage());
-            e.printStackTrace();
+        }
+        return pool.borrow();
+    }
+
+    private Replica chooseReplica(long now) {
+        int count = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), count);
+        Replica chosen = null;
+        for (int i = 0; i < count; i++) {
+            Replica candidate = replicas.get((start + i) % count);
+            if (candidate.downUntil > now) {
+                continue;
+            }
+            if (!leastLoaded) {
+                return candidate;
+            }
+            if (chosen == null || candidate.pool.getLoad() < chosen.pool.getLoad()) {
+                chosen = candidate;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Pool d'une réplique en lecture seule.
+     */
+    private static final class Replica {
+        final String source;
+        final ConnectionPool pool;
+        volatile long downUntil;
+
+        Replica(String source, ConnectionPool pool) {
+            this.source = source;
+            this.pool = pool;
+        }
+    }
+
+    private static ConnexionDB getInstance() {
+        ConnexionDB current = instance;
+        if (current == null) {
+            synchronized (ConnexionDB.class) {
+                current = instance;
+                if (current == null) {
+                    current = new ConnexionDB();
+                    instance = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Emprunte une connexion au pool.
+     * L'appelant doit la fermer (close()) dès qu'il a terminé pour la rendre au pool.
+     * @return Une connexion, ou null si aucune n'a pu être obtenue.
+     */
+    public static Connection getConnexion() {
+        try {
+            return requireConnexion();
         } catch (SQLException e) {
-            System.err.println("❌ Erreur connexion MySQL : " + e.getMessage());
-            System.err.println("URL: " + url);
-            System.err.println("Utilisateur: " + login);
-            e.printStackTrace();
-            connection = null;
+            LOGGER.error("❌ Impossible d'obtenir la connexion à la base de données : {}", e.getMessage());
+            return null;
         }
     }
-    
-    public static synchronized Connection getConnexion() {
-        if (instance == null) {
-            instance = new ConnexionDB();
-        } else {
+
+    /**
+     * Emprunte une connexion au pool, à fermer après usage.
+     * @return Une connexion.
+     * @throws SQLException si aucune connexion n'a pu être obtenue à temps.
+     */
+    public static Connection requireConnexion() throws SQLException {
+        return getInstance().pool.borrow();
+    }
+
+    /**
+     * Emprunte une connexion pour une lecture seule, à fermer après usage : sur une
+     * réplique si elles sont configurées (tp333.db.replicas), sinon sur le primaire.
+     * @return Une connexion.
+     * @throws SQLException si aucune connexion n'a pu être obtenue à temps.
+     */
+    public static Connection requireReadConnexion() throws SQLException {
+        return getInstance().borrowForRead();
+    }
+
+    /**
+     * Vérifie le primaire sur une connexion dédiée, gardée d'une vérification à
+     * l'autre : un pool saturé par les requêtes ne fait pas passer la base pour
+     * indisponible.
+     * @param timeoutSeconds Délai accordé à Connection.isValid (s).
+     * @return true si la base répond.
+     * @throws SQLException si la connexion ne peut pas être (ré)ouverte.
+     */
+    public static boolean checkPrimary(int timeoutSeconds) throws SQLException {
+        ConnexionDB current = getInstance();
+        synchronized (current) {
+            if (current.probe != null && current.probe.isValid(timeoutSeconds)) {
+                return true;
+            }
+            current.closeProbe();
+            current.probe = current.factory.create();
+            return current.probe.isValid(timeoutSeconds);
+        }
+    }
+
+    private synchronized void closeProbe() {
+        if (probe != null) {
             try {
-                if (instance.connection == null || instance.connection.isClosed()) {
-                    System.out.println("🔄 Reconnexion à la base de données...");
-                    instance = new ConnexionDB();
-                }
+                probe.close();
             } catch (SQLException e) {
-                System.err.println("❌ Erreur vérification connexion : " + e.getMessage());
-                instance = new ConnexionDB();
+                LOGGER.debug("Fermeture de la connexion de vérification : {}", e.getMessage());
             }
+            probe = null;
         }
-        
-        if (instance.connection == null) {
-            System.err.println("❌ Impossible d'obtenir la connexion à la base de données");
-        }
-        return instance.connection;
     }
-    
+
     public static boolean testConnexion() {
-        try {
-            Connection conn = getConnexion();
-            return conn != null && !conn.isClosed();
+        try (Connection conn = getConnexion()) {
+            return conn != null && conn.isValid(2);
         } catch (SQLException e) {
-            System.err.println("❌ Test connexion échoué : " + e.getMessage());
+            LOGGER.warn("❌ Test connexion échoué : {}", e.getMessage());
             return false;
         }
     }
-    
+
+    /**
+     * @return Les statistiques du pool de connexions.
+     */
+    public static PoolStats getPoolStats() {
+        return getInstance().pool.getStats();
+    }
+
+    /**
+     * @return Les paramètres actuels du pool de connexions.
+     */
+    public static PoolConfig getPoolConfig() {
+        return getInstance().pool.getConfig();
+    }
+
+    /**
+     * Applique de nouveaux paramètres au pool (et à ceux des répliques) sans
+     * interrompre les emprunts en cours.
+     * @param config Les nouveaux paramètres.
+     * @throws IllegalArgumentException si les paramètres sont invalides.
+     */
+    public static void reconfigurePool(PoolConfig config) {
+        ConnexionDB current = getInstance();
+        current.pool.setConfig(config);
+        for (Replica replica : current.replicas) {
+            replica.pool.setConfig(config);
+        }
+    }
+
     public static void closeConnexion() {
-        if (instance != null && instance.connection != null) {
-            try {
-                if (!instance.connection.isClosed()) {
-                    instance.connection.close();
-                    System.out.println("✅ Connexion MySQL fermée.");
+        synchronized (ConnexionDB.class) {
+            if (instance != null) {
+                instance.closeProbe();
+                instance.pool.close();
+                for (Replica replica : instance.replicas) {
+                    replica.pool.close();
                 }
-            } catch (SQLException e) {
-                System.err.println("❌ Erreur fermeture connexion : " + e.getMessage());
+                ReadRouting.setReplicasConfigured(false);
+                instance = null;
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,141 @@
+package com.info.db;
+
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Vérifie l'état du stockage en tâche de fond (pour JDBC : Connection.isValid sur
+ * une connexion dédiée, hors du pool) et garde le dernier résultat en mémoire.
+ *
+ * Les sondes HTTP lisent ce résultat en O(1) : elles n'ouvrent jamais de
+ * connexion et ne bloquent pas les threads de requête.
+ */
+public class DatabaseHealthMonitor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseHealthMonitor.class);
+
+    /**
+     * Vérification de l'état du stockage.
+     */
+    public interface Check {
+        boolean isHealthy() throws SQLException;
+    }
+
+    private final Check check;
+    private final long intervalMs;
+    private final ScheduledExecutorService scheduler;
+    private volatile Status status = new Status(false, 0, -1, "Aucune vérification effectuée");
+
+    /**
+     * @param check La vérification à exécuter.
+     * @param intervalMs Période de vérification (ms).
+     */
+    public DatabaseHealthMonitor(Check check, long intervalMs) {
+        this.check = check;
+        this.intervalMs = intervalMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-health-monitor");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Effectue une première vérification puis planifie les suivantes.
+     */
+    public void start() {
+        runCheck();
+        scheduler.scheduleWithFixedDelay(this::runCheck, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * @return Le dernier état connu de la base.
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return true si la dernière vérification a réussi et date de moins de trois périodes.
+     */
+    public boolean isReady() {
+        Status current = status;
+        return current.isUp() && System.currentTimeMillis() - current.getCheckedAt() < 3 * intervalMs;
+    }
+
+    private void runCheck() {
+        long start = System.nanoTime();
+        Status previous = status;
+        Status next;
+        try {
+            boolean valid = check.isHealthy();
+            next = new Status(valid, System.currentTimeMillis(), elapsedMillis(start),
+                    valid ? null : "Connexion invalide");
+        } catch (SQLException | RuntimeException e) {
+            next = new Status(false, System.currentTimeMillis(), elapsedMillis(start), e.getMessage());
+        }
+        status = next;
+        if (previous.isUp() != next.isUp()) {
+            if (next.isUp()) {
+                LOGGER.info("✅ Base de données disponible");
+            } else {
+                LOGGER.error("❌ Base de données indisponible : {}", next.getError());
+            }
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Résultat immuable d'une vérification.
+     */
+    public static final class Status {
+        private final boolean up;
+        private final long checkedAt;
+        private final long latencyMs;
+        private final String error;
+
+        Status(boolean up, long checkedAt, long latencyMs, String error) {
+            this.up = up;
+            this.checkedAt = checkedAt;
+            this.latencyMs = latencyMs;
+            this.error = error;
+        }
+
+        public boolean isUp() {
+            return up;
+        }
+
+        /**
+         * @return L'horodatage de la vérification (ms depuis l'epoch).
+         */
+        public long getCheckedAt() {
+            return checkedAt;
+        }
+
+        /**
+         * @return La durée de la vérification (ms).
+         */
+        public long getLatencyMs() {
+            return latencyMs;
+        }
+
+        /**
+         * @return Le message d'erreur, ou null si la base est disponible.
+         */
+        public String getError() {
+            return error;
+        }
+    }
+}
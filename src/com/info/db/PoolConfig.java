@@ -0,0 +1,157 @@
+package com.info.db;
+
+import com.info.config.Settings;
+
+/**
+ * Paramètres du pool de connexions.
+ * Les valeurs par défaut peuvent être surchargées par les paramètres "tp333.pool.*"
+ * (ex: -Dtp333.pool.maxSize=20, TP333_POOL_MAXSIZE=20 ou le fichier tp333.properties).
+ */
+public class PoolConfig {
+
+    private int minSize = 2;
+    private int maxSize = 10;
+    private long borrowTimeoutMs = 5000;
+    private long idleTimeoutMs = 600000;
+    private long leakDetectionThresholdMs = 60000;
+    private int validationTimeoutSeconds = 2;
+    private long housekeepingIntervalMs = 30000;
+
+    /**
+     * Constructeur par défaut.
+     */
+    public PoolConfig() {}
+
+    /**
+     * Construit une configuration à partir des paramètres "tp333.pool.*".
+     * @return La configuration.
+     */
+    public static PoolConfig fromSettings() {
+        PoolConfig config = new PoolConfig();
+        config.setMinSize(Settings.getInt("tp333.pool.minSize", config.getMinSize()));
+        config.setMaxSize(Settings.getInt("tp333.pool.maxSize", config.getMaxSize()));
+        config.setBorrowTimeoutMs(Settings.getLong("tp333.pool.borrowTimeoutMs", config.getBorrowTimeoutMs()));
+        config.setIdleTimeoutMs(Settings.getLong("tp333.pool.idleTimeoutMs", config.getIdleTimeoutMs()));
+        config.setLeakDetectionThresholdMs(Settings.getLong("tp333.pool.leakDetectionThresholdMs",
+                config.getLeakDetectionThresholdMs()));
+        config.setValidationTimeoutSeconds(Settings.getInt("tp333.pool.validationTimeoutSeconds",
+                config.getValidationTimeoutSeconds()));
+        config.setHousekeepingIntervalMs(Settings.getLong("tp333.pool.housekeepingIntervalMs",
+                config.getHousekeepingIntervalMs()));
+        config.validate();
+        return config;
+    }
+
+    /**
+     * @return Une copie indépendante de cette configuration.
+     */
+    public PoolConfig copy() {
+        PoolConfig copy = new PoolConfig();
+        copy.setMinSize(minSize);
+        copy.setMaxSize(maxSize);
+        copy.setBorrowTimeoutMs(borrowTimeoutMs);
+        copy.setIdleTimeoutMs(idleTimeoutMs);
+        copy.setLeakDetectionThresholdMs(leakDetectionThresholdMs);
+        copy.setValidationTimeoutSeconds(validationTimeoutSeconds);
+        copy.setHousekeepingIntervalMs(housekeepingIntervalMs);
+        return copy;
+    }
+
+    /**
+     * Vérifie la cohérence des paramètres.
+     * @throws IllegalArgumentException si un paramètre est invalide.
+     */
+    public void validate() {
+        if (minSize < 0 || maxSize <= 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Taille de pool invalide : min=" + minSize + ", max=" + maxSize);
+        }
+        if (borrowTimeoutMs <= 0 || validationTimeoutSeconds < 0 || housekeepingIntervalMs <= 0) {
+            throw new IllegalArgumentException("Délais de pool invalides");
+        }
+    }
+
+    /**
+     * @return Le nombre minimum de connexions maintenues ouvertes.
+     */
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public void setMinSize(int minSize) {
+        this.minSize = minSize;
+    }
+
+    /**
+     * @return Le nombre maximum de connexions ouvertes simultanément.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return Le délai maximum d'attente d'une connexion libre (ms).
+     */
+    public long getBorrowTimeoutMs() {
+        return borrowTimeoutMs;
+    }
+
+    public void setBorrowTimeoutMs(long borrowTimeoutMs) {
+        this.borrowTimeoutMs = borrowTimeoutMs;
+    }
+
+    /**
+     * @return La durée après laquelle une connexion inutilisée est fermée (ms).
+     */
+    public long getIdleTimeoutMs() {
+        return idleTimeoutMs;
+    }
+
+    public void setIdleTimeoutMs(long idleTimeoutMs) {
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    /**
+     * @return La durée d'emprunt au-delà de laquelle une fuite est signalée (ms, 0 = désactivé).
+     */
+    public long getLeakDetectionThresholdMs() {
+        return leakDetectionThresholdMs;
+    }
+
+    public void setLeakDetectionThresholdMs(long leakDetectionThresholdMs) {
+        this.leakDetectionThresholdMs = leakDetectionThresholdMs;
+    }
+
+    /**
+     * @return Le délai passé à Connection.isValid() lors de l'emprunt (s).
+     */
+    public int getValidationTimeoutSeconds() {
+        return validationTimeoutSeconds;
+    }
+
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    /**
+     * @return La période de la tâche de maintenance (éviction, fuites, minimum).
+     */
+    public long getHousekeepingIntervalMs() {
+        return housekeepingIntervalMs;
+    }
+
+    public void setHousekeepingIntervalMs(long housekeepingIntervalMs) {
+        this.housekeepingIntervalMs = housekeepingIntervalMs;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolConfig [minSize=" + minSize + ", maxSize=" + maxSize + ", borrowTimeoutMs=" + borrowTimeoutMs
+                + ", idleTimeoutMs=" + idleTimeoutMs + ", leakDetectionThresholdMs=" + leakDetectionThresholdMs
+                + ", validationTimeoutSeconds=" + validationTimeoutSeconds
+                + ", housekeepingIntervalMs=" + housekeepingIntervalMs + "]";
+    }
+}
@@ -0,0 +1,174 @@
+package com.info.db;
+
+import java.util.Map;
+
+/**
+ * Instantané des statistiques du pool de connexions (sérialisable en JSON).
+ */
+public class PoolStats {
+
+    private int active;
+    private int idle;
+    private int total;
+    private int waiters;
+    private int minSize;
+    private int maxSize;
+    private long borrowCount;
+    private long timeoutCount;
+    private long leakCount;
+    private long validationFailureCount;
+    private double averageWaitMs;
+    private double totalWaitMs;
+    private Map<String, Double> waitTimeQuantilesMs;
+    private Map<String, Long> waitTimeHistogram;
+
+    public PoolStats() {}
+
+    /**
+     * @return Le nombre de connexions actuellement empruntées.
+     */
+    public int getActive() {
+        return active;
+    }
+
+    public void setActive(int active) {
+        this.active = active;
+    }
+
+    /**
+     * @return Le nombre de connexions libres dans le pool.
+     */
+    public int getIdle() {
+        return idle;
+    }
+
+    public void setIdle(int idle) {
+        this.idle = idle;
+    }
+
+    /**
+     * @return Le nombre total de connexions ouvertes.
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    /**
+     * @return Le nombre de threads en attente d'une connexion.
+     */
+    public int getWaiters() {
+        return waiters;
+    }
+
+    public void setWaiters(int waiters) {
+        this.waiters = waiters;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public void setMinSize(int minSize) {
+        this.minSize = minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return Le nombre total d'emprunts réussis.
+     */
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    public void setBorrowCount(long borrowCount) {
+        this.borrowCount = borrowCount;
+    }
+
+    /**
+     * @return Le nombre d'emprunts ayant expiré faute de connexion libre.
+     */
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    public void setTimeoutCount(long timeoutCount) {
+        this.timeoutCount = timeoutCount;
+    }
+
+    /**
+     * @return Le nombre de fuites détectées (connexions non rendues à temps).
+     */
+    public long getLeakCount() {
+        return leakCount;
+    }
+
+    public void setLeakCount(long leakCount) {
+        this.leakCount = leakCount;
+    }
+
+    /**
+     * @return Le nombre de connexions rejetées par la validation à l'emprunt.
+     */
+    public long getValidationFailureCount() {
+        return validationFailureCount;
+    }
+
+    public void setValidationFailureCount(long validationFailureCount) {
+        this.validationFailureCount = validationFailureCount;
+    }
+
+    /**
+     * @return Le temps d'attente moyen à l'emprunt (ms).
+     */
+    public double getAverageWaitMs() {
+        return averageWaitMs;
+    }
+
+    public void setAverageWaitMs(double averageWaitMs) {
+        this.averageWaitMs = averageWaitMs;
+    }
+
+    /**
+     * @return Le temps d'attente cumulé de tous les emprunts (ms).
+     */
+    public double getTotalWaitMs() {
+        return totalWaitMs;
+    }
+
+    public void setTotalWaitMs(double totalWaitMs) {
+        this.totalWaitMs = totalWaitMs;
+    }
+
+    /**
+     * @return Les quantiles des temps d'attente (quantile -> ms, ex: "0.99" -> 12.5).
+     */
+    public Map<String, Double> getWaitTimeQuantilesMs() {
+        return waitTimeQuantilesMs;
+    }
+
+    public void setWaitTimeQuantilesMs(Map<String, Double> waitTimeQuantilesMs) {
+        this.waitTimeQuantilesMs = waitTimeQuantilesMs;
+    }
+
+    /**
+     * @return L'histogramme des temps d'attente (borne supérieure -> nombre d'emprunts).
+     */
+    public Map<String, Long> getWaitTimeHistogram() {
+        return waitTimeHistogram;
+    }
+
+    public void setWaitTimeHistogram(Map<String, Long> waitTimeHistogram) {
+        this.waitTimeHistogram = waitTimeHistogram;
+    }
+}
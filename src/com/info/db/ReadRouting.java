@@ -0,0 +1,51 @@
+package com.info.db;
+
+/**
+ * Routage des lectures de la requête en cours, quand des répliques sont configurées.
+ *
+ * Par défaut les lectures vont à une réplique. Pendant la fenêtre de lecture de
+ * ses propres écritures, ou pour une lecture suivie d'une écriture conditionnelle,
+ * elles vont au primaire : une réplique en retard renverrait une donnée périmée.
+ * L'indicateur est porté par le thread qui traite la requête.
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private static volatile boolean replicasConfigured;
+
+    private ReadRouting() {}
+
+    /**
+     * @param required true pour envoyer les lectures du thread courant au primaire.
+     */
+    public static void setPrimaryRequired(boolean required) {
+        if (required) {
+            PRIMARY_REQUIRED.set(Boolean.TRUE);
+        } else {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+    /**
+     * @return true si les lectures du thread courant doivent aller au primaire.
+     */
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+
+    /**
+     * @param configured true si des répliques reçoivent les lectures (tp333.db.replicas).
+     */
+    public static void setReplicasConfigured(boolean configured) {
+        replicasConfigured = configured;
+    }
+
+    /**
+     * @return true si les lectures du thread courant peuvent aller à une réplique,
+     *         donc être en retard sur les dernières écritures.
+     */
+    public static boolean isReplicaRead() {
+        return replicasConfigured && !isPrimaryRequired();
+    }
+}
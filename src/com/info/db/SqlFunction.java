@@ -0,0 +1,19 @@
+package com.info.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Travail JDBC exécuté avec une connexion empruntée au pool.
+ * @param <T> Type du résultat.
+ */
+public interface SqlFunction<T> {
+
+	/**
+	 * Exécute le travail.
+	 * @param connection La connexion empruntée (ne pas la fermer).
+	 * @return Le résultat du travail.
+	 * @throws SQLException en cas d'erreur SQL.
+	 */
+	public T apply(Connection connection) throws SQLException;
+}
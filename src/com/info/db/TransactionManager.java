@@ -0,0 +1,69 @@
+package com.info.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Point unique de gestion des emprunts de connexion et des transactions.
+ * Chaque appel emprunte une connexion au pool pour la durée du travail
+ * puis la rend, même en cas d'erreur.
+ */
+public final class TransactionManager {
+
+    private TransactionManager() {}
+
+    /**
+     * Exécute un travail en auto-commit (une requête = une transaction).
+     * @param work Le travail à exécuter.
+     * @return Le résultat du travail.
+     * @throws SQLException si l'emprunt ou le travail échoue.
+     */
+    public static <T> T execute(SqlFunction<T> work) throws SQLException {
+        try (Connection connection = ConnexionDB.requireConnexion()) {
+            return work.apply(connection);
+        }
+    }
+
+    /**
+     * Exécute une lecture en auto-commit, sur une réplique si elles sont configurées.
+     * @param work La lecture à exécuter (aucune écriture).
+     * @return Le résultat de la lecture.
+     * @throws SQLException si l'emprunt ou la lecture échoue.
+     */
+    public static <T> T read(SqlFunction<T> work) throws SQLException {
+        try (Connection connection = ConnexionDB.requireReadConnexion()) {
+            return work.apply(connection);
+        }
+    }
+
+    /**
+     * Exécute un travail dans une transaction : commit si le travail réussit,
+     * rollback s'il lève une exception.
+     * @param work Le travail à exécuter.
+     * @return Le résultat du travail.
+     * @throws SQLException si l'emprunt, le travail ou le commit échoue.
+     */
+    public static <T> T inTransaction(SqlFunction<T> work) throws SQLException {
+        try (Connection connection = ConnexionDB.requireConnexion()) {
+            connection.setAutoCommit(false);
+            try {
+                T result = work.apply(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                rollbackQuietly(connection, e);
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static void rollbackQuietly(Connection connection, Exception cause) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.info.db;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.info.metrics.Timer;
+
+/**
+ * Histogramme à classes fixes des temps d'attente à l'emprunt.
+ * Sans verrou : chaque classe est un compteur atomique. Les attentes sont aussi
+ * chronométrées en HDR pour en exporter les quantiles.
+ */
+public class WaitTimeHistogram {
+
+    private static final long[] BOUNDS_MICROS = {
+        100, 1000, 5000, 10000, 50000, 100000, 500000, 1000000, 5000000
+    };
+    private static final String[] LABELS = {
+        "<=0.1ms", "<=1ms", "<=5ms", "<=10ms", "<=50ms", "<=100ms", "<=500ms", "<=1s", "<=5s", ">5s"
+    };
+
+    private final AtomicLongArray counts = new AtomicLongArray(BOUNDS_MICROS.length + 1);
+    private final Timer timer = new Timer();
+
+    /**
+     * Enregistre une attente.
+     * @param nanos La durée d'attente en nanosecondes.
+     */
+    public void record(long nanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        int i = 0;
+        while (i < BOUNDS_MICROS.length && micros > BOUNDS_MICROS[i]) {
+            i++;
+        }
+        counts.incrementAndGet(i);
+        timer.record(nanos);
+    }
+
+    /**
+     * @return Le temps d'attente moyen en millisecondes.
+     */
+    public double averageMillis() {
+        long n = timer.getCount();
+        return n == 0 ? 0.0 : totalMillis() / n;
+    }
+
+    /**
+     * @return Le temps d'attente cumulé en millisecondes.
+     */
+    public double totalMillis() {
+        return timer.getTotalSeconds() * 1000.0;
+    }
+
+    /**
+     * @param quantiles Les quantiles (entre 0 et 1).
+     * @return Les temps d'attente correspondants, en millisecondes.
+     */
+    public Map<String, Double> quantilesMillis(double... quantiles) {
+        double[] seconds = timer.quantileSeconds(quantiles);
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (int i = 0; i < quantiles.length; i++) {
+            result.put(String.valueOf(quantiles[i]), seconds[i] * 1000.0);
+        }
+        return result;
+    }
+
+    /**
+     * @return Les compteurs par classe, dans l'ordre croissant.
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < LABELS.length; i++) {
+            result.put(LABELS[i], counts.get(i));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+package com.info.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.info.router.AdminRouter;
+
+/**
+ * Protège les routes /admin : sans l'en-tête X-Admin-Key égal à tp333.admin.key,
+ * réponse 401. La comparaison se fait en temps constant pour ne rien révéler de
+ * la clé par la durée de la réponse.
+ */
+@Priority(Priorities.AUTHENTICATION)
+public class AdminKeyFilter implements ContainerRequestFilter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdminKeyFilter.class);
+
+    static final String ADMIN_KEY_HEADER = "X-Admin-Key";
+
+    private final byte[] key;
+
+    /**
+     * @param key La clé d'administration attendue, non vide.
+     */
+    public AdminKeyFilter(String key) {
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("Clé d'administration vide");
+        }
+        this.key = key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        // Après résolution de la route : seules les ressources d'administration sont concernées
+        boolean admin = false;
+        for (Object resource : request.getUriInfo().getMatchedResources()) {
+            if (resource instanceof AdminRouter) {
+                admin = true;
+                break;
+            }
+        }
+        if (!admin) {
+            return;
+        }
+        String provided = request.getHeaderString(ADMIN_KEY_HEADER);
+        if (provided == null || !MessageDigest.isEqual(key, provided.getBytes(StandardCharsets.UTF_8))) {
+            LOGGER.warn("⚠️ Accès d'administration refusé : {} {}", request.getMethod(),
+                    request.getUriInfo().getPath());
+            request.abortWith(Response.status(Response.Status.UNAUTHORIZED)
+                    .type(MediaType.TEXT_PLAIN_TYPE)
+                    .entity("Clé d'administration manquante ou invalide")
+                    .build());
+        }
+    }
+}
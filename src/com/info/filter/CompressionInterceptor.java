@@ -0,0 +1,172 @@
+package com.info.filter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Compresse le corps des réponses négociées par l'EncodingFilter de Jersey
+ * (Accept-Encoding: gzip ou deflate), seulement au-delà d'une taille minimale.
+ *
+ * Les premiers octets sont gardés en mémoire : si le corps reste sous le seuil,
+ * il part tel quel sans Content-Encoding (compresser quelques centaines d'octets
+ * coûte du CPU pour un gain nul) ; sinon l'en-tête est conservé et la suite est
+ * compressée au fil de l'écriture, y compris pour les réponses en flux.
+ *
+ * Un corps compressé reçoit un ETag fort suffixé de son encodage (voir
+ * RepresentationTagFilter).
+ *
+ * Placé avant les ContentEncoder de Jersey, qui ne voient plus de Content-Encoding
+ * et laissent passer le corps.
+ */
+@Priority(Priorities.ENTITY_CODER - 100)
+public class CompressionInterceptor implements WriterInterceptor {
+
+    private final int minBytes;
+
+    /**
+     * @param minBytes Taille minimale (octets) d'un corps à compresser.
+     */
+    public CompressionInterceptor(int minBytes) {
+        this.minBytes = minBytes;
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        MultivaluedMap<String, Object> headers = context.getHeaders();
+        Object encoding = headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (!"gzip".equals(encoding) && !"x-gzip".equals(encoding) && !"deflate".equals(encoding)) {
+            context.proceed();
+            return;
+        }
+        if (MediaType.SERVER_SENT_EVENTS_TYPE.isCompatible(context.getMediaType())) {
+            // Chaque événement SSE doit partir immédiatement : pas de tampon ni de compression
+            headers.remove(HttpHeaders.CONTENT_ENCODING);
+            context.proceed();
+            return;
+        }
+        headers.remove(HttpHeaders.CONTENT_ENCODING);
+        ThresholdOutputStream output = new ThresholdOutputStream(context.getOutputStream(), headers,
+                (String) encoding, minBytes);
+        context.setOutputStream(output);
+        try {
+            context.proceed();
+        } finally {
+            output.finish();
+        }
+    }
+
+    /**
+     * Garde en mémoire jusqu'à minBytes octets, puis bascule en compression.
+     */
+    private static final class ThresholdOutputStream extends OutputStream {
+        private final OutputStream target;
+        private final MultivaluedMap<String, Object> headers;
+        private final String encoding;
+        private final int minBytes;
+        private ByteArrayOutputStream buffer;
+        private DeflaterOutputStream compressed;
+        /** Mémoire native de zlib : libérée à la fin du corps, sans attendre le ramasse-miettes. */
+        private Deflater deflater;
+        private boolean finished;
+
+        ThresholdOutputStream(OutputStream target, MultivaluedMap<String, Object> headers,
+                              String encoding, int minBytes) {
+            this.target = target;
+            this.headers = headers;
+            this.encoding = encoding;
+            this.minBytes = minBytes;
+            this.buffer = new ByteArrayOutputStream(Math.min(minBytes, 8192));
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (compressed != null) {
+                compressed.write(b, off, len);
+                return;
+            }
+            buffer.write(b, off, len);
+            if (buffer.size() >= minBytes) {
+                // Rien n'a encore été envoyé : l'en-tête peut encore être rétabli
+                headers.putSingle(HttpHeaders.CONTENT_ENCODING, encoding);
+                // Représentation différente du corps brut : ETag fort distinct
+                RepresentationTagFilter.addSuffix(headers, "deflate".equals(encoding) ? "-deflate" : "-gzip");
+                if ("deflate".equals(encoding)) {
+                    deflater = new Deflater();
+                    compressed = new DeflaterOutputStream(target, deflater, 8192, true);
+                } else {
+                    GzipStream gzip = new GzipStream(target);
+                    deflater = gzip.deflater();
+                    compressed = gzip;
+                }
+                buffer.writeTo(compressed);
+                buffer = null;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // Sous le seuil, rien n'est envoyé avant la fin du corps
+            if (compressed != null) {
+                compressed.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+            target.close();
+        }
+
+        /**
+         * Termine le corps : envoi brut s'il est resté sous le seuil, fin du flux compressé sinon.
+         */
+        void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (compressed != null) {
+                try {
+                    compressed.finish();
+                } finally {
+                    deflater.end();
+                }
+            } else {
+                buffer.writeTo(target);
+            }
+            target.flush();
+        }
+    }
+
+    /**
+     * GZIPOutputStream dont le Deflater interne est accessible, pour le libérer
+     * sans fermer le flux du conteneur.
+     */
+    private static final class GzipStream extends GZIPOutputStream {
+
+        GzipStream(OutputStream out) throws IOException {
+            super(out, 8192, true);
+        }
+
+        Deflater deflater() {
+            return def;
+        }
+    }
+}
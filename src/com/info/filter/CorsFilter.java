@@ -4,12 +4,34 @@ import javax.servlet.*;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.info.config.Settings;
+
+/**
+ * En-têtes CORS. Par défaut toutes les origines sont autorisées, sans cookies ;
+ * les origines listées dans tp333.cors.origins sont renvoyées telles quelles et
+ * peuvent envoyer des cookies (Access-Control-Allow-Credentials).
+ */
 public class CorsFilter implements Filter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CorsFilter.class);
+
+    private Set<String> allowedOrigins;
     
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
-        System.out.println("✅ CORS Filter initialisé");
+        allowedOrigins = new HashSet<>();
+        for (String origin : Settings.get("tp333.cors.origins", "").trim().split("\\s+")) {
+            if (!origin.isEmpty()) {
+                allowedOrigins.add(origin);
+            }
+        }
+        LOGGER.info("✅ CORS Filter initialisé (origines avec cookies : {})", allowedOrigins);
     }
     
     @Override
@@ -19,18 +41,26 @@ public class CorsFilter implements Filter {
         HttpServletResponse httpResponse = (HttpServletResponse) response;
         HttpServletRequest httpRequest = (HttpServletRequest) request;
         
-        // Autoriser toutes les origines (pour le développement)
-        httpResponse.setHeader("Access-Control-Allow-Origin", "*");
+        String origin = httpRequest.getHeader("Origin");
+        boolean trusted = origin != null && allowedOrigins.contains(origin);
+        // Origine déclarée renvoyée telle quelle, sinon toutes les origines mais sans cookies
+        httpResponse.setHeader("Access-Control-Allow-Origin", trusted ? origin : "*");
+        httpResponse.addHeader("Vary", "Origin");
         
         // Autoriser les méthodes HTTP
-        httpResponse.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
+        httpResponse.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, PATCH, DELETE, OPTIONS");
         
         // Autoriser les headers
         httpResponse.setHeader("Access-Control-Allow-Headers", 
-                "Origin, X-Requested-With, Content-Type, Accept, Authorization");
+                "Origin, X-Requested-With, Content-Type, Accept, Authorization, If-None-Match, If-Match, X-API-Key");
+        
+        // Rendre lisibles par le navigateur les en-têtes de cache, de pagination et de limitation
+        httpResponse.setHeader("Access-Control-Expose-Headers", "ETag, Link, X-Next-Cursor, Retry-After");
         
-        // Autoriser les cookies
-        httpResponse.setHeader("Access-Control-Allow-Credentials", "true");
+        // Autoriser les cookies, seulement pour une origine déclarée ("*" l'interdit)
+        if (trusted) {
+            httpResponse.setHeader("Access-Control-Allow-Credentials", "true");
+        }
         
         // Gérer les requêtes preflight OPTIONS
         if ("OPTIONS".equalsIgnoreCase(httpRequest.getMethod())) {
@@ -43,6 +73,6 @@ public class CorsFilter implements Filter {
     
     @Override
     public void destroy() {
-        System.out.println("CORS Filter détruit");
+        LOGGER.info("CORS Filter détruit");
     }
 }
\ No newline at end of file
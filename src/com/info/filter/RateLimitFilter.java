@@ -0,0 +1,381 @@
+package com.info.filter;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.info.config.Settings;
+
+/**
+ * Contrôle d'admission devant l'API : débit par client et concurrence par route.
+ * Désactivé par défaut (tp333.limit.enabled=true pour l'activer).
+ *
+ * Débit : un seau à jetons par client (clé d'API déclarée dans tp333.limit.apiKeys,
+ * sinon adresse IP), rempli à tp333.limit.rate jetons/s jusqu'à tp333.limit.burst ;
+ * une clé peut avoir son propre débit (ex: partenaire=500,1000). Sans jeton, réponse
+ * 429 avec Retry-After. Chaque seau tient en un AtomicLong (instant théorique
+ * d'arrivée, algorithme GCRA) : une lecture et un compareAndSet par requête, sans verrou.
+ *
+ * Derrière un répartiteur de charge, toutes les requêtes viennent de son adresse :
+ * l'adresse du client est alors lue dans X-Forwarded-For, seulement si la requête
+ * arrive d'un mandataire déclaré dans tp333.limit.trustedProxies (sinon l'en-tête,
+ * fourni par le client, permettrait de changer de seau à volonté).
+ *
+ * Concurrence : au plus tp333.limit.concurrency requêtes en cours par route (méthode
+ * et chemin, IDs numériques remplacés par {id}), réglable par chemin, ex:
+ * tp333.limit.concurrency./persons/all=8 ; au-delà, 503 immédiat avec Retry-After
+ * au lieu d'un thread de plus bloqué sur la base.
+ */
+public class RateLimitFilter implements Filter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    static final String API_KEY_HEADER = "X-API-Key";
+    static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+    /** Au-delà, les seaux pleins (clients inactifs) sont retirés ; sinon seau commun. */
+    private static final int MAX_CLIENTS = 100000;
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    /** Borne les routes suivies : des chemins inventés partagent le compteur commun. */
+    private static final int MAX_ROUTES = 256;
+    private static final String SHARED_KEY = "*";
+
+    /** Sondes de santé : jamais limitées, pour ne pas retirer une instance chargée. */
+    private static final String HEALTH_PREFIX = "/health";
+    /** Flux SSE : connexion longue, soumise au débit mais pas à la concurrence. */
+    private static final Set<String> STREAMS = new HashSet<>(Arrays.asList("/persons/changes"));
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Route> routes = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+    private final LongAdder rateRejections = new LongAdder();
+    private final LongAdder concurrencyRejections = new LongAdder();
+
+    private boolean enabled;
+    private Limit defaultLimit;
+    /** Débit de chaque clé d'API déclarée, indexé par "key:" + clé. */
+    private Map<String, Limit> limitsByKey;
+    private Set<String> trustedProxies;
+    private int defaultConcurrency;
+    private Map<String, Integer> concurrencyByPath;
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        enabled = Settings.getBoolean("tp333.limit.enabled", false);
+        int rate = Settings.getInt("tp333.limit.rate", 100);
+        int burst = Settings.getInt("tp333.limit.burst", 200);
+        defaultLimit = new Limit(rate, burst);
+
+        // Clés d'API : "cle" (débit par défaut), "cle=débit" ou "cle=débit,rafale"
+        limitsByKey = new HashMap<>();
+        for (String entry : words(Settings.get("tp333.limit.apiKeys", ""))) {
+            int equals = entry.indexOf('=');
+            if (equals < 0) {
+                limitsByKey.put("key:" + entry, defaultLimit);
+                continue;
+            }
+            String[] values = entry.substring(equals + 1).split(",");
+            try {
+                int keyRate = Integer.parseInt(values[0].trim());
+                int keyBurst = values.length > 1 ? Integer.parseInt(values[1].trim()) : 2 * keyRate;
+                limitsByKey.put("key:" + entry.substring(0, equals), new Limit(keyRate, keyBurst));
+            } catch (NumberFormatException e) {
+                throw new ServletException("Débit invalide dans tp333.limit.apiKeys : " + entry.substring(equals + 1));
+            }
+        }
+        trustedProxies = new HashSet<>(words(Settings.get("tp333.limit.trustedProxies", "")));
+        defaultConcurrency = Settings.getInt("tp333.limit.concurrency", 64);
+        concurrencyByPath = new HashMap<>();
+        for (Map.Entry<String, String> entry : Settings.withPrefix("tp333.limit.concurrency.").entrySet()) {
+            try {
+                concurrencyByPath.put(entry.getKey(), Integer.parseInt(entry.getValue().trim()));
+            } catch (NumberFormatException e) {
+                LOGGER.warn("⚠️ tp333.limit.concurrency.{} invalide : {}", entry.getKey(), entry.getValue());
+            }
+        }
+
+        if (enabled) {
+            LOGGER.info("✅ Limitation initialisée : {} req/s par client (rafale {}), {} clé(s) d'API, "
+                    + "{} mandataire(s) de confiance, {} requêtes simultanées par route {}",
+                    rate > 0 ? rate : "∞", burst, limitsByKey.size(), trustedProxies.size(),
+                    defaultConcurrency > 0 ? defaultConcurrency : "∞", concurrencyByPath);
+        } else {
+            LOGGER.info("Limitation désactivée (tp333.limit.enabled=false)");
+        }
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        String path = normalize(httpRequest.getPathInfo());
+        if (!enabled || path.startsWith(HEALTH_PREFIX)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String client = clientKey(httpRequest);
+        long waitNanos = acquireToken(client, limitsByKey.getOrDefault(client, defaultLimit), System.nanoTime());
+        if (waitNanos > 0) {
+            rateRejections.increment();
+            reject(httpResponse, 429, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1),
+                    "Trop de requêtes, réessayez plus tard");
+            return;
+        }
+
+        Route route = STREAMS.contains(path) ? null : route(httpRequest.getMethod(), path);
+        if (route == null || route.limit <= 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!route.tryAcquire()) {
+            concurrencyRejections.increment();
+            reject(httpResponse, HttpServletResponse.SC_SERVICE_UNAVAILABLE, 1,
+                    "Service saturé, réessayez plus tard");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // Requête suspendue (AsyncResponse) : la place se libère à la fin de la réponse
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new Release(route));
+            } else {
+                route.release();
+            }
+        }
+    }
+
+    /**
+     * Prend un jeton dans le seau du client.
+     * @param now L'instant de la requête (System.nanoTime()).
+     * @return 0 si la requête passe, sinon l'attente (ns) avant le prochain jeton.
+     */
+    long acquireToken(String client, Limit limit, long now) {
+        long intervalNanos = limit.intervalNanos;
+        if (intervalNanos <= 0) {
+            return 0;
+        }
+        AtomicLong bucket = buckets.get(client);
+        if (bucket == null) {
+            bucket = newBucket(client, now);
+        }
+        while (true) {
+            long arrival = bucket.get();
+            long next = (arrival - now > 0 ? arrival : now) + intervalNanos;
+            long excess = next - now - limit.burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private AtomicLong newBucket(String client, long now) {
+        if (buckets.size() >= MAX_CLIENTS) {
+            long last = lastSweep.get();
+            if (now - last > SWEEP_INTERVAL_NANOS && lastSweep.compareAndSet(last, now)) {
+                // Un seau dont l'instant d'arrivée est passé est plein : identique à un seau neuf
+                buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+            }
+            if (buckets.size() >= MAX_CLIENTS) {
+                return buckets.computeIfAbsent(SHARED_KEY, key -> new AtomicLong(now));
+            }
+        }
+        return buckets.computeIfAbsent(client, key -> new AtomicLong(now));
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        if (apiKey != null && limitsByKey.containsKey("key:" + apiKey)) {
+            return "key:" + apiKey;
+        }
+        // Une clé non déclarée ne compte pas : en changer à chaque requête contournerait la limite
+        return clientAddress(request);
+    }
+
+    /**
+     * @return L'adresse du client : celle de la connexion, ou, si elle vient d'un mandataire
+     *         de confiance, la dernière adresse de X-Forwarded-For qui n'en est pas un.
+     */
+    private String clientAddress(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        if (!trustedProxies.contains(address)) {
+            return address;
+        }
+        // Chaque mandataire ajoute à droite l'adresse qu'il a vue : lecture de droite à gauche
+        List<String> headers = Collections.list(request.getHeaders(FORWARDED_FOR_HEADER));
+        for (int i = headers.size() - 1; i >= 0; i--) {
+            String[] hops = headers.get(i).split(",");
+            for (int j = hops.length - 1; j >= 0; j--) {
+                String hop = hops[j].trim();
+                if (hop.isEmpty()) {
+                    continue;
+                }
+                address = hop;
+                if (!trustedProxies.contains(hop)) {
+                    return hop;
+                }
+            }
+        }
+        return address;
+    }
+
+    private static List<String> words(String value) {
+        List<String> words = new ArrayList<>();
+        for (String word : value.trim().split("\\s+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private Route route(String method, String path) {
+        String key = method + " " + path;
+        Route route = routes.get(key);
+        if (route != null) {
+            return route;
+        }
+        if (routes.size() >= MAX_ROUTES) {
+            return routes.computeIfAbsent(SHARED_KEY, k -> new Route(defaultConcurrency));
+        }
+        return routes.computeIfAbsent(key, k -> new Route(concurrencyByPath.getOrDefault(path, defaultConcurrency)));
+    }
+
+    /**
+     * @return Le chemin sans barre finale, les segments numériques remplacés par {id}.
+     */
+    static String normalize(String pathInfo) {
+        if (pathInfo == null || pathInfo.isEmpty() || "/".equals(pathInfo)) {
+            return "/";
+        }
+        StringBuilder path = new StringBuilder(pathInfo.length());
+        for (String segment : pathInfo.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            path.append('/').append(isNumeric(segment) ? "{id}" : segment);
+        }
+        return path.length() > 0 ? path.toString() : "/";
+    }
+
+    private static boolean isNumeric(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (!Character.isDigit(segment.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void reject(HttpServletResponse response, int status, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(status);
+        response.setHeader("Retry-After", Long.toString(Math.max(1, retryAfterSeconds)));
+        response.setContentType("text/plain;charset=UTF-8");
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    @Override
+    public void destroy() {
+        LOGGER.info("Limitation détruite : {} requêtes refusées (débit), {} (concurrence)",
+                rateRejections.sum(), concurrencyRejections.sum());
+    }
+
+    /** Débit d'un seau : intervalle entre deux jetons et tolérance de rafale (ns). */
+    static final class Limit {
+
+        private final long intervalNanos;
+        private final long burstNanos;
+
+        /**
+         * @param rate Jetons par seconde, 0 pour ne pas limiter.
+         * @param burst Jetons accumulables.
+         */
+        Limit(int rate, int burst) {
+            intervalNanos = rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0;
+            burstNanos = intervalNanos * Math.max(1, burst);
+        }
+    }
+
+    /** Requêtes en cours sur une route, bornées sans verrou. */
+    private static final class Route {
+
+        private final int limit;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        Route(int limit) {
+            this.limit = limit;
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= limit) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void release() {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /** Libère la place d'une requête suspendue quand sa réponse est terminée. */
+    private static final class Release implements AsyncListener {
+
+        private final Route route;
+
+        Release(Route route) {
+            this.route = route;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            // Appelé une seule fois, y compris après onTimeout ou onError
+            route.release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.info.filter;
+
+import javax.annotation.Priority;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.NewCookie;
+import javax.ws.rs.core.Response;
+
+import com.info.db.ReadRouting;
+
+/**
+ * Lecture de ses propres écritures quand les lectures vont aux répliques.
+ *
+ * Après une écriture réussie, le client reçoit un cookie portant la fin de sa
+ * fenêtre ; tant qu'elle n'est pas écoulée, ses lectures vont au primaire et ne
+ * risquent pas de manquer sa propre écriture sur une réplique en retard. Le cookie
+ * porte l'échéance lui-même : aucun état côté serveur, quelle que soit l'instance
+ * qui reçoit la requête suivante.
+ */
+@Priority(Priorities.USER)
+public class ReadYourWritesFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    static final String COOKIE_NAME = "tp333-primary-until";
+
+    private final long windowMs;
+
+    /**
+     * @param windowMs Durée (ms) pendant laquelle un client qui vient d'écrire lit sur le primaire.
+     */
+    public ReadYourWritesFilter(long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        // Toujours positionné : le thread du conteneur ne garde pas l'état de la requête précédente
+        ReadRouting.setPrimaryRequired(isInWindow(request.getCookies().get(COOKIE_NAME)));
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        if (isSafe(request.getMethod())
+                || response.getStatusInfo().getFamily() != Response.Status.Family.SUCCESSFUL) {
+            return;
+        }
+        long until = System.currentTimeMillis() + windowMs;
+        int maxAgeSeconds = (int) Math.max(1, (windowMs + 999) / 1000);
+        NewCookie cookie = new NewCookie(COOKIE_NAME, Long.toString(until), "/", null, null,
+                maxAgeSeconds, false, true);
+        response.getHeaders().add(HttpHeaders.SET_COOKIE, cookie);
+    }
+
+    private static boolean isInWindow(Cookie cookie) {
+        if (cookie == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean isSafe(String method) {
+        return HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method) || HttpMethod.OPTIONS.equals(method);
+    }
+}
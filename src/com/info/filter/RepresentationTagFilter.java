@@ -0,0 +1,139 @@
+package com.info.filter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+
+/**
+ * ETag fort propre à chaque représentation (RFC 7232) : les ressources calculent
+ * un ETag par contenu (ex: la version d'une personne), ce filtre y ajoute le
+ * format (-cbor) et CompressionInterceptor l'encodage (-gzip, -deflate).
+ *
+ * À l'arrivée, ces suffixes sont retirés de If-None-Match et If-Match : les
+ * ressources comparent toujours l'ETag du contenu, quelle que soit la
+ * représentation reçue par le client. Un 304 reprend le suffixe de l'ETag
+ * envoyé par le client dans If-None-Match : c'est celui de la représentation
+ * qu'il a en cache, et donc celui que porterait le 200 correspondant.
+ */
+@Priority(Priorities.HEADER_DECORATOR)
+public class RepresentationTagFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final String[] SUFFIXES = { "-gzip", "-deflate", "-cbor" };
+    private static final MediaType CBOR = MediaType.valueOf("application/cbor");
+    /** Propriété de requête : ETag du contenu → suffixes retirés de If-None-Match. */
+    private static final String STRIPPED_SUFFIXES = RepresentationTagFilter.class.getName() + ".suffixes";
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        Map<String, String> suffixes = new HashMap<>();
+        strip(request.getHeaders(), HttpHeaders.IF_NONE_MATCH, suffixes);
+        strip(request.getHeaders(), HttpHeaders.IF_MATCH, null);
+        if (!suffixes.isEmpty()) {
+            request.setProperty(STRIPPED_SUFFIXES, suffixes);
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        if (response.getStatus() == 304) {
+            // Pas de corps : ni type ni encodage, le suffixe vient de l'ETag reçu
+            @SuppressWarnings("unchecked")
+            Map<String, String> suffixes = (Map<String, String>) request.getProperty(STRIPPED_SUFFIXES);
+            Object value = response.getHeaders().getFirst(HttpHeaders.ETAG);
+            if (suffixes != null && value != null) {
+                EntityTag tag = value instanceof EntityTag ? (EntityTag) value : EntityTag.valueOf(value.toString());
+                String suffix = suffixes.get(tag.getValue());
+                if (suffix != null) {
+                    addSuffix(response.getHeaders(), suffix);
+                }
+            }
+            return;
+        }
+        MediaType type = response.getMediaType();
+        if (type != null && type.isCompatible(CBOR)) {
+            addSuffix(response.getHeaders(), "-cbor");
+        }
+    }
+
+    /**
+     * Ajoute un suffixe à l'ETag fort d'une réponse (les ETags faibles sont partagés
+     * par toutes les représentations équivalentes).
+     * @param headers Les en-têtes de la réponse, pas encore envoyés.
+     * @param suffix Le suffixe, ex: "-gzip".
+     */
+    static void addSuffix(MultivaluedMap<String, Object> headers, String suffix) {
+        Object value = headers.getFirst(HttpHeaders.ETAG);
+        if (value == null) {
+            return;
+        }
+        EntityTag tag = value instanceof EntityTag ? (EntityTag) value : EntityTag.valueOf(value.toString());
+        if (!tag.isWeak()) {
+            headers.putSingle(HttpHeaders.ETAG, new EntityTag(tag.getValue() + suffix));
+        }
+    }
+
+    private static void strip(MultivaluedMap<String, String> headers, String name, Map<String, String> suffixes) {
+        List<String> values = headers.get(name);
+        if (values == null) {
+            return;
+        }
+        List<String> stripped = new ArrayList<>(values.size());
+        for (String value : values) {
+            stripped.add(strip(value, suffixes));
+        }
+        headers.put(name, stripped);
+    }
+
+    /**
+     * Retire les suffixes de représentation de chaque ETag d'une liste ("a-gzip", W/"b").
+     */
+    static String strip(String header) {
+        return strip(header, null);
+    }
+
+    /**
+     * Comme strip(String), en relevant les suffixes retirés.
+     * @param header La valeur de l'en-tête.
+     * @param suffixes Si non null, reçoit pour chaque ETag suffixé le contenu et ses
+     *        suffixes (ex: "5" → "-cbor-gzip") ; le premier ETag l'emporte.
+     */
+    static String strip(String header, Map<String, String> suffixes) {
+        StringBuilder result = new StringBuilder(header.length());
+        int start = 0;
+        while (true) {
+            int open = header.indexOf('"', start);
+            int close = open >= 0 ? header.indexOf('"', open + 1) : -1;
+            if (close < 0) {
+                return result.append(header, start, header.length()).toString();
+            }
+            String value = header.substring(open + 1, close);
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (String suffix : SUFFIXES) {
+                    if (value.endsWith(suffix)) {
+                        value = value.substring(0, value.length() - suffix.length());
+                        changed = true;
+                    }
+                }
+            }
+            if (suffixes != null && value.length() < close - open - 1) {
+                suffixes.putIfAbsent(value, header.substring(open + 1 + value.length(), close));
+            }
+            result.append(header, start, open + 1).append(value).append('"');
+            start = close + 1;
+        }
+    }
+}
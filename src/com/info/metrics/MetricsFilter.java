@@ -0,0 +1,109 @@
+package com.info.metrics;
+
+import java.io.IOException;
+import java.util.List;
+
+import javax.annotation.Priority;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+import org.glassfish.jersey.server.ExtendedUriInfo;
+import org.glassfish.jersey.uri.UriTemplate;
+
+/**
+ * Mesure chaque requête : nombre, erreurs et latence par modèle de route
+ * (/persons/{id} et non /persons/42), ainsi que le temps d'écriture du corps.
+ *
+ * Priorité basse : premier filtre en entrée, dernier en sortie, intercepteur le
+ * plus externe à l'écriture.
+ */
+@Priority(10)
+public class MetricsFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+    private static final String START_PROPERTY = MetricsFilter.class.getName() + ".start";
+    private static final String ROUTE_PROPERTY = MetricsFilter.class.getName() + ".route";
+    private static final String STATUS_PROPERTY = MetricsFilter.class.getName() + ".status";
+
+    private final MetricsRegistry registry;
+
+    @Context
+    private ExtendedUriInfo uriInfo;
+
+    public MetricsFilter(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        request.setProperty(START_PROPERTY, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        Object start = request.getProperty(START_PROPERTY);
+        if (start == null) {
+            return;
+        }
+        MetricsRegistry.RouteMetrics route = registry.route(request.getMethod(), routeTemplate());
+        if (response.hasEntity()) {
+            // La requête sera comptée une fois le corps écrit (aroundWriteTo)
+            request.setProperty(ROUTE_PROPERTY, route);
+            request.setProperty(STATUS_PROPERTY, response.getStatus());
+        } else {
+            route.record(response.getStatus(), System.nanoTime() - (Long) start);
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        MetricsRegistry.RouteMetrics route = (MetricsRegistry.RouteMetrics) context.getProperty(ROUTE_PROPERTY);
+        if (route == null) {
+            context.proceed();
+            return;
+        }
+        long writeStart = System.nanoTime();
+        int status = (Integer) context.getProperty(STATUS_PROPERTY);
+        try {
+            context.proceed();
+        } catch (IOException | RuntimeException e) {
+            status = 500;
+            throw e;
+        } finally {
+            long end = System.nanoTime();
+            route.recordSerialization(end - writeStart);
+            route.record(status, end - (Long) context.getProperty(START_PROPERTY));
+        }
+    }
+
+    /**
+     * Reconstitue le modèle de chemin de la ressource appelée.
+     */
+    private String routeTemplate() {
+        List<UriTemplate> templates = uriInfo.getMatchedTemplates();
+        if (templates.isEmpty()) {
+            return "unmatched";
+        }
+        StringBuilder path = new StringBuilder();
+        // Les modèles sont listés du plus spécifique (méthode) au moins spécifique (classe)
+        for (int i = templates.size() - 1; i >= 0; i--) {
+            String template = templates.get(i).getTemplate();
+            if (template.isEmpty() || "/".equals(template)) {
+                continue;
+            }
+            if (path.length() > 0 && path.charAt(path.length() - 1) == '/' && template.startsWith("/")) {
+                path.append(template, 1, template.length());
+            } else {
+                if (!template.startsWith("/")) {
+                    path.append('/');
+                }
+                path.append(template);
+            }
+        }
+        return path.length() == 0 ? "/" : path.toString();
+    }
+}
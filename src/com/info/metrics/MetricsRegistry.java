@@ -0,0 +1,239 @@
+package com.info.metrics;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.info.db.PoolStats;
+
+/**
+ * Métriques de l'application, exposées au format texte Prometheus par /metrics.
+ */
+public class MetricsRegistry {
+
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+    private final ConcurrentMap<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> serviceTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> timerHelp = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Supplier<Number>> gauges = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Supplier<Number>> counters = new ConcurrentHashMap<>();
+    private volatile Supplier<PoolStats> poolStats;
+
+    /**
+     * @param method Méthode HTTP.
+     * @param route Modèle de chemin (ex: /persons/{id}).
+     * @return Les métriques de la route, créées au premier appel.
+     */
+    public RouteMetrics route(String method, String route) {
+        String key = method + ' ' + route;
+        RouteMetrics metrics = routes.get(key);
+        if (metrics == null) {
+            metrics = routes.computeIfAbsent(key, k -> new RouteMetrics(method, route));
+        }
+        return metrics;
+    }
+
+    /**
+     * @param method Nom de la méthode du service (ex: getPerson).
+     * @return Le chronomètre de la méthode, créé au premier appel.
+     */
+    public Timer serviceTimer(String method) {
+        Timer timer = serviceTimers.get(method);
+        if (timer == null) {
+            timer = serviceTimers.computeIfAbsent(method, k -> new Timer());
+        }
+        return timer;
+    }
+
+    /**
+     * @param name Nom Prometheus complet (ex: tp333_ingest_flush_duration_seconds).
+     * @param help Description exportée avec la métrique.
+     * @return Le chronomètre exporté sous ce nom, créé au premier appel.
+     */
+    public Timer timer(String name, String help) {
+        timerHelp.putIfAbsent(name, help);
+        return timers.computeIfAbsent(name, k -> new Timer());
+    }
+
+    /**
+     * Enregistre une jauge lue à chaque export.
+     * @param name Nom Prometheus complet (ex: tp333_cache_size).
+     * @param value Fournisseur de la valeur courante.
+     */
+    public void gauge(String name, Supplier<Number> value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Enregistre un compteur (valeur croissante) lu à chaque export.
+     * @param name Nom Prometheus complet, terminé par _total (ex: tp333_async_rejected_total).
+     * @param value Fournisseur de la valeur courante.
+     */
+    public void counter(String name, Supplier<Number> value) {
+        counters.put(name, value);
+    }
+
+    /**
+     * Exporte les statistiques d'un pool de connexions.
+     * @param poolStats Fournisseur des statistiques (peut renvoyer null).
+     */
+    public void poolStats(Supplier<PoolStats> poolStats) {
+        this.poolStats = poolStats;
+    }
+
+    /**
+     * @return Toutes les métriques au format texte Prometheus (version 0.0.4).
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        Map<String, RouteMetrics> sortedRoutes = new TreeMap<>(routes);
+
+        header(out, "tp333_http_requests_total", "counter", "Nombre de requêtes HTTP par route.");
+        for (RouteMetrics r : sortedRoutes.values()) {
+            sample(out, "tp333_http_requests_total", r.labels(), r.requests.sum());
+        }
+        header(out, "tp333_http_errors_total", "counter", "Nombre de réponses HTTP 5xx par route.");
+        for (RouteMetrics r : sortedRoutes.values()) {
+            sample(out, "tp333_http_errors_total", r.labels(), r.errors.sum());
+        }
+        header(out, "tp333_http_client_errors_total", "counter", "Nombre de réponses HTTP 4xx par route.");
+        for (RouteMetrics r : sortedRoutes.values()) {
+            sample(out, "tp333_http_client_errors_total", r.labels(), r.clientErrors.sum());
+        }
+        header(out, "tp333_http_request_duration_seconds", "summary",
+                "Durée totale des requêtes (traitement et sérialisation) par route.");
+        for (RouteMetrics r : sortedRoutes.values()) {
+            summary(out, "tp333_http_request_duration_seconds", r.labels(), r.latency);
+        }
+        header(out, "tp333_http_serialization_duration_seconds", "summary",
+                "Durée d'écriture du corps de réponse par route.");
+        for (RouteMetrics r : sortedRoutes.values()) {
+            if (r.serialization.getCount() > 0) {
+                summary(out, "tp333_http_serialization_duration_seconds", r.labels(), r.serialization);
+            }
+        }
+        header(out, "tp333_service_duration_seconds", "summary",
+                "Durée des appels au service de persistance (accès base de données).");
+        for (Map.Entry<String, Timer> e : new TreeMap<>(serviceTimers).entrySet()) {
+            summary(out, "tp333_service_duration_seconds", "method=\"" + e.getKey() + "\"", e.getValue());
+        }
+
+        for (Map.Entry<String, Timer> e : new TreeMap<>(timers).entrySet()) {
+            header(out, e.getKey(), "summary", timerHelp.get(e.getKey()));
+            summary(out, e.getKey(), null, e.getValue());
+        }
+
+        PoolStats pool = poolStats != null ? poolStats.get() : null;
+        if (pool != null) {
+            gaugeSample(out, "tp333_pool_active_connections", "Connexions empruntées.", pool.getActive());
+            gaugeSample(out, "tp333_pool_idle_connections", "Connexions libres.", pool.getIdle());
+            gaugeSample(out, "tp333_pool_waiting_threads", "Threads en attente d'une connexion.", pool.getWaiters());
+            header(out, "tp333_pool_timeouts_total", "counter", "Emprunts de connexion expirés.");
+            sample(out, "tp333_pool_timeouts_total", null, pool.getTimeoutCount());
+            if (pool.getWaitTimeQuantilesMs() != null) {
+                header(out, "tp333_pool_wait_seconds", "summary", "Attente à l'emprunt d'une connexion.");
+                for (Map.Entry<String, Double> q : pool.getWaitTimeQuantilesMs().entrySet()) {
+                    sample(out, "tp333_pool_wait_seconds", "quantile=\"" + q.getKey() + "\"", q.getValue() / 1000.0);
+                }
+                sample(out, "tp333_pool_wait_seconds_sum", null, pool.getTotalWaitMs() / 1000.0);
+                sample(out, "tp333_pool_wait_seconds_count", null, pool.getBorrowCount());
+            }
+        }
+
+        for (Map.Entry<String, Supplier<Number>> e : new TreeMap<>(gauges).entrySet()) {
+            gaugeSample(out, e.getKey(), null, e.getValue().get());
+        }
+        for (Map.Entry<String, Supplier<Number>> e : new TreeMap<>(counters).entrySet()) {
+            header(out, e.getKey(), "counter", null);
+            sample(out, e.getKey(), null, e.getValue().get());
+        }
+        return out.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        if (help != null) {
+            out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        }
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void gaugeSample(StringBuilder out, String name, String help, Number value) {
+        header(out, name, "gauge", help);
+        sample(out, name, null, value);
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, Number value) {
+        out.append(name);
+        if (labels != null) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(format(value)).append('\n');
+    }
+
+    private static void summary(StringBuilder out, String name, String labels, Timer timer) {
+        double[] values = timer.quantileSeconds(QUANTILES);
+        for (int i = 0; i < QUANTILES.length; i++) {
+            sample(out, name, (labels != null ? labels + "," : "") + "quantile=\"" + QUANTILES[i] + "\"", values[i]);
+        }
+        sample(out, name + "_sum", labels, timer.getTotalSeconds());
+        sample(out, name + "_count", labels, timer.getCount());
+    }
+
+    private static String format(Number value) {
+        if (value instanceof Double || value instanceof Float) {
+            return String.format(Locale.ROOT, "%.6f", value.doubleValue());
+        }
+        return value.toString();
+    }
+
+    /**
+     * Compteurs et chronomètres d'une route HTTP.
+     */
+    public static final class RouteMetrics {
+        private final String method;
+        private final String route;
+        final LongAdder requests = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder clientErrors = new LongAdder();
+        final Timer latency = new Timer();
+        final Timer serialization = new Timer();
+
+        RouteMetrics(String method, String route) {
+            this.method = method;
+            this.route = route;
+        }
+
+        /**
+         * Enregistre une requête terminée.
+         * @param status Le code HTTP de la réponse.
+         * @param nanos La durée totale de la requête.
+         */
+        public void record(int status, long nanos) {
+            requests.increment();
+            if (status >= 500) {
+                errors.increment();
+            } else if (status >= 400) {
+                clientErrors.increment();
+            }
+            latency.record(nanos);
+        }
+
+        /**
+         * Enregistre la durée d'écriture d'un corps de réponse.
+         * @param nanos La durée en nanosecondes.
+         */
+        public void recordSerialization(long nanos) {
+            serialization.record(nanos);
+        }
+
+        String labels() {
+            return "method=\"" + method + "\",route=\"" + route.replace("\"", "\\\"") + "\"";
+        }
+    }
+}
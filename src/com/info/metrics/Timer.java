@@ -0,0 +1,65 @@
+package com.info.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Chronomètre à histogramme HDR (résolution : la microseconde, 2 chiffres significatifs).
+ *
+ * L'enregistrement passe par un Recorder HdrHistogram, sans attente pour les
+ * threads de requête ; les valeurs sont cumulées dans un histogramme global à
+ * chaque lecture.
+ */
+public class Timer {
+
+    private final Recorder recorder = new Recorder(2);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final Histogram cumulative = new Histogram(2);
+    private Histogram interval;
+
+    /**
+     * Enregistre une durée.
+     * @param nanos La durée en nanosecondes.
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        recorder.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        count.increment();
+        totalNanos.add(nanos);
+    }
+
+    /**
+     * @return Le nombre de durées enregistrées.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return La somme des durées enregistrées, en secondes.
+     */
+    public double getTotalSeconds() {
+        return totalNanos.sum() / 1e9;
+    }
+
+    /**
+     * Calcule les quantiles demandés depuis le démarrage.
+     * @param quantiles Les quantiles (entre 0 et 1).
+     * @return Les valeurs correspondantes, en secondes.
+     */
+    public synchronized double[] quantileSeconds(double... quantiles) {
+        interval = recorder.getIntervalHistogram(interval);
+        cumulative.add(interval);
+        double[] values = new double[quantiles.length];
+        for (int i = 0; i < quantiles.length; i++) {
+            values[i] = cumulative.getValueAtPercentile(quantiles[i] * 100.0) / 1e6;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,98 @@
+package com.info.model;
+
+public class BulkResult {
+	
+	private int index;
+	private int id;
+	private int status;
+	private String message;
+	
+	/**
+	 * Constructeur par défaut.
+	 */
+	public BulkResult() {}
+	
+	/**
+	 * Constructeur avec paramètres.
+	 * @param id ID de la personne concernée (0 si inconnu).
+	 * @param status Code HTTP équivalent pour cet élément.
+	 * @param message Message explicatif (null si succès).
+	 */
+	public BulkResult(int id, int status, String message) {
+		this.id = id;
+		this.status = status;
+		this.message = message;
+	}
+	
+	/**
+	 * @return La position de l'élément dans la requête.
+	 */
+	public int getIndex() {
+		return index;
+	}
+	
+	/**
+	 * Définit la position de l'élément dans la requête.
+	 * @param index La position.
+	 */
+	public void setIndex(int index) {
+		this.index = index;
+	}
+	
+	/**
+	 * @return L'ID de la personne (ID généré pour un ajout).
+	 */
+	public int getId() {
+		return id;
+	}
+	
+	/**
+	 * Définit l'ID de la personne.
+	 * @param id L'ID.
+	 */
+	public void setId(int id) {
+		this.id = id;
+	}
+	
+	/**
+	 * @return Le code HTTP équivalent (201, 200, 400, 404, 500, 503).
+	 */
+	public int getStatus() {
+		return status;
+	}
+	
+	/**
+	 * Définit le code HTTP équivalent.
+	 * @param status Le code.
+	 */
+	public void setStatus(int status) {
+		this.status = status;
+	}
+	
+	/**
+	 * @return Le message d'erreur, ou null si succès.
+	 */
+	public String getMessage() {
+		return message;
+	}
+	
+	/**
+	 * Définit le message d'erreur.
+	 * @param message Le message.
+	 */
+	public void setMessage(String message) {
+		this.message = message;
+	}
+	
+	/**
+	 * @return true si l'opération a réussi pour cet élément.
+	 */
+	public boolean isSuccess() {
+		return status >= 200 && status < 300;
+	}
+	
+	@Override
+	public String toString() {
+		return "BulkResult [index=" + index + ", id=" + id + ", status=" + status + ", message=" + message + "]";
+	}
+}
@@ -5,6 +5,7 @@ public class Person {
 	private String name;
 	private int age;
 	private int id;
+	private int version;
 	
 	/**
 	 * Constructeur par défaut.
@@ -68,8 +69,23 @@ public class Person {
 		this.id = id;
 	}
 	
+	/**
+	 * @return La version de la personne, incrémentée à chaque mise à jour (verrouillage optimiste).
+	 */
+	public int getVersion() {
+		return version;
+	}
+	
+	/**
+	 * Définit la version de la personne.
+	 * @param version La version.
+	 */
+	public void setVersion(int version) {
+		this.version = version;
+	}
+	
 	@Override
 	public String toString() {
-		return "Person [id=" + id + ", name=" + name + ", age=" + age + "]";
+		return "Person [id=" + id + ", name=" + name + ", age=" + age + ", version=" + version + "]";
 	}
 }
\ No newline at end of file
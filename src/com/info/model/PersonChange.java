@@ -0,0 +1,74 @@
+package com.info.model;
+
+public class PersonChange {
+	
+	/** Nature de la modification. */
+	public enum Type {
+		CREATED, UPDATED, DELETED
+	}
+	
+	private long eventId;
+	private Type type;
+	private int id;
+	private Person person;
+	
+	/**
+	 * Constructeur par défaut.
+	 */
+	public PersonChange() {}
+	
+	/**
+	 * Constructeur avec paramètres.
+	 * @param eventId Numéro de l'événement (croissant).
+	 * @param type Nature de la modification.
+	 * @param id ID de la personne concernée.
+	 * @param person État de la personne après modification (null pour une suppression).
+	 */
+	public PersonChange(long eventId, Type type, int id, Person person) {
+		this.eventId = eventId;
+		this.type = type;
+		this.id = id;
+		this.person = person;
+	}
+	
+	/**
+	 * @return Le numéro de l'événement, strictement croissant.
+	 */
+	public long getEventId() {
+		return eventId;
+	}
+	
+	public void setEventId(long eventId) {
+		this.eventId = eventId;
+	}
+	
+	public Type getType() {
+		return type;
+	}
+	
+	public void setType(Type type) {
+		this.type = type;
+	}
+	
+	/**
+	 * @return L'ID de la personne concernée.
+	 */
+	public int getId() {
+		return id;
+	}
+	
+	public void setId(int id) {
+		this.id = id;
+	}
+	
+	/**
+	 * @return L'état de la personne après modification, ou null pour une suppression.
+	 */
+	public Person getPerson() {
+		return person;
+	}
+	
+	public void setPerson(Person person) {
+		this.person = person;
+	}
+}
@@ -0,0 +1,121 @@
+package com.info.router;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import com.info.config.Settings;
+import com.info.db.PoolConfig;
+import com.info.db.PoolStats;
+import com.info.service.CacheStats;
+import com.info.service.CachingPersonService;
+import com.info.service.StorageProvider;
+
+@Path("/admin")
+public class AdminRouter {
+
+    private final CachingPersonService cache;
+    private final StorageProvider storage;
+
+    /**
+     * @param cache Le cache de personnes, ou null s'il est désactivé.
+     * @param storage Le moteur de stockage.
+     */
+    public AdminRouter(CachingPersonService cache, StorageProvider storage) {
+        this.cache = cache;
+        this.storage = storage;
+    }
+
+    // GET statistiques du pool de connexions
+    @GET
+    @Path("/pool")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response poolStats() {
+        PoolStats stats = storage.getPoolStats();
+        if (stats == null) {
+            return noPool();
+        }
+        return Response.ok(stats).build();
+    }
+
+    // GET paramètres actuels du pool de connexions
+    @GET
+    @Path("/pool/config")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response poolConfig() {
+        PoolConfig config = storage.getPoolConfig();
+        if (config == null) {
+            return noPool();
+        }
+        return Response.ok(config).build();
+    }
+
+    // PUT remplacer les paramètres du pool à chaud (taille, délais), sans couper les requêtes en cours
+    @PUT
+    @Path("/pool/config")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response updatePoolConfig(PoolConfig config) {
+        if (storage.getPoolConfig() == null) {
+            return noPool();
+        }
+        if (config == null) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Paramètres du pool manquants").build();
+        }
+        try {
+            storage.setPoolConfig(config);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+        return Response.ok(storage.getPoolConfig()).build();
+    }
+
+    // POST relire le fichier de configuration et appliquer les paramètres "tp333.pool.*"
+    @POST
+    @Path("/config/reload")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response reloadConfig() {
+        PoolConfig config;
+        try {
+            Settings.reload();
+            config = PoolConfig.fromSettings();
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+        if (storage.getPoolConfig() == null) {
+            return Response.noContent().build();
+        }
+        storage.setPoolConfig(config);
+        return Response.ok(storage.getPoolConfig()).build();
+    }
+
+    // GET compteurs du cache de personnes
+    @GET
+    @Path("/cache")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response cacheStats() {
+        return Response.ok(cache != null ? cache.getStats() : new CacheStats()).build();
+    }
+
+    // DELETE vider le cache de personnes
+    @DELETE
+    @Path("/cache")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response clearCache() {
+        if (cache != null) {
+            cache.clear();
+        }
+        return Response.noContent().build();
+    }
+
+    private Response noPool() {
+        return Response.status(Response.Status.NOT_FOUND)
+                .entity("Aucun pool de connexions (stockage " + storage.getName() + ")").build();
+    }
+}
@@ -0,0 +1,219 @@
+package com.info.router;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.info.db.ReadRouting;
+
+/**
+ * Exécute le travail base de données des ressources hors des threads du conteneur.
+ *
+ * La ressource suspend la requête (AsyncResponse), le traitement passe sur un
+ * exécuteur dédié (threads virtuels si la JVM les propose, sinon un pool fixe)
+ * et le thread HTTP est libéré pendant les entrées/sorties. Le nombre de
+ * traitements en cours ou en attente est borné : au-delà, la requête reçoit
+ * immédiatement un 503 avec Retry-After plutôt que d'allonger la file.
+ *
+ * Le délai de réponse ne s'applique qu'aux lectures : un traitement expiré n'est
+ * pas interrompu, il continue et garde sa place dans maxPending jusqu'à sa fin
+ * (voir getTimedOutRunning). Une écriture peut donc aboutir après le 503 ; pour
+ * ne pas inviter le client à la rejouer, les écritures (submitWrite) attendent
+ * leur résultat réel, borné par les délais JDBC.
+ */
+public class AsyncDispatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncDispatcher.class);
+
+    /** Délai conseillé au client avant de réessayer (s). */
+    private static final int RETRY_AFTER_SECONDS = 1;
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxPending;
+    private final long timeoutMs;
+    private final boolean virtualThreads;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final AtomicInteger timedOutRunning = new AtomicInteger();
+
+    /**
+     * @param threads Nombre de threads du pool (ignoré avec les threads virtuels).
+     * @param maxPending Nombre maximum de traitements en cours ou en attente.
+     * @param timeoutMs Délai maximum de réponse d'une lecture (ms) avant un 503.
+     * @param useVirtualThreads true pour utiliser les threads virtuels s'ils sont disponibles.
+     */
+    public AsyncDispatcher(int threads, int maxPending, long timeoutMs, boolean useVirtualThreads) {
+        if (threads <= 0 || maxPending <= 0 || timeoutMs <= 0) {
+            throw new IllegalArgumentException("Paramètres de l'exécuteur asynchrone invalides");
+        }
+        ExecutorService virtual = useVirtualThreads ? newVirtualThreadExecutor() : null;
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : newPlatformExecutor(threads);
+        this.permits = new Semaphore(maxPending);
+        this.maxPending = maxPending;
+        this.timeoutMs = timeoutMs;
+        LOGGER.info("✅ Exécuteur asynchrone initialisé : {} (maxPending={}, timeoutMs={})",
+                virtualThreads ? "threads virtuels" : threads + " threads", maxPending, timeoutMs);
+    }
+
+    /**
+     * Exécute une lecture sur l'exécuteur dédié puis reprend la requête suspendue.
+     * Au-delà de timeoutMs, le client reçoit un 503 avec Retry-After.
+     * Le routage des lectures de la requête (ReadRouting) suit le traitement.
+     * @param asyncResponse La requête suspendue.
+     * @param handler Le traitement produisant la réponse.
+     */
+    public void submit(AsyncResponse asyncResponse, Supplier<Response> handler) {
+        submit(asyncResponse, handler, true);
+    }
+
+    /**
+     * Exécute une écriture (POST, PUT, PATCH, DELETE) sur l'exécuteur dédié.
+     * Aucun délai de réponse : un 503 après un commit ferait rejouer l'écriture
+     * par le client, la réponse attend donc le résultat réel du traitement.
+     * @param asyncResponse La requête suspendue.
+     * @param handler Le traitement produisant la réponse.
+     */
+    public void submitWrite(AsyncResponse asyncResponse, Supplier<Response> handler) {
+        submit(asyncResponse, handler, false);
+    }
+
+    private void submit(AsyncResponse asyncResponse, Supplier<Response> handler, boolean timed) {
+        if (!permits.tryAcquire()) {
+            rejected.increment();
+            asyncResponse.resume(unavailable("Serveur surchargé, réessayez plus tard"));
+            return;
+        }
+        boolean primaryRequired = ReadRouting.isPrimaryRequired();
+        // 0 : en cours, 1 : terminé, 2 : expiré côté client mais toujours en cours
+        AtomicInteger state = new AtomicInteger();
+        if (timed) {
+            asyncResponse.setTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+            asyncResponse.setTimeoutHandler(response -> {
+                timeouts.increment();
+                if (state.compareAndSet(0, 2)) {
+                    timedOutRunning.incrementAndGet();
+                }
+                response.resume(unavailable("Délai de traitement dépassé"));
+            });
+        }
+        try {
+            executor.execute(() -> {
+                inFlight.incrementAndGet();
+                ReadRouting.setPrimaryRequired(primaryRequired);
+                try {
+                    asyncResponse.resume(handler.get());
+                } catch (RuntimeException e) {
+                    LOGGER.error("❌ Erreur traitement asynchrone : {}", e.getMessage(), e);
+                    asyncResponse.resume(e);
+                } finally {
+                    ReadRouting.setPrimaryRequired(false);
+                    inFlight.decrementAndGet();
+                    if (!state.compareAndSet(0, 1)) {
+                        timedOutRunning.decrementAndGet();
+                    }
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            rejected.increment();
+            asyncResponse.resume(unavailable("Serveur en cours d'arrêt"));
+        }
+    }
+
+    /**
+     * @return Le nombre de traitements en cours d'exécution.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return Le nombre de traitements en cours ou en attente.
+     */
+    public int getPending() {
+        return maxPending - permits.availablePermits();
+    }
+
+    /**
+     * @return Le nombre de requêtes refusées faute de place (503).
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return Le nombre de requêtes ayant dépassé le délai de réponse.
+     */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * @return Le nombre de traitements expirés côté client (503 déjà envoyé) qui
+     *         s'exécutent encore et occupent toujours une place de maxPending.
+     */
+    public int getTimedOutRunning() {
+        return timedOutRunning.get();
+    }
+
+    /**
+     * Arrête l'exécuteur en laissant quelques secondes aux traitements en cours.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    private static Response unavailable(String message) {
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header("Retry-After", RETRY_AFTER_SECONDS)
+                .type(MediaType.TEXT_PLAIN_TYPE.withCharset("UTF-8"))
+                .entity(message).build();
+    }
+
+    private static ExecutorService newPlatformExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "rest-worker-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() par réflexion : le code reste
+     * compilable en Java 8 et profite des threads virtuels sur Java 21+.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
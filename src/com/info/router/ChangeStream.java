@@ -0,0 +1,286 @@
+package com.info.router;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.info.model.PersonChange;
+import com.info.service.ChangeFeed;
+
+/**
+ * Diffuse le journal des modifications aux clients Server-Sent Events.
+ *
+ * Un thread surveille le journal et confie chaque abonné en retard à un thread
+ * d'envoi, au plus un envoi en cours par abonné : un client lent ne retarde que
+ * lui-même. Chaque abonné reprend là où il s'est arrêté (Last-Event-ID) ; sa
+ * position dans le tampon circulaire du journal tient lieu de file bornée. Un
+ * client dont l'envoi reste bloqué plus de sendTimeoutMs, ou que le journal a
+ * dépassé, est déconnecté ; à la reconnexion, s'il a perdu des modifications,
+ * il reçoit un événement « reset » et doit recharger /persons/all. Un
+ * commentaire est envoyé périodiquement pour détecter les clients partis.
+ */
+public class ChangeStream {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChangeStream.class);
+
+    /** Nombre maximum d'événements envoyés à un abonné par tour. */
+    private static final int MAX_BATCH = 500;
+    /** Délai de reconnexion conseillé aux clients (ms). */
+    private static final long RECONNECT_DELAY_MS = 3000;
+
+    private final ChangeFeed feed;
+    private final long heartbeatMs;
+    private final long sendTimeoutMs;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Thread pusher;
+    private final ExecutorService senders;
+    private final LongAdder disconnected = new LongAdder();
+    private volatile boolean running = true;
+
+    /**
+     * @param feed Le journal des modifications.
+     * @param heartbeatMs Période des commentaires de maintien (ms).
+     * @param sendTimeoutMs Durée maximale (ms) d'un envoi à un abonné avant de le déconnecter.
+     */
+    public ChangeStream(ChangeFeed feed, long heartbeatMs, long sendTimeoutMs) {
+        this.feed = feed;
+        this.heartbeatMs = heartbeatMs;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.pusher = new Thread(this::run, "sse-changes");
+        this.pusher.setDaemon(true);
+        AtomicInteger counter = new AtomicInteger();
+        this.senders = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "sse-sender-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public void start() {
+        pusher.start();
+    }
+
+    /**
+     * Abonne un client.
+     * @param sink Le flux SSE du client.
+     * @param sse Fabrique d'événements.
+     * @param lastEventId Dernier événement reçu par le client, ou null pour ne recevoir
+     *                    que les modifications à venir.
+     */
+    public void subscribe(SseEventSink sink, Sse sse, Long lastEventId) {
+        long from = lastEventId != null ? lastEventId : feed.getLastEventId();
+        subscribers.add(new Subscriber(sink, sse, from));
+        feed.wakeUp();
+    }
+
+    /**
+     * @return Le nombre de clients abonnés.
+     */
+    public int getSubscribers() {
+        return subscribers.size();
+    }
+
+    /**
+     * @return Le nombre de clients déconnectés pour lenteur ou retard.
+     */
+    public long getDisconnected() {
+        return disconnected.sum();
+    }
+
+    /**
+     * Arrête la diffusion et ferme les flux des abonnés.
+     */
+    public void stop() {
+        running = false;
+        feed.wakeUp();
+        try {
+            pusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            close(subscriber);
+        }
+        subscribers.clear();
+    }
+
+    private void run() {
+        long seen = feed.getLastEventId();
+        long lastHeartbeat = System.currentTimeMillis();
+        while (running) {
+            try {
+                seen = feed.await(seen, heartbeatMs);
+                long now = System.currentTimeMillis();
+                boolean heartbeat = now - lastHeartbeat >= heartbeatMs;
+                if (heartbeat) {
+                    lastHeartbeat = now;
+                }
+                for (Subscriber subscriber : subscribers) {
+                    dispatch(subscriber, seen, heartbeat, now);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.error("❌ Erreur diffusion des modifications : {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Confie l'abonné à un thread d'envoi s'il a du retard, sauf si un envoi est
+     * déjà en cours ; un envoi bloqué depuis trop longtemps déconnecte le client.
+     */
+    private void dispatch(Subscriber subscriber, long seen, boolean heartbeat, long now) {
+        long busySince = subscriber.busySince;
+        if (busySince != 0) {
+            if (now - busySince > sendTimeoutMs) {
+                LOGGER.warn("⚠️ Abonné SSE déconnecté : envoi bloqué depuis {} ms", now - busySince);
+                disconnect(subscriber);
+            }
+            return;
+        }
+        if (subscriber.sink.isClosed()) {
+            subscribers.remove(subscriber);
+            return;
+        }
+        if (!heartbeat && subscriber.lastEventId >= seen) {
+            return;
+        }
+        subscriber.busySince = now;
+        try {
+            subscriber.task = senders.submit(() -> send(subscriber, heartbeat));
+        } catch (RejectedExecutionException e) {
+            // Arrêt en cours
+            subscriber.busySince = 0;
+        }
+    }
+
+    private void send(Subscriber subscriber, boolean heartbeat) {
+        boolean connected;
+        try {
+            connected = push(subscriber, heartbeat);
+        } catch (RuntimeException e) {
+            LOGGER.warn("⚠️ Envoi SSE impossible : {}", e.getMessage());
+            connected = false;
+        }
+        subscriber.busySince = 0;
+        if (!connected) {
+            subscribers.remove(subscriber);
+            close(subscriber);
+        } else if (subscriber.lastEventId < feed.getLastEventId()) {
+            // Lot limité à MAX_BATCH, ou modifications arrivées pendant l'envoi
+            feed.wakeUp();
+        }
+    }
+
+    /**
+     * Envoie à un abonné tout ce qu'il n'a pas encore reçu.
+     * @return false si le client est parti ou doit être déconnecté.
+     */
+    private boolean push(Subscriber subscriber, boolean heartbeat) {
+        if (subscriber.sink.isClosed()) {
+            return false;
+        }
+        List<PersonChange> changes = feed.since(subscriber.lastEventId, MAX_BATCH);
+        if (changes == null) {
+            long last = feed.getLastEventId();
+            subscriber.lastEventId = last;
+            boolean sent = send(subscriber, subscriber.sse.newEventBuilder()
+                    .name("reset")
+                    .id(Long.toString(last))
+                    .reconnectDelay(RECONNECT_DELAY_MS)
+                    .data(String.class, "Historique indisponible : rechargez /persons/all")
+                    .build());
+            if (subscriber.started) {
+                // Abonné dépassé par le journal : trop lent pour suivre le flux
+                LOGGER.warn("⚠️ Abonné SSE déconnecté : dépassé par le journal des modifications");
+                disconnected.increment();
+                return false;
+            }
+            subscriber.started = true;
+            return sent;
+        }
+        subscriber.started = true;
+        for (PersonChange change : changes) {
+            subscriber.lastEventId = change.getEventId();
+            boolean sent = send(subscriber, subscriber.sse.newEventBuilder()
+                    .name(change.getType().name().toLowerCase())
+                    .id(Long.toString(change.getEventId()))
+                    .reconnectDelay(RECONNECT_DELAY_MS)
+                    .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                    .data(PersonChange.class, change)
+                    .build());
+            if (!sent) {
+                return false;
+            }
+        }
+        if (changes.isEmpty() && heartbeat) {
+            return send(subscriber, subscriber.sse.newEventBuilder().comment("ping").build());
+        }
+        return true;
+    }
+
+    private static boolean send(Subscriber subscriber, OutboundSseEvent event) {
+        try {
+            return !subscriber.sink.send(event).toCompletableFuture().isCompletedExceptionally();
+        } catch (IllegalStateException e) {
+            // Flux déjà fermé par le client
+            return false;
+        }
+    }
+
+    private void disconnect(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        disconnected.increment();
+        Future<?> task = subscriber.task;
+        if (task != null) {
+            task.cancel(true);
+        }
+        close(subscriber);
+    }
+
+    private static void close(Subscriber subscriber) {
+        if (subscriber.closed.compareAndSet(false, true)) {
+            try {
+                subscriber.sink.close();
+            } catch (RuntimeException e) {
+                LOGGER.debug("Fermeture d'un flux SSE : {}", e.getMessage());
+            }
+        }
+    }
+
+    private static final class Subscriber {
+        final SseEventSink sink;
+        final Sse sse;
+        final AtomicBoolean closed = new AtomicBoolean();
+        /** Modifié par un seul envoi à la fois, lu par le thread de surveillance. */
+        volatile long lastEventId;
+        /** Début (ms) de l'envoi en cours, 0 si aucun. */
+        volatile long busySince;
+        volatile Future<?> task;
+        boolean started;
+
+        Subscriber(SseEventSink sink, Sse sse, long lastEventId) {
+            this.sink = sink;
+            this.sse = sse;
+            this.lastEventId = lastEventId;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.info.router;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.info.db.DatabaseHealthMonitor;
+
+@Path("/health")
+public class HealthRouter {
+
+    private final DatabaseHealthMonitor monitor;
+
+    public HealthRouter(DatabaseHealthMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    // GET liveness : le processus répond, sans aucun accès à la base
+    @GET
+    @Path("/live")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response live() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "UP");
+        return Response.ok(response).build();
+    }
+
+    // GET readiness : dernier état de la base vérifié en tâche de fond
+    @GET
+    @Path("/ready")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response ready() {
+        DatabaseHealthMonitor.Status status = monitor.getStatus();
+        boolean ready = monitor.isReady();
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", ready ? "UP" : "DOWN");
+        response.put("database", status);
+        return Response.status(ready ? Response.Status.OK : Response.Status.SERVICE_UNAVAILABLE)
+                .entity(response).build();
+    }
+}
@@ -0,0 +1,28 @@
+package com.info.router;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+
+import com.info.metrics.MetricsRegistry;
+
+@Path("/metrics")
+public class MetricsRouter {
+
+    /** Type de contenu du format d'exposition texte de Prometheus. */
+    private static final String PROMETHEUS_TEXT = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final MetricsRegistry registry;
+
+    public MetricsRouter(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    // GET métriques au format Prometheus
+    @GET
+    @Produces(PROMETHEUS_TEXT)
+    public Response metrics() {
+        return Response.ok(registry.scrape()).build();
+    }
+}
@@ -2,33 +2,117 @@ package com.info.router;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.PATCH;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriBuilder;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
 
-import com.info.db.ConnexionDB;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.info.db.DatabaseHealthMonitor;
+import com.info.db.ReadRouting;
+import com.info.model.BulkResult;
 import com.info.model.Person;
-import com.info.service.PersonServiceImpl;
+import com.info.service.AgeStatistics;
+import com.info.service.ModificationCounter;
+import com.info.service.NameIndex;
+import com.info.service.PersonService;
+import com.info.service.UpdateOutcome;
+import com.info.service.WriteBehindQueue;
 
 @Path("/persons")
 public class RestRouter {
 
-    private PersonServiceImpl personService;
+    /** Taille maximale d'une page de /persons/all. */
+    private static final int MAX_PAGE_SIZE = 1000;
+    /** Nombre maximum de suggestions renvoyées par /persons/autocomplete. */
+    private static final int MAX_SUGGESTIONS = 100;
+    /** Nombre maximum d'éléments par requête /persons/bulk. */
+    private static final int MAX_BULK_SIZE = 10000;
+    /** Nombre maximum d'IDs par requête GET /persons?ids=. */
+    private static final int MAX_IDS = 100;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    /** Représentation binaire compacte (RFC 8949), choisie par l'en-tête Accept. */
+    public static final String APPLICATION_CBOR = "application/cbor";
+    private static final MediaType APPLICATION_CBOR_TYPE = MediaType.valueOf(APPLICATION_CBOR);
+    /** Corps de PATCH : champs à modifier seulement (RFC 7396). */
+    public static final String APPLICATION_MERGE_PATCH_JSON = "application/merge-patch+json";
+    /** Tentatives d'un PATCH sans If-Match avant d'abandonner face aux écritures concurrentes. */
+    private static final int MAX_PATCH_ATTEMPTS = 3;
+    /** Version qu'aucune personne ne peut avoir : If-Match faible ou inconnu. */
+    private static final int NO_VERSION = -1;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectMapper CBOR_MAPPER = new ObjectMapper(new CBORFactory());
+    /** Réponses réutilisables par le client, à revalider (If-None-Match) avant chaque usage. */
+    private static final CacheControl REVALIDATE = CacheControl.valueOf("no-cache");
+
+    private final PersonService personService;
+    private final DatabaseHealthMonitor healthMonitor;
+    private final AsyncDispatcher dispatcher;
+    private final NameIndex nameIndex;
+    private final AgeStatistics ageStatistics;
+    private final ModificationCounter modifications;
+    private final ChangeStream changeStream;
+    private final WriteBehindQueue writeBehind;
 
     /**
-     * Constructeur : Initialise le service et la table BD.
+     * Constructeur : ressource singleton enregistrée par RestApplication.
+     * @param personService Le service partagé (la table est déjà créée au démarrage).
+     * @param healthMonitor L'état de la base, vérifié en tâche de fond.
+     * @param dispatcher L'exécuteur des accès base, hors des threads du conteneur.
+     * @param nameIndex L'index des noms pour l'autocomplétion, ou null s'il est désactivé.
+     * @param ageStatistics Les statistiques d'âge tenues à jour, ou null si elles sont désactivées.
+     * @param modifications Le compteur de modifications de la table (ETag des listes).
+     * @param changeStream La diffusion SSE des modifications.
+     * @param writeBehind L'écriture différée des ajouts (réponse 202), ou null pour des ajouts synchrones.
      */
-    public RestRouter() {
-        personService = new PersonServiceImpl();
-        personService.createTableIfNotExists();
+    public RestRouter(PersonService personService, DatabaseHealthMonitor healthMonitor,
+                      AsyncDispatcher dispatcher, NameIndex nameIndex, AgeStatistics ageStatistics,
+                      ModificationCounter modifications, ChangeStream changeStream,
+                      WriteBehindQueue writeBehind) {
+        this.personService = personService;
+        this.healthMonitor = healthMonitor;
+        this.dispatcher = dispatcher;
+        this.nameIndex = nameIndex;
+        this.ageStatistics = ageStatistics;
+        this.modifications = modifications;
+        this.changeStream = changeStream;
+        this.writeBehind = writeBehind;
     }
 
     // GET health check
@@ -42,51 +126,256 @@ public class RestRouter {
         response.put("service", "Person API");
         response.put("version", "1.0");
         
-        // Tester la connexion à la base de données
-        try {
-            boolean dbConnected = ConnexionDB.testConnexion();
-            response.put("database", dbConnected ? "CONNECTED" : "DISCONNECTED");
-        } catch (Exception e) {
-            response.put("database", "ERROR: " + e.getMessage());
-        }
+        // Dernier état connu de la base (vérifié en tâche de fond, sans ouvrir de connexion)
+        response.put("database", healthMonitor.getStatus().isUp() ? "CONNECTED" : "DISCONNECTED");
         
         return Response.ok(response).build();
     }
 
-    // GET all persons
+    // GET all persons : flux JSON complet, ou page si "limit" est fourni
     @GET
     @Path("/all")
-    @Produces(MediaType.APPLICATION_JSON)
-    public Response getAllPersons() {
-        Person[] persons = personService.getAllPersons();
-        if (persons == null) {
-            persons = new Person[0];
+    @Produces({ MediaType.APPLICATION_JSON, APPLICATION_CBOR + ";qs=0.9" })
+    public void getAllPersons(@QueryParam("afterId") @DefaultValue("0") int afterId,
+                              @QueryParam("limit") Integer limit,
+                              @Context UriInfo uriInfo,
+                              @Context Request request,
+                              @Context HttpHeaders headers,
+                              @Suspended AsyncResponse asyncResponse) {
+        if (limit != null && (limit <= 0 || limit > MAX_PAGE_SIZE)) {
+            asyncResponse.resume(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("limit doit être compris entre 1 et " + MAX_PAGE_SIZE).build());
+            return;
+        }
+        // Table inchangée depuis la dernière réponse : 304 sans lecture en base
+        EntityTag tag = collectionTag();
+        Response.ResponseBuilder notModified = evaluatePreconditions(request, tag);
+        if (notModified != null) {
+            asyncResponse.resume(revalidate(notModified, tag).build());
+            return;
+        }
+        if (limit == null) {
+            // Le flux est écrit par le thread de l'exécuteur, au fil de la lecture
+            boolean cbor = prefersCbor(headers);
+            dispatcher.submit(asyncResponse, () -> revalidate(Response.ok(streamPersons(afterId, cbor)), tag)
+                    .type(cbor ? APPLICATION_CBOR_TYPE : MediaType.APPLICATION_JSON_TYPE).build());
+            return;
+        }
+
+        // L'URI est lue sur le thread de la requête, avant de la suspendre
+        URI requestUri = uriInfo.getRequestUri();
+        dispatcher.submit(asyncResponse,
+                () -> page(personService.getPersons(afterId, limit), limit, requestUri, tag));
+    }
+
+    // GET plusieurs personnes par ID en une requête : /persons?ids=1,2,3 (les IDs inconnus sont ignorés)
+    @GET
+    @Produces({ MediaType.APPLICATION_JSON, APPLICATION_CBOR + ";qs=0.9" })
+    public void getPersonsByIds(@QueryParam("ids") String ids, @Context Request request,
+                                @Suspended AsyncResponse asyncResponse) {
+        int[] parsed = parseIds(ids);
+        if (parsed == null) {
+            asyncResponse.resume(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("ids doit lister entre 1 et " + MAX_IDS + " IDs positifs séparés par des virgules").build());
+            return;
         }
-        return Response.ok(persons).build();
+        // Table inchangée depuis la dernière réponse : 304 sans lecture en base
+        EntityTag tag = collectionTag();
+        Response.ResponseBuilder notModified = evaluatePreconditions(request, tag);
+        if (notModified != null) {
+            asyncResponse.resume(revalidate(notModified, tag).build());
+            return;
+        }
+        dispatcher.submit(asyncResponse, () -> revalidate(Response.ok(personService.getPersonsByIds(parsed)), tag).build());
+    }
+
+    // GET flux SSE des modifications (created, updated, deleted), reprise par Last-Event-ID
+    @GET
+    @Path("/changes")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void changes(@HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) String lastEventId,
+                        @Context SseEventSink sink, @Context Sse sse) {
+        Long from = null;
+        if (lastEventId != null) {
+            try {
+                from = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                // Numéro inconnu : le client recevra un événement reset
+                from = -1L;
+            }
+        }
+        changeStream.subscribe(sink, sse, from);
     }
 
     // GET person by ID
     @GET
     @Path("/{id}")
-    @Produces(MediaType.APPLICATION_JSON)
-    public Response getPersonById(@PathParam("id") int id) {
-        Person person = personService.getPerson(id);
-        if (person == null) {
-            return Response.status(Response.Status.NOT_FOUND).entity("Personne non trouvée").build();
-        }
-        return Response.ok(person).build();
+    @Produces({ MediaType.APPLICATION_JSON, APPLICATION_CBOR + ";qs=0.9" })
+    public void getPersonById(@PathParam("id") int id, @Context Request request,
+                              @Suspended AsyncResponse asyncResponse) {
+        dispatcher.submit(asyncResponse, () -> {
+            Person person = personService.getPerson(id);
+            if (person == null) {
+                return Response.status(Response.Status.NOT_FOUND).entity("Personne non trouvée").build();
+            }
+            // Contenu inchangé : 304 sans sérialisation ni corps
+            EntityTag tag = personTag(person);
+            Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+            if (notModified != null) {
+                return revalidate(notModified, tag).build();
+            }
+            return revalidate(Response.ok(person), tag).build();
+        });
     }
 
     // GET person by name
     @GET
     @Path("/search/{name}")
+    @Produces({ MediaType.APPLICATION_JSON, APPLICATION_CBOR + ";qs=0.9" })
+    public void getPersonByName(@PathParam("name") String name, @Suspended AsyncResponse asyncResponse) {
+        dispatcher.submit(asyncResponse, () -> {
+            Person person = personService.getPersonByName(name);
+            if (person == null) {
+                return Response.status(Response.Status.NOT_FOUND).entity("Personne non trouvée").build();
+            }
+            return Response.ok(person).build();
+        });
+    }
+
+    // GET recherche par nom, insensible à la casse : exacte ou par préfixe, toutes les correspondances par pages
+    @GET
+    @Path("/search")
+    @Produces({ MediaType.APPLICATION_JSON, APPLICATION_CBOR + ";qs=0.9" })
+    public void searchPersons(@QueryParam("q") String query,
+                              @QueryParam("mode") @DefaultValue("prefix") String mode,
+                              @QueryParam("afterId") @DefaultValue("0") int afterId,
+                              @QueryParam("limit") @DefaultValue("100") int limit,
+                              @Context UriInfo uriInfo,
+                              @Context Request request,
+                              @Suspended AsyncResponse asyncResponse) {
+        if (query == null || query.isEmpty()) {
+            asyncResponse.resume(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Paramètre q obligatoire").build());
+            return;
+        }
+        if (!"prefix".equals(mode) && !"exact".equals(mode)) {
+            asyncResponse.resume(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("mode doit valoir prefix ou exact").build());
+            return;
+        }
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            asyncResponse.resume(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("limit doit être compris entre 1 et " + MAX_PAGE_SIZE).build());
+            return;
+        }
+
+        EntityTag tag = collectionTag();
+        Response.ResponseBuilder notModified = evaluatePreconditions(request, tag);
+        if (notModified != null) {
+            asyncResponse.resume(revalidate(notModified, tag).build());
+            return;
+        }
+        boolean prefix = "prefix".equals(mode);
+        URI requestUri = uriInfo.getRequestUri();
+        dispatcher.submit(asyncResponse,
+                () -> page(personService.searchPersons(query, prefix, afterId, limit), limit, requestUri, tag));
+    }
+
+    // GET personnes par tranche d'âge (bornes incluses), par pages
+    @GET
+    @Path("/age")
+    @Produces({ MediaType.APPLICATION_JSON, APPLICATION_CBOR + ";qs=0.9" })
+    public void getPersonsByAge(@QueryParam("min") @DefaultValue("0") int minAge,
+                                @QueryParam("max") @DefaultValue("2147483647") int maxAge,
+                                @QueryParam("afterId") @DefaultValue("0") int afterId,
+                                @QueryParam("limit") @DefaultValue("100") int limit,
+                                @Context UriInfo uriInfo,
+                                @Context Request request,
+                                @Suspended AsyncResponse asyncResponse) {
+        if (minAge > maxAge) {
+            asyncResponse.resume(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("min doit être inférieur ou égal à max").build());
+            return;
+        }
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            asyncResponse.resume(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("limit doit être compris entre 1 et " + MAX_PAGE_SIZE).build());
+            return;
+        }
+
+        EntityTag tag = collectionTag();
+        Response.ResponseBuilder notModified = evaluatePreconditions(request, tag);
+        if (notModified != null) {
+            asyncResponse.resume(revalidate(notModified, tag).build());
+            return;
+        }
+        URI requestUri = uriInfo.getRequestUri();
+        dispatcher.submit(asyncResponse,
+                () -> page(personService.getPersonsByAge(minAge, maxAge, afterId, limit), limit, requestUri, tag));
+    }
+
+    // GET statistiques d'âge (nombre, min, max, moyenne, histogramme), tenues à jour en mémoire
+    @GET
+    @Path("/stats")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getPersonByName(@PathParam("name") String name) {
-        Person person = personService.getPersonByName(name);
-        if (person == null) {
-            return Response.status(Response.Status.NOT_FOUND).entity("Personne non trouvée").build();
+    public void stats(@Context Request request, @Suspended AsyncResponse asyncResponse) {
+        // Statistiques tenues en mémoire par les écritures locales : toujours à jour de leur version
+        EntityTag tag = ageStatistics != null ? new EntityTag(modifications.version(), true) : collectionTag();
+        Response.ResponseBuilder notModified = evaluatePreconditions(request, tag);
+        if (notModified != null) {
+            asyncResponse.resume(revalidate(notModified, tag).build());
+            return;
+        }
+        if (ageStatistics != null) {
+            asyncResponse.resume(revalidate(Response.ok(ageStatistics.snapshot()), tag).build());
+            return;
+        }
+        // Statistiques désactivées : calculées en parcourant la table
+        dispatcher.submit(asyncResponse, () -> {
+            AgeStatistics scan = new AgeStatistics(AgeStatistics.DEFAULT_BUCKET_WIDTH);
+            try {
+                scan.load(personService);
+            } catch (IOException e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("Échec calcul des statistiques").build();
+            }
+            return revalidate(Response.ok(scan.snapshot()), tag).build();
+        });
+    }
+
+    // GET autocomplétion : noms distincts commençant par le préfixe, servis depuis l'index en mémoire
+    @GET
+    @Path("/autocomplete")
+    @Produces(MediaType.APPLICATION_JSON)
+    public void autocomplete(@QueryParam("prefix") @DefaultValue("") String prefix,
+                             @QueryParam("limit") @DefaultValue("10") int limit,
+                             @Suspended AsyncResponse asyncResponse) {
+        if (limit <= 0 || limit > MAX_SUGGESTIONS) {
+            asyncResponse.resume(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("limit doit être compris entre 1 et " + MAX_SUGGESTIONS).build());
+            return;
+        }
+        if (nameIndex != null) {
+            asyncResponse.resume(Response.ok(nameIndex.complete(prefix, limit)).build());
+            return;
         }
-        return Response.ok(person).build();
+        // Index désactivé : recherche par préfixe en base
+        dispatcher.submit(asyncResponse, () -> {
+            Set<String> names = new LinkedHashSet<>();
+            int afterId = 0;
+            Person[] persons;
+            do {
+                persons = personService.searchPersons(prefix, true, afterId, MAX_PAGE_SIZE);
+                for (Person person : persons) {
+                    if (names.size() < limit) {
+                        names.add(person.getName());
+                    }
+                }
+                afterId = persons.length > 0 ? persons[persons.length - 1].getId() : afterId;
+            } while (names.size() < limit && persons.length == MAX_PAGE_SIZE);
+            String[] sorted = names.toArray(new String[0]);
+            Arrays.sort(sorted, String.CASE_INSENSITIVE_ORDER);
+            return Response.ok(sorted).build();
+        });
     }
 
     // POST add person
@@ -94,44 +383,391 @@ public class RestRouter {
     @Path("/add")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response addPerson(Person person) {
+    public void addPerson(Person person, @Suspended AsyncResponse asyncResponse) {
         if (person == null || person.getName() == null || person.getAge() <= 0) {
-            return Response.status(Response.Status.BAD_REQUEST).entity("Données invalides").build();
+            asyncResponse.resume(Response.status(Response.Status.BAD_REQUEST).entity("Données invalides").build());
+            return;
         }
-        boolean added = personService.addPerson(person);
-        if (added) {
-            return Response.status(Response.Status.CREATED).entity(person).build();
+        if (writeBehind != null) {
+            // Ingestion différée : acquittée sans attendre la base, l'ID n'est pas encore connu
+            if (person.getName().length() > WriteBehindQueue.MAX_NAME_LENGTH) {
+                asyncResponse.resume(Response.status(Response.Status.BAD_REQUEST)
+                        .entity("Nom limité à " + WriteBehindQueue.MAX_NAME_LENGTH + " caractères").build());
+            } else if (writeBehind.offer(person)) {
+                asyncResponse.resume(Response.accepted(person).build());
+            } else {
+                asyncResponse.resume(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                        .header("Retry-After", 1)
+                        .type(MediaType.TEXT_PLAIN_TYPE.withCharset("UTF-8"))
+                        .entity("File d'ingestion pleine, réessayez plus tard").build());
+            }
+            return;
         }
-        return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("Échec ajout").build();
+        dispatcher.submitWrite(asyncResponse, () -> {
+            boolean added = personService.addPerson(person);
+            if (added) {
+                return Response.status(Response.Status.CREATED).entity(person).build();
+            }
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("Échec ajout").build();
+        });
     }
 
-    // PUT update person
+    // PUT update person : conditionnelle si If-Match porte l'ETag lu (412 si la personne a changé entre-temps)
     @PUT
     @Path("/update")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response updatePerson(Person person) {
+    public void updatePerson(Person person, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+                             @Suspended AsyncResponse asyncResponse) {
         if (person == null || person.getId() <= 0) {
-            return Response.status(Response.Status.BAD_REQUEST).entity("ID invalide").build();
+            asyncResponse.resume(Response.status(Response.Status.BAD_REQUEST).entity("ID invalide").build());
+            return;
         }
-        boolean updated = personService.updatePerson(person);
-        if (updated) {
-            return Response.ok(person).build();
+        Integer expected;
+        try {
+            expected = expectedVersion(ifMatch);
+        } catch (IllegalArgumentException e) {
+            asyncResponse.resume(Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build());
+            return;
         }
-        return Response.status(Response.Status.NOT_FOUND).entity("Personne non trouvée").build();
+        dispatcher.submitWrite(asyncResponse, () -> {
+            if (expected == null) {
+                boolean updated = personService.updatePerson(person);
+                if (updated) {
+                    return Response.ok(person).tag(personTag(person)).build();
+                }
+                return Response.status(Response.Status.NOT_FOUND).entity("Personne non trouvée").build();
+            }
+            return updated(personService.updatePerson(person, expected), person, expected);
+        });
+    }
+
+    // PATCH mise à jour partielle (name et/ou age), sans relecture complète côté client
+    @PATCH
+    @Path("/{id}")
+    @Consumes({ MediaType.APPLICATION_JSON, APPLICATION_MERGE_PATCH_JSON })
+    @Produces(MediaType.APPLICATION_JSON)
+    public void patchPerson(@PathParam("id") int id, Map<String, Object> changes,
+                            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+                            @Suspended AsyncResponse asyncResponse) {
+        Integer expected;
+        try {
+            validatePatch(changes);
+            expected = expectedVersion(ifMatch);
+        } catch (IllegalArgumentException e) {
+            asyncResponse.resume(Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build());
+            return;
+        }
+        dispatcher.submitWrite(asyncResponse, () -> {
+            // Lecture puis écriture conditionnée par la version lue : sans If-Match, un conflit
+            // est retenté sur la nouvelle version au lieu d'écraser l'écriture concurrente.
+            // La lecture va au primaire : une réplique en retard ne donnerait que des conflits
+            ReadRouting.setPrimaryRequired(true);
+            for (int attempt = 0; attempt < MAX_PATCH_ATTEMPTS; attempt++) {
+                Person current = personService.getPerson(id);
+                if (current == null) {
+                    return Response.status(Response.Status.NOT_FOUND).entity("Personne non trouvée").build();
+                }
+                if (expected != null && expected != current.getVersion()) {
+                    return preconditionFailed(expected);
+                }
+                if (changes.containsKey("name")) {
+                    current.setName((String) changes.get("name"));
+                }
+                if (changes.containsKey("age")) {
+                    current.setAge(((Number) changes.get("age")).intValue());
+                }
+                UpdateOutcome outcome = personService.updatePerson(current, current.getVersion());
+                if (outcome != UpdateOutcome.CONFLICT || expected != null) {
+                    return updated(outcome, current, current.getVersion());
+                }
+            }
+            return Response.status(Response.Status.CONFLICT)
+                    .entity("Modifications concurrentes trop nombreuses, réessayer").build();
+        });
     }
 
     // DELETE person by ID
     @DELETE
     @Path("/delete/{id}")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response deletePerson(@PathParam("id") int id) {
-        boolean deleted = personService.deletePerson(id);
-        if (deleted) {
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "Personne supprimée");
-            return Response.ok(response).build();
-        }
-        return Response.status(Response.Status.NOT_FOUND).entity("Personne non trouvée").build();
+    public void deletePerson(@PathParam("id") int id, @Suspended AsyncResponse asyncResponse) {
+        dispatcher.submitWrite(asyncResponse, () -> {
+            boolean deleted = personService.deletePerson(id);
+            if (deleted) {
+                Map<String, String> response = new HashMap<>();
+                response.put("message", "Personne supprimée");
+                return Response.ok(response).build();
+            }
+            return Response.status(Response.Status.NOT_FOUND).entity("Personne non trouvée").build();
+        });
+    }
+
+    // POST add persons (lots)
+    @POST
+    @Path("/bulk")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public void addPersons(Person[] persons, @Suspended AsyncResponse asyncResponse) {
+        if (persons == null || persons.length > MAX_BULK_SIZE) {
+            asyncResponse.resume(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Entre 0 et " + MAX_BULK_SIZE + " personnes attendues").build());
+            return;
+        }
+        dispatcher.submitWrite(asyncResponse, () -> bulk(persons,
+                p -> p != null && p.getName() != null && p.getAge() > 0,
+                personService::addPersons, Person[]::new));
+    }
+
+    // PUT update persons (lots)
+    @PUT
+    @Path("/bulk")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public void updatePersons(Person[] persons, @Suspended AsyncResponse asyncResponse) {
+        if (persons == null || persons.length > MAX_BULK_SIZE) {
+            asyncResponse.resume(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Entre 0 et " + MAX_BULK_SIZE + " personnes attendues").build());
+            return;
+        }
+        dispatcher.submitWrite(asyncResponse, () -> bulk(persons,
+                p -> p != null && p.getId() > 0 && p.getName() != null && p.getAge() > 0,
+                personService::updatePersons, Person[]::new));
+    }
+
+    // DELETE persons by IDs (lots)
+    @DELETE
+    @Path("/bulk")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public void deletePersons(Integer[] ids, @Suspended AsyncResponse asyncResponse) {
+        if (ids == null || ids.length > MAX_BULK_SIZE) {
+            asyncResponse.resume(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Entre 0 et " + MAX_BULK_SIZE + " IDs attendus").build());
+            return;
+        }
+        dispatcher.submitWrite(asyncResponse, () -> bulk(ids, id -> id != null && id > 0, valid -> {
+            int[] primitive = new int[valid.length];
+            for (int i = 0; i < valid.length; i++) {
+                primitive[i] = valid[i];
+            }
+            return personService.deletePersons(primitive);
+        }, Integer[]::new));
+    }
+
+    /**
+     * Réponse à revalider par le client : ETag, Cache-Control et Vary (le format
+     * JSON ou CBOR dépend de Accept).
+     */
+    private static Response.ResponseBuilder revalidate(Response.ResponseBuilder response, EntityTag tag) {
+        return response.tag(tag).cacheControl(REVALIDATE).header(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    }
+
+    /**
+     * IDs distincts de /persons?ids=, dans l'ordre de la requête.
+     * @return Les IDs, ou null si la liste est vide, trop longue ou contient un ID invalide.
+     */
+    private static int[] parseIds(String ids) {
+        if (ids == null) {
+            return null;
+        }
+        Set<Integer> distinct = new LinkedHashSet<>();
+        for (String token : ids.split(",")) {
+            try {
+                int id = Integer.parseInt(token.trim());
+                if (id <= 0) {
+                    return null;
+                }
+                distinct.add(id);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        if (distinct.isEmpty() || distinct.size() > MAX_IDS) {
+            return null;
+        }
+        int[] parsed = new int[distinct.size()];
+        int i = 0;
+        for (int id : distinct) {
+            parsed[i++] = id;
+        }
+        return parsed;
+    }
+
+    /**
+     * ETag faible des listes : la version de la table, lue avant la requête SQL.
+     * Aucun si la liste peut être lue sur une réplique : la version locale avance
+     * dès l'écriture sur le primaire, et une liste lue sur une réplique en retard
+     * serait ensuite validée par des 304 tant que la table ne change plus.
+     */
+    private EntityTag collectionTag() {
+        return ReadRouting.isReplicaRead() ? null : new EntityTag(modifications.version(), true);
+    }
+
+    /**
+     * @return La réponse 304 ou 412 si les préconditions l'imposent, sinon null (et toujours sans ETag).
+     */
+    private static Response.ResponseBuilder evaluatePreconditions(Request request, EntityTag tag) {
+        return tag == null ? null : request.evaluatePreconditions(tag);
+    }
+
+    /**
+     * ETag fort d'une personne : sa version, incrémentée à chaque mise à jour.
+     * RepresentationTagFilter y ajoute le format et l'encodage de la réponse.
+     */
+    private static EntityTag personTag(Person person) {
+        return new EntityTag(Integer.toString(person.getVersion()));
+    }
+
+    /**
+     * Version attendue d'après l'en-tête If-Match.
+     * @return null si l'en-tête est absent ou vaut "*" (mise à jour inconditionnelle),
+     *         NO_VERSION si l'ETag ne peut correspondre à aucune version (faible ou inconnu).
+     * @throws IllegalArgumentException si l'en-tête est mal formé ou liste plusieurs ETags.
+     */
+    private static Integer expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        if (ifMatch.indexOf(',') >= 0) {
+            throw new IllegalArgumentException("If-Match : un seul ETag attendu");
+        }
+        EntityTag tag = EntityTag.valueOf(ifMatch.trim());
+        // Comparaison forte (RFC 7232) : un ETag faible ne correspond jamais
+        if (tag.isWeak()) {
+            return NO_VERSION;
+        }
+        try {
+            return Math.max(NO_VERSION, Integer.parseInt(tag.getValue()));
+        } catch (NumberFormatException e) {
+            return NO_VERSION;
+        }
+    }
+
+    /**
+     * Vérifie un corps de PATCH : seuls name (non null) et age (entier positif) sont modifiables.
+     * @throws IllegalArgumentException si le corps est invalide.
+     */
+    private static void validatePatch(Map<String, Object> changes) {
+        if (changes == null || changes.isEmpty()) {
+            throw new IllegalArgumentException("Aucun champ à modifier");
+        }
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            Object value = change.getValue();
+            switch (change.getKey()) {
+                case "name":
+                    if (!(value instanceof String)) {
+                        throw new IllegalArgumentException("name doit être une chaîne non nulle");
+                    }
+                    break;
+                case "age":
+                    if (!(value instanceof Integer) || (Integer) value <= 0) {
+                        throw new IllegalArgumentException("age doit être un entier positif");
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Champ non modifiable : " + change.getKey());
+            }
+        }
+    }
+
+    /**
+     * Réponse d'une mise à jour conditionnelle.
+     */
+    private static Response updated(UpdateOutcome outcome, Person person, int expectedVersion) {
+        switch (outcome) {
+            case UPDATED:
+                return Response.ok(person).tag(personTag(person)).build();
+            case NOT_FOUND:
+                return Response.status(Response.Status.NOT_FOUND).entity("Personne non trouvée").build();
+            case CONFLICT:
+                return preconditionFailed(expectedVersion);
+            default:
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("Échec mise à jour").build();
+        }
+    }
+
+    private static Response preconditionFailed(int expectedVersion) {
+        return Response.status(Response.Status.PRECONDITION_FAILED)
+                .entity(expectedVersion == NO_VERSION
+                        ? "If-Match ne correspond à aucune version de la personne"
+                        : "La personne a été modifiée depuis la version " + expectedVersion).build();
+    }
+
+    /**
+     * Réponse paginée par clé : si la page est pleine, le curseur suivant (dernier ID
+     * renvoyé) est donné dans l'en-tête X-Next-Cursor et un lien rel="next".
+     */
+    private static Response page(Person[] persons, int limit, URI requestUri, EntityTag tag) {
+        Response.ResponseBuilder response = revalidate(Response.ok(persons), tag);
+        if (persons.length == limit) {
+            int nextCursor = persons[persons.length - 1].getId();
+            URI next = UriBuilder.fromUri(requestUri)
+                    .replaceQueryParam("afterId", nextCursor)
+                    .replaceQueryParam("limit", limit)
+                    .build();
+            response.header(NEXT_CURSOR_HEADER, nextCursor).link(next, "next");
+        }
+        return response.build();
+    }
+
+    /**
+     * Valide chaque élément, envoie les éléments valides au service en un seul appel
+     * et renvoie un résultat par élément, dans l'ordre de la requête.
+     */
+    private <T> Response bulk(T[] items, Predicate<T> isValid, Function<T[], BulkResult[]> operation,
+                              IntFunction<T[]> newArray) {
+        BulkResult[] results = new BulkResult[items.length];
+        List<Integer> positions = new ArrayList<>(items.length);
+        List<T> valid = new ArrayList<>(items.length);
+        for (int i = 0; i < items.length; i++) {
+            if (isValid.test(items[i])) {
+                positions.add(i);
+                valid.add(items[i]);
+            } else {
+                results[i] = new BulkResult(0, Response.Status.BAD_REQUEST.getStatusCode(), "Données invalides");
+            }
+        }
+        if (!valid.isEmpty()) {
+            BulkResult[] done = operation.apply(valid.toArray(newArray.apply(valid.size())));
+            for (int k = 0; k < done.length; k++) {
+                results[positions.get(k)] = done[k];
+            }
+        }
+        for (int i = 0; i < results.length; i++) {
+            results[i].setIndex(i);
+        }
+        return Response.ok(results).build();
+    }
+
+    /**
+     * Le flux de /persons/all n'est pas écrit par un MessageBodyWriter : le format
+     * est choisi ici selon Accept (par ordre de préférence), JSON par défaut.
+     */
+    private static boolean prefersCbor(HttpHeaders headers) {
+        for (MediaType accepted : headers.getAcceptableMediaTypes()) {
+            if (accepted.isWildcardType() || accepted.isCompatible(MediaType.APPLICATION_JSON_TYPE)) {
+                return false;
+            }
+            if (accepted.isCompatible(APPLICATION_CBOR_TYPE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Écrit les personnes en JSON (ou CBOR) au fil de la lecture : la mémoire utilisée
+     * ne dépend pas de la taille de la table.
+     */
+    private StreamingOutput streamPersons(int afterId, boolean cbor) {
+        ObjectMapper mapper = cbor ? CBOR_MAPPER : MAPPER;
+        return output -> {
+            try (JsonGenerator generator = mapper.getFactory().createGenerator(output)) {
+                generator.writeStartArray();
+                personService.forEachPerson(afterId, generator::writeObject);
+                generator.writeEndArray();
+            }
+        };
     }
 }
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.info.service;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.info.model.Person;
+
+/**
+ * Statistiques d'âge tenues à jour en mémoire, sans parcourir la table.
+ *
+ * Chargées au démarrage puis mises à jour comme PersonChangeListener : chaque
+ * écriture ajuste le nombre, la somme des âges et les compteurs par âge et par
+ * tranche. Un instantané ne coûte que le nombre de tranches non vides, quel que
+ * soit le nombre de personnes. Seules les écritures passant par cette instance
+ * sont vues.
+ */
+public class AgeStatistics implements PersonChangeListener {
+
+    /** Largeur par défaut (en années) des tranches de l'histogramme. */
+    public static final int DEFAULT_BUCKET_WIDTH = 10;
+
+    private final int bucketWidth;
+
+    // Protégés par this : une écriture modifie plusieurs compteurs à la fois.
+    // Clés int sans boxing ni nœud par entrée ; les âges (< 128) sont des Integer partagés
+    private final StripedIntMap<Integer> agesById = new StripedIntMap<>();
+    private final TreeMap<Integer, Long> countsByAge = new TreeMap<>();
+    private final TreeMap<Integer, Long> countsByBucket = new TreeMap<>();
+    private long sum;
+
+    /**
+     * @param bucketWidth Largeur (en années) des tranches de l'histogramme.
+     */
+    public AgeStatistics(int bucketWidth) {
+        if (bucketWidth <= 0) {
+            throw new IllegalArgumentException("La largeur des tranches doit être positive");
+        }
+        this.bucketWidth = bucketWidth;
+    }
+
+    /**
+     * Charge toutes les personnes existantes.
+     * @param service Le service à parcourir.
+     * @throws IOException si la lecture en base échoue.
+     */
+    public void load(PersonService service) throws IOException {
+        service.forEachPerson(0, this::record);
+    }
+
+    @Override
+    public void personCreated(Person p) {
+        record(p);
+    }
+
+    @Override
+    public void personUpdated(Person p) {
+        record(p);
+    }
+
+    @Override
+    public synchronized void personDeleted(int id) {
+        Integer previous = agesById.update(id, current -> null);
+        if (previous != null) {
+            remove(previous);
+        }
+    }
+
+    private synchronized void record(Person p) {
+        Integer age = p.getAge();
+        Integer previous = agesById.update(p.getId(), current -> age);
+        if (previous != null) {
+            remove(previous);
+        }
+        countsByAge.merge(p.getAge(), 1L, Long::sum);
+        countsByBucket.merge(bucket(p.getAge()), 1L, Long::sum);
+        sum += p.getAge();
+    }
+
+    private void remove(int age) {
+        decrement(countsByAge, age);
+        decrement(countsByBucket, bucket(age));
+        sum -= age;
+    }
+
+    private static void decrement(TreeMap<Integer, Long> counts, int key) {
+        // Une tranche vide disparaît : min, max et histogramme ne voient que des âges présents
+        counts.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private int bucket(int age) {
+        return Math.floorDiv(age, bucketWidth) * bucketWidth;
+    }
+
+    /**
+     * @return Un instantané cohérent des statistiques.
+     */
+    public synchronized AgeStats snapshot() {
+        AgeStats stats = new AgeStats();
+        int count = agesById.size();
+        stats.setCount(count);
+        stats.setBucketWidth(bucketWidth);
+        if (count > 0) {
+            stats.setMinAge(countsByAge.firstKey());
+            stats.setMaxAge(countsByAge.lastKey());
+            stats.setAverageAge((double) sum / count);
+        }
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Long> entry : countsByBucket.entrySet()) {
+            int from = entry.getKey();
+            histogram.put(from + "-" + (from + bucketWidth - 1), entry.getValue());
+        }
+        stats.setHistogram(histogram);
+        return stats;
+    }
+
+    /**
+     * @return Le nombre de personnes comptées.
+     */
+    public synchronized int size() {
+        return agesById.size();
+    }
+}
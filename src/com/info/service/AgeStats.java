@@ -0,0 +1,85 @@
+package com.info.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Instantané des statistiques d'âge des personnes (sérialisable en JSON).
+ */
+public class AgeStats {
+
+    private long count;
+    private Integer minAge;
+    private Integer maxAge;
+    private Double averageAge;
+    private int bucketWidth;
+    private Map<String, Long> histogram = new LinkedHashMap<>();
+
+    public AgeStats() {}
+
+    /**
+     * @return Le nombre de personnes.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    /**
+     * @return L'âge minimum, ou null s'il n'y a personne.
+     */
+    public Integer getMinAge() {
+        return minAge;
+    }
+
+    public void setMinAge(Integer minAge) {
+        this.minAge = minAge;
+    }
+
+    /**
+     * @return L'âge maximum, ou null s'il n'y a personne.
+     */
+    public Integer getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(Integer maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * @return L'âge moyen, ou null s'il n'y a personne.
+     */
+    public Double getAverageAge() {
+        return averageAge;
+    }
+
+    public void setAverageAge(Double averageAge) {
+        this.averageAge = averageAge;
+    }
+
+    /**
+     * @return La largeur (en années) des tranches de l'histogramme.
+     */
+    public int getBucketWidth() {
+        return bucketWidth;
+    }
+
+    public void setBucketWidth(int bucketWidth) {
+        this.bucketWidth = bucketWidth;
+    }
+
+    /**
+     * @return Le nombre de personnes par tranche d'âge non vide ("30-39"), par âge croissant.
+     */
+    public Map<String, Long> getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(Map<String, Long> histogram) {
+        this.histogram = histogram;
+    }
+}
@@ -0,0 +1,111 @@
+package com.info.service;
+
+/**
+ * Instantané des compteurs du cache de personnes (sérialisable en JSON).
+ */
+public class CacheStats {
+
+    private boolean enabled;
+    private int size;
+    private int maxSize;
+    private long ttlMs;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    public CacheStats() {}
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return Le nombre de personnes actuellement en cache.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    public void setTtlMs(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    /**
+     * @return Le nombre d'entrées évincées faute de place (LRU).
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(long evictions) {
+        this.evictions = evictions;
+    }
+
+    /**
+     * @return Le nombre d'entrées expirées (TTL dépassé).
+     */
+    public long getExpirations() {
+        return expirations;
+    }
+
+    public void setExpirations(long expirations) {
+        this.expirations = expirations;
+    }
+
+    /**
+     * @return Le nombre d'invalidations dues aux écritures.
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public void setInvalidations(long invalidations) {
+        this.invalidations = invalidations;
+    }
+
+    /**
+     * @return Le taux de succès (0 à 1).
+     */
+    public double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,445 @@
+package com.info.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.info.db.ReadRouting;
+import com.info.model.BulkResult;
+import com.info.model.Person;
+
+/**
+ * Cache en lecture (read-through) devant un PersonService.
+ *
+ * Les personnes sont indexées par ID dans des segments LRU bornés, chacun protégé
+ * par son propre verrou, avec un index secondaire nom -> ID alimenté par les
+ * seules lectures par nom (entre homonymes, le plus petit ID). Les écritures
+ * invalident les entrées concernées après leur exécution. Les personnes sont
+ * copiées à l'entrée et à la sortie du cache pour qu'un appelant ne puisse pas
+ * modifier une entrée partagée.
+ *
+ * Avec des répliques en lecture, une personne modifiée depuis moins de replicaLagMs
+ * est relue sur le primaire en cas d'absence du cache : une réplique en retard
+ * renverrait l'ancienne ligne, qui resterait ensuite en cache jusqu'à son expiration.
+ */
+public class CachingPersonService implements PersonService {
+
+    private static final int SEGMENTS = 16;
+
+    private final PersonService delegate;
+    private final int maxSize;
+    private final long ttlMs;
+    private final long replicaLagMs;
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+
+    /**
+     * Incrémenté à chaque invalidation : une lecture commencée avant une écriture
+     * ne remet pas en cache une valeur périmée.
+     */
+    private final AtomicLong invalidationSequence = new AtomicLong();
+
+    /** Instant (ms) de la dernière écriture de chaque personne, pendant replicaLagMs. */
+    private final Map<Integer, Long> recentWrites = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param delegate Le service réel.
+     * @param maxSize Nombre maximum de personnes en cache.
+     * @param ttlMs Durée de vie d'une entrée (ms).
+     */
+    public CachingPersonService(PersonService delegate, int maxSize, long ttlMs) {
+        this(delegate, maxSize, ttlMs, 0);
+    }
+
+    /**
+     * @param delegate Le service réel.
+     * @param maxSize Nombre maximum de personnes en cache.
+     * @param ttlMs Durée de vie d'une entrée (ms).
+     * @param replicaLagMs Retard toléré des répliques (ms) : après une écriture, les
+     *                     lectures de la personne vont au primaire pendant ce délai ; 0 sans répliques.
+     */
+    public CachingPersonService(PersonService delegate, int maxSize, long ttlMs, long replicaLagMs) {
+        if (maxSize <= 0 || ttlMs <= 0 || replicaLagMs < 0) {
+            throw new IllegalArgumentException("Taille et TTL du cache doivent être positifs");
+        }
+        this.delegate = delegate;
+        this.maxSize = maxSize;
+        this.ttlMs = ttlMs;
+        this.replicaLagMs = replicaLagMs;
+        int segmentCapacity = Math.max(1, (maxSize + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    @Override
+    public Person getPerson(int id) {
+        Person cached = lookup(id);
+        if (cached != null) {
+            hits.increment();
+            return copy(cached);
+        }
+        misses.increment();
+        long sequence = invalidationSequence.get();
+        Person person = recentlyWritten(id, System.currentTimeMillis())
+                ? onPrimary(() -> delegate.getPerson(id))
+                : delegate.getPerson(id);
+        if (person != null) {
+            store(person, sequence, false);
+        }
+        return person;
+    }
+
+    @Override
+    public Person[] getPersonsByIds(int[] ids) {
+        Person[] byPosition = new Person[ids.length];
+        int[] missing = new int[ids.length];
+        int missingCount = 0;
+        for (int i = 0; i < ids.length; i++) {
+            Person cached = lookup(ids[i]);
+            if (cached != null) {
+                hits.increment();
+                byPosition[i] = copy(cached);
+            } else {
+                misses.increment();
+                missing[missingCount++] = ids[i];
+            }
+        }
+        if (missingCount > 0) {
+            // Une seule lecture en base pour tous les absents du cache
+            long sequence = invalidationSequence.get();
+            int[] toLoad = Arrays.copyOf(missing, missingCount);
+            boolean primary = false;
+            long now = System.currentTimeMillis();
+            for (int id : toLoad) {
+                primary |= recentlyWritten(id, now);
+            }
+            Person[] found = primary
+                    ? onPrimary(() -> delegate.getPersonsByIds(toLoad))
+                    : delegate.getPersonsByIds(toLoad);
+            Map<Integer, Person> loaded = new HashMap<>(missingCount * 2);
+            for (Person person : found) {
+                store(person, sequence, false);
+                loaded.put(person.getId(), person);
+            }
+            for (int i = 0; i < ids.length; i++) {
+                if (byPosition[i] == null) {
+                    byPosition[i] = loaded.get(ids[i]);
+                }
+            }
+        }
+        List<Person> result = new ArrayList<>(ids.length);
+        for (Person person : byPosition) {
+            if (person != null) {
+                result.add(person);
+            }
+        }
+        return result.toArray(new Person[0]);
+    }
+
+    @Override
+    public Person getPersonByName(String name) {
+        Integer id = name == null ? null : idsByName.get(name);
+        if (id != null) {
+            Person cached = lookup(id);
+            if (cached != null && cached.getName().equals(name)) {
+                hits.increment();
+                return copy(cached);
+            }
+        }
+        misses.increment();
+        long sequence = invalidationSequence.get();
+        Person person = delegate.getPersonByName(name);
+        // Lue peut-être sur une réplique en retard : pas mise en cache si elle vient d'être modifiée
+        if (person != null && (!ReadRouting.isReplicaRead()
+                || !recentlyWritten(person.getId(), System.currentTimeMillis()))) {
+            store(person, sequence, true);
+        }
+        return person;
+    }
+
+    @Override
+    public Person[] searchPersons(String query, boolean prefix, int afterId, int limit) {
+        return delegate.searchPersons(query, prefix, afterId, limit);
+    }
+
+    @Override
+    public Person[] getPersonsByAge(int minAge, int maxAge, int afterId, int limit) {
+        return delegate.getPersonsByAge(minAge, maxAge, afterId, limit);
+    }
+
+    @Override
+    public boolean addPerson(Person p) {
+        boolean added = delegate.addPerson(p);
+        if (added) {
+            // Un homonyme peut changer la réponse de getPersonByName
+            invalidateName(p.getName());
+        }
+        return added;
+    }
+
+    @Override
+    public boolean updatePerson(Person p) {
+        boolean updated = delegate.updatePerson(p);
+        invalidate(p.getId());
+        invalidateName(p.getName());
+        return updated;
+    }
+
+    @Override
+    public UpdateOutcome updatePerson(Person p, int expectedVersion) {
+        UpdateOutcome outcome = delegate.updatePerson(p, expectedVersion);
+        // Même en cas de conflit : la version en cache est périmée, la relecture doit aller en base
+        invalidate(p.getId());
+        invalidateName(p.getName());
+        return outcome;
+    }
+
+    @Override
+    public boolean deletePerson(int id) {
+        boolean deleted = delegate.deletePerson(id);
+        invalidate(id);
+        return deleted;
+    }
+
+    @Override
+    public BulkResult[] addPersons(Person[] persons) {
+        BulkResult[] results = delegate.addPersons(persons);
+        for (Person p : persons) {
+            invalidateName(p.getName());
+        }
+        return results;
+    }
+
+    @Override
+    public BulkResult[] updatePersons(Person[] persons) {
+        BulkResult[] results = delegate.updatePersons(persons);
+        for (Person p : persons) {
+            invalidate(p.getId());
+            invalidateName(p.getName());
+        }
+        return results;
+    }
+
+    @Override
+    public BulkResult[] deletePersons(int[] ids) {
+        BulkResult[] results = delegate.deletePersons(ids);
+        for (int id : ids) {
+            invalidate(id);
+        }
+        return results;
+    }
+
+    @Override
+    public Person[] getAllPersons() {
+        return delegate.getAllPersons();
+    }
+
+    @Override
+    public Person[] getPersons(int afterId, int limit) {
+        return delegate.getPersons(afterId, limit);
+    }
+
+    @Override
+    public void forEachPerson(int afterId, PersonVisitor visitor) throws IOException {
+        delegate.forEachPerson(afterId, visitor);
+    }
+
+    /**
+     * @return Les compteurs du cache.
+     */
+    public CacheStats getStats() {
+        CacheStats stats = new CacheStats();
+        stats.setEnabled(true);
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        stats.setSize(size);
+        stats.setMaxSize(maxSize);
+        stats.setTtlMs(ttlMs);
+        stats.setHits(hits.sum());
+        stats.setMisses(misses.sum());
+        stats.setEvictions(evictions.sum());
+        stats.setExpirations(expirations.sum());
+        stats.setInvalidations(invalidations.sum());
+        return stats;
+    }
+
+    /**
+     * Vide complètement le cache.
+     */
+    public void clear() {
+        invalidationSequence.incrementAndGet();
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+        idsByName.clear();
+    }
+
+    private Person lookup(int id) {
+        return segmentFor(id).get(id, System.currentTimeMillis());
+    }
+
+    /**
+     * @param byName true si la personne est la réponse de getPersonByName : seule
+     *               cette lecture sait qu'elle est le plus petit ID de son nom.
+     */
+    private void store(Person person, long sequence, boolean byName) {
+        segmentFor(person.getId()).put(copy(person), System.currentTimeMillis() + ttlMs, sequence, byName);
+    }
+
+    private void invalidate(int id) {
+        if (replicaLagMs > 0) {
+            long now = System.currentTimeMillis();
+            recentWrites.put(id, now);
+            sweepRecentWrites(now);
+        }
+        invalidationSequence.incrementAndGet();
+        invalidations.increment();
+        Person removed = segmentFor(id).remove(id);
+        if (removed != null) {
+            idsByName.remove(removed.getName(), id);
+        }
+    }
+
+    private void invalidateName(String name) {
+        if (name != null) {
+            invalidationSequence.incrementAndGet();
+            idsByName.remove(name);
+        }
+    }
+
+    private boolean recentlyWritten(int id, long now) {
+        if (replicaLagMs == 0) {
+            return false;
+        }
+        Long writtenAt = recentWrites.get(id);
+        return writtenAt != null && now - writtenAt < replicaLagMs;
+    }
+
+    /**
+     * Oublie les écritures plus anciennes que replicaLagMs, au plus une fois par délai.
+     */
+    private void sweepRecentWrites(long now) {
+        long last = lastSweep.get();
+        if (now - last >= replicaLagMs && lastSweep.compareAndSet(last, now)) {
+            recentWrites.values().removeIf(writtenAt -> now - writtenAt >= replicaLagMs);
+        }
+    }
+
+    /**
+     * Exécute une lecture sur le primaire, puis rétablit le routage de la requête.
+     */
+    private static <T> T onPrimary(Supplier<T> read) {
+        if (ReadRouting.isPrimaryRequired()) {
+            return read.get();
+        }
+        ReadRouting.setPrimaryRequired(true);
+        try {
+            return read.get();
+        } finally {
+            ReadRouting.setPrimaryRequired(false);
+        }
+    }
+
+    private Segment segmentFor(int id) {
+        // Mélange des bits : des IDs consécutifs se répartissent sur tous les segments
+        int h = id * 0x9E3779B9;
+        return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private static Person copy(Person p) {
+        Person copy = new Person(p.getId(), p.getName(), p.getAge());
+        copy.setVersion(p.getVersion());
+        return copy;
+    }
+
+    private static final class Entry {
+        final Person person;
+        final long expiresAt;
+
+        Entry(Person person, long expiresAt) {
+            this.person = person;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Segment LRU : LinkedHashMap en ordre d'accès, évincé au-delà de sa capacité.
+     */
+    private final class Segment {
+        private final LinkedHashMap<Integer, Entry> map;
+
+        Segment(int capacity) {
+            this.map = new LinkedHashMap<Integer, Entry>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        idsByName.remove(eldest.getValue().person.getName(), eldest.getKey());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized Person get(int id, long now) {
+            Entry entry = map.get(id);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt <= now) {
+                map.remove(id);
+                idsByName.remove(entry.person.getName(), id);
+                expirations.increment();
+                return null;
+            }
+            return entry.person;
+        }
+
+        synchronized void put(Person person, long expiresAt, long sequence, boolean byName) {
+            if (invalidationSequence.get() != sequence) {
+                return;
+            }
+            Entry previous = map.put(person.getId(), new Entry(person, expiresAt));
+            if (previous != null && !previous.person.getName().equals(person.getName())) {
+                idsByName.remove(previous.person.getName(), person.getId());
+            }
+            if (byName) {
+                idsByName.put(person.getName(), person.getId());
+            }
+        }
+
+        synchronized Person remove(int id) {
+            Entry entry = map.remove(id);
+            return entry == null ? null : entry.person;
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+
+        synchronized void clear() {
+            map.clear();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.info.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.info.model.Person;
+import com.info.model.PersonChange;
+
+/**
+ * Journal en mémoire des dernières modifications de personnes (tampon circulaire borné).
+ *
+ * Chaque modification reçoit un numéro strictement croissant. Un client qui
+ * connaît le dernier numéro reçu peut reprendre la suite, tant qu'elle est
+ * encore dans le tampon ; sinon il doit recharger la table complète. Les numéros
+ * partent de l'heure de démarrage (ms x 1000) : ceux d'une exécution précédente
+ * sont plus petits et sont reconnus comme trop anciens.
+ */
+public class ChangeFeed implements PersonChangeListener {
+
+    private final PersonChange[] ring;
+    private final long firstEventId;
+    private long lastEventId;
+    private long wakeUps;
+
+    /**
+     * @param capacity Nombre de modifications conservées.
+     */
+    public ChangeFeed(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacité du journal doit être positive");
+        }
+        this.ring = new PersonChange[capacity];
+        this.firstEventId = System.currentTimeMillis() * 1000;
+        this.lastEventId = firstEventId - 1;
+    }
+
+    @Override
+    public void personCreated(Person p) {
+        append(PersonChange.Type.CREATED, p.getId(), copy(p));
+    }
+
+    @Override
+    public void personUpdated(Person p) {
+        append(PersonChange.Type.UPDATED, p.getId(), copy(p));
+    }
+
+    @Override
+    public void personDeleted(int id) {
+        append(PersonChange.Type.DELETED, id, null);
+    }
+
+    /**
+     * @return Le numéro de la dernière modification (point de départ d'un nouveau client).
+     */
+    public synchronized long getLastEventId() {
+        return lastEventId;
+    }
+
+    /**
+     * Modifications suivant un numéro donné, dans l'ordre.
+     * @param afterEventId Dernier numéro reçu par le client.
+     * @param max Nombre maximum de modifications retournées.
+     * @return Les modifications suivantes (vide si aucune), ou null si la suite n'est plus
+     *         (ou n'a jamais été) dans le tampon : le client doit tout recharger.
+     */
+    public synchronized List<PersonChange> since(long afterEventId, int max) {
+        long oldest = Math.max(firstEventId, lastEventId - ring.length + 1);
+        if (afterEventId < oldest - 1 || afterEventId > lastEventId) {
+            return null;
+        }
+        int count = (int) Math.min(max, lastEventId - afterEventId);
+        List<PersonChange> changes = new ArrayList<>(count);
+        for (long id = afterEventId + 1; id <= afterEventId + count; id++) {
+            changes.add(ring[slot(id)]);
+        }
+        return changes;
+    }
+
+    /**
+     * Attend une modification postérieure à un numéro donné, ou un appel à wakeUp.
+     * @param afterEventId Dernier numéro connu.
+     * @param timeoutMs Attente maximale (ms).
+     * @return Le numéro de la dernière modification.
+     * @throws InterruptedException si le thread est interrompu.
+     */
+    public synchronized long await(long afterEventId, long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        long wakeUpsBefore = wakeUps;
+        while (lastEventId <= afterEventId && wakeUps == wakeUpsBefore) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                break;
+            }
+            wait(remaining);
+        }
+        return lastEventId;
+    }
+
+    /**
+     * Réveille les threads en attente dans await (nouvel abonné, arrêt).
+     */
+    public synchronized void wakeUp() {
+        wakeUps++;
+        notifyAll();
+    }
+
+    private synchronized void append(PersonChange.Type type, int id, Person person) {
+        long eventId = ++lastEventId;
+        ring[slot(eventId)] = new PersonChange(eventId, type, id, person);
+        notifyAll();
+    }
+
+    private int slot(long eventId) {
+        return (int) ((eventId - firstEventId) % ring.length);
+    }
+
+    private static Person copy(Person p) {
+        Person copy = new Person(p.getId(), p.getName(), p.getAge());
+        copy.setVersion(p.getVersion());
+        return copy;
+    }
+}
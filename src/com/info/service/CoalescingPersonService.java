@@ -0,0 +1,255 @@
+package com.info.service;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.info.db.ReadRouting;
+import com.info.model.BulkResult;
+import com.info.model.Person;
+
+/**
+ * Regroupe les lectures par ID concurrentes en une seule requête.
+ *
+ * Le premier appel de getPerson ouvre un lot et le mène ; les appels suivants y
+ * ajoutent leur ID (un ID déjà présent partage le résultat) puis attendent. Tant
+ * qu'aucun lot n'est en cours en base, le lot part aussitôt : aucune attente sous
+ * faible charge. Sinon le meneur attend la fenêtre, ou que le lot soit plein, et
+ * tout le lot part en une requête IN. Un lot fermé n'accepte plus d'ID : un appel
+ * ne reçoit jamais le résultat d'une requête commencée avant lui.
+ */
+public class CoalescingPersonService implements PersonService {
+
+    private final PersonService delegate;
+    private final long windowNanos;
+    private final int maxBatchSize;
+
+    private final Object lock = new Object();
+    /** Lot ouvert aux nouveaux IDs (protégé par lock), ou null. */
+    private Batch open;
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder merged = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    /**
+     * @param delegate Le service réel.
+     * @param windowMs Attente maximale (ms) d'un lot quand un autre est déjà en base.
+     * @param maxBatchSize Nombre maximum d'IDs distincts par lot.
+     */
+    public CoalescingPersonService(PersonService delegate, long windowMs, int maxBatchSize) {
+        if (windowMs < 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Fenêtre et taille des lots invalides");
+        }
+        this.delegate = delegate;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public Person getPerson(int id) {
+        // Lecture exigée sur le primaire : le lot pourrait partir vers une réplique
+        if (ReadRouting.isPrimaryRequired()) {
+            return delegate.getPerson(id);
+        }
+        lookups.increment();
+        Batch batch;
+        CompletableFuture<Person> result;
+        boolean leader = false;
+        synchronized (lock) {
+            if (open == null) {
+                open = new Batch();
+                leader = true;
+            }
+            batch = open;
+            result = batch.results.get(id);
+            if (result == null) {
+                result = new CompletableFuture<>();
+                batch.results.put(id, result);
+            } else {
+                merged.increment();
+            }
+            if (batch.results.size() >= maxBatchSize) {
+                open = null;
+                batch.full.countDown();
+            }
+        }
+        if (leader) {
+            run(batch);
+        }
+        Person person = await(result);
+        // Chaque appelant reçoit sa propre copie
+        return person != null ? copy(person) : null;
+    }
+
+    private void run(Batch batch) {
+        if (running.get() > 0 && windowNanos > 0) {
+            try {
+                batch.full.await(windowNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        int[] ids;
+        synchronized (lock) {
+            if (open == batch) {
+                open = null;
+            }
+            ids = new int[batch.results.size()];
+            int i = 0;
+            for (int id : batch.results.keySet()) {
+                ids[i++] = id;
+            }
+        }
+        running.incrementAndGet();
+        batches.increment();
+        try {
+            Map<Integer, Person> found = new HashMap<>(ids.length * 2);
+            if (ids.length == 1) {
+                Person person = delegate.getPerson(ids[0]);
+                if (person != null) {
+                    found.put(person.getId(), person);
+                }
+            } else {
+                for (Person person : delegate.getPersonsByIds(ids)) {
+                    found.put(person.getId(), person);
+                }
+            }
+            for (Map.Entry<Integer, CompletableFuture<Person>> entry : batch.results.entrySet()) {
+                entry.getValue().complete(found.get(entry.getKey()));
+            }
+        } catch (RuntimeException | Error e) {
+            for (CompletableFuture<Person> result : batch.results.values()) {
+                result.completeExceptionally(e);
+            }
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    private static Person await(CompletableFuture<Person> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Person[] getPersonsByIds(int[] ids) {
+        return delegate.getPersonsByIds(ids);
+    }
+
+    @Override
+    public boolean addPerson(Person p) {
+        return delegate.addPerson(p);
+    }
+
+    @Override
+    public boolean deletePerson(int id) {
+        return delegate.deletePerson(id);
+    }
+
+    @Override
+    public Person getPersonByName(String name) {
+        return delegate.getPersonByName(name);
+    }
+
+    @Override
+    public Person[] searchPersons(String query, boolean prefix, int afterId, int limit) {
+        return delegate.searchPersons(query, prefix, afterId, limit);
+    }
+
+    @Override
+    public Person[] getPersonsByAge(int minAge, int maxAge, int afterId, int limit) {
+        return delegate.getPersonsByAge(minAge, maxAge, afterId, limit);
+    }
+
+    @Override
+    public Person[] getAllPersons() {
+        return delegate.getAllPersons();
+    }
+
+    @Override
+    public Person[] getPersons(int afterId, int limit) {
+        return delegate.getPersons(afterId, limit);
+    }
+
+    @Override
+    public void forEachPerson(int afterId, PersonVisitor visitor) throws IOException {
+        delegate.forEachPerson(afterId, visitor);
+    }
+
+    @Override
+    public boolean updatePerson(Person p) {
+        return delegate.updatePerson(p);
+    }
+
+    @Override
+    public UpdateOutcome updatePerson(Person p, int expectedVersion) {
+        return delegate.updatePerson(p, expectedVersion);
+    }
+
+    @Override
+    public BulkResult[] addPersons(Person[] persons) {
+        return delegate.addPersons(persons);
+    }
+
+    @Override
+    public BulkResult[] updatePersons(Person[] persons) {
+        return delegate.updatePersons(persons);
+    }
+
+    @Override
+    public BulkResult[] deletePersons(int[] ids) {
+        return delegate.deletePersons(ids);
+    }
+
+    /**
+     * @return Nombre d'appels de getPerson regroupés.
+     */
+    public long getLookups() {
+        return lookups.sum();
+    }
+
+    /**
+     * @return Nombre d'appels servis par la lecture d'un autre appel du même lot.
+     */
+    public long getMerged() {
+        return merged.sum();
+    }
+
+    /**
+     * @return Nombre de lots envoyés en base.
+     */
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    private static Person copy(Person p) {
+        Person copy = new Person(p.getId(), p.getName(), p.getAge());
+        copy.setVersion(p.getVersion());
+        return copy;
+    }
+
+    private static final class Batch {
+        /** IDs du lot et leur résultat, dans l'ordre d'arrivée (modifiés sous lock tant que le lot est ouvert). */
+        final Map<Integer, CompletableFuture<Person>> results = new LinkedHashMap<>();
+        final CountDownLatch full = new CountDownLatch(1);
+    }
+}
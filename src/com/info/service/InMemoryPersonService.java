@@ -0,0 +1,348 @@
+package com.info.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.info.model.BulkResult;
+import com.info.model.Person;
+
+/**
+ * Stockage des personnes en mémoire, sans base de données.
+ *
+ * - recherche par ID : StripedIntMap (clés int primitives, verrous par segment,
+ *   lectures optimistes) ;
+ * - recherche par nom : ConcurrentSkipListMap dont les clés sont le nom en
+ *   minuscules suivi de l'ID, pour l'égalité comme pour le préfixe ;
+ * - parcours triés par ID : tableau d'IDs trié en copie sur écriture, lu sans
+ *   verrou par les pages et les flux.
+ *
+ * Les personnes sont copiées à l'entrée et à la sortie. Les écritures sur un même
+ * ID sont sérialisées par le verrou de son segment.
+ */
+public class InMemoryPersonService implements PersonService {
+
+    /** Sépare le nom de l'ID dans la clé ; inférieur à tout caractère d'un nom. */
+    private static final char SEPARATOR = '\u0000';
+
+    /** Version attendue des mises à jour inconditionnelles. */
+    private static final int ANY_VERSION = -1;
+
+    private final StripedIntMap<Person> persons = new StripedIntMap<>();
+    private final ConcurrentSkipListMap<String, Integer> idsByName = new ConcurrentSkipListMap<>();
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final Object idsLock = new Object();
+    private volatile int[] sortedIds = new int[0];
+
+    @Override
+    public boolean addPerson(Person p) {
+        p.setId(insert(p));
+        addIds(new int[] { p.getId() });
+        return true;
+    }
+
+    @Override
+    public boolean deletePerson(int id) {
+        if (!delete(id)) {
+            return false;
+        }
+        removeIds(new int[] { id });
+        return true;
+    }
+
+    @Override
+    public Person getPersonByName(String name) {
+        String from = normalize(name) + SEPARATOR;
+        Map.Entry<String, Integer> first = idsByName.ceilingEntry(from);
+        while (first != null && first.getKey().startsWith(from)) {
+            Person person = persons.get(first.getValue());
+            if (person != null) {
+                return copy(person);
+            }
+            first = idsByName.higherEntry(first.getKey());
+        }
+        return null;
+    }
+
+    @Override
+    public Person[] searchPersons(String query, boolean prefix, int afterId, int limit) {
+        String from = normalize(query);
+        if (!prefix) {
+            // Même nom : les clés sont triées par ID (hexadécimal de largeur fixe)
+            from = from + SEPARATOR;
+        }
+        int[] ids = new int[16];
+        int count = 0;
+        for (Map.Entry<String, Integer> entry : idsByName.tailMap(from).entrySet()) {
+            if (!entry.getKey().startsWith(from)) {
+                break;
+            }
+            int id = entry.getValue();
+            if (id > afterId) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                ids[count++] = id;
+                if (!prefix && count == limit) {
+                    break;
+                }
+            }
+        }
+        Arrays.sort(ids, 0, count);
+        List<Person> result = new ArrayList<>(Math.min(count, limit));
+        for (int i = 0; i < count && result.size() < limit; i++) {
+            Person person = persons.get(ids[i]);
+            if (person != null) {
+                result.add(copy(person));
+            }
+        }
+        return result.toArray(new Person[0]);
+    }
+
+    @Override
+    public Person getPerson(int id) {
+        Person person = id > 0 ? persons.get(id) : null;
+        return person != null ? copy(person) : null;
+    }
+
+    @Override
+    public Person[] getPersonsByIds(int[] ids) {
+        List<Person> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Person person = getPerson(id);
+            if (person != null) {
+                result.add(person);
+            }
+        }
+        return result.toArray(new Person[0]);
+    }
+
+    @Override
+    public Person[] getAllPersons() {
+        List<Person> result = new ArrayList<>(sortedIds.length);
+        for (int id : sortedIds) {
+            Person person = persons.get(id);
+            if (person != null) {
+                result.add(copy(person));
+            }
+        }
+        return result.toArray(new Person[0]);
+    }
+
+    @Override
+    public Person[] getPersonsByAge(int minAge, int maxAge, int afterId, int limit) {
+        // Pas d'index sur l'âge : parcours dans l'ordre des IDs jusqu'à remplir la page
+        int[] ids = sortedIds;
+        List<Person> result = new ArrayList<>(Math.min(limit, 1024));
+        for (int i = firstAfter(ids, afterId); i < ids.length && result.size() < limit; i++) {
+            Person person = persons.get(ids[i]);
+            if (person != null && person.getAge() >= minAge && person.getAge() <= maxAge) {
+                result.add(copy(person));
+            }
+        }
+        return result.toArray(new Person[0]);
+    }
+
+    @Override
+    public Person[] getPersons(int afterId, int limit) {
+        int[] ids = sortedIds;
+        List<Person> result = new ArrayList<>(Math.min(limit, 1024));
+        for (int i = firstAfter(ids, afterId); i < ids.length && result.size() < limit; i++) {
+            Person person = persons.get(ids[i]);
+            if (person != null) {
+                result.add(copy(person));
+            }
+        }
+        return result.toArray(new Person[0]);
+    }
+
+    @Override
+    public void forEachPerson(int afterId, PersonVisitor visitor) throws IOException {
+        int[] ids = sortedIds;
+        for (int i = firstAfter(ids, afterId); i < ids.length; i++) {
+            Person person = persons.get(ids[i]);
+            if (person != null) {
+                visitor.visit(copy(person));
+            }
+        }
+    }
+
+    @Override
+    public boolean updatePerson(Person p) {
+        return update(p, ANY_VERSION) == UpdateOutcome.UPDATED;
+    }
+
+    @Override
+    public UpdateOutcome updatePerson(Person p, int expectedVersion) {
+        return update(p, expectedVersion);
+    }
+
+    @Override
+    public BulkResult[] addPersons(Person[] list) {
+        BulkResult[] results = new BulkResult[list.length];
+        int[] ids = new int[list.length];
+        for (int i = 0; i < list.length; i++) {
+            int id = insert(list[i]);
+            list[i].setId(id);
+            ids[i] = id;
+            results[i] = new BulkResult(id, 201, null);
+        }
+        addIds(ids);
+        return results;
+    }
+
+    @Override
+    public BulkResult[] updatePersons(Person[] list) {
+        BulkResult[] results = new BulkResult[list.length];
+        for (int i = 0; i < list.length; i++) {
+            results[i] = updatePerson(list[i])
+                    ? new BulkResult(list[i].getId(), 200, null)
+                    : new BulkResult(list[i].getId(), 404, "Personne non trouvée");
+        }
+        return results;
+    }
+
+    @Override
+    public BulkResult[] deletePersons(int[] ids) {
+        BulkResult[] results = new BulkResult[ids.length];
+        int[] deleted = new int[ids.length];
+        int count = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (delete(ids[i])) {
+                deleted[count++] = ids[i];
+                results[i] = new BulkResult(ids[i], 200, null);
+            } else {
+                results[i] = new BulkResult(ids[i], 404, "Personne non trouvée");
+            }
+        }
+        removeIds(Arrays.copyOf(deleted, count));
+        return results;
+    }
+
+    /**
+     * @return Le nombre de personnes stockées.
+     */
+    public int size() {
+        return persons.size();
+    }
+
+    private int insert(Person p) {
+        int id = sequence.incrementAndGet();
+        Person stored = new Person(id, p.getName(), p.getAge());
+        p.setVersion(0);
+        persons.update(id, current -> {
+            idsByName.put(key(stored), id);
+            return stored;
+        });
+        return id;
+    }
+
+    /**
+     * Remplace une personne sous le verrou de son segment : la comparaison de
+     * version et l'écriture sont atomiques.
+     */
+    private UpdateOutcome update(Person p, int expectedVersion) {
+        if (p.getId() <= 0) {
+            return UpdateOutcome.NOT_FOUND;
+        }
+        UpdateOutcome[] outcome = { UpdateOutcome.NOT_FOUND };
+        Person[] stored = new Person[1];
+        persons.update(p.getId(), current -> {
+            if (current == null) {
+                return null;
+            }
+            if (expectedVersion != ANY_VERSION && current.getVersion() != expectedVersion) {
+                outcome[0] = UpdateOutcome.CONFLICT;
+                return current;
+            }
+            Person next = copy(p);
+            next.setVersion(current.getVersion() + 1);
+            idsByName.remove(key(current));
+            idsByName.put(key(next), next.getId());
+            outcome[0] = UpdateOutcome.UPDATED;
+            stored[0] = next;
+            return next;
+        });
+        if (stored[0] != null) {
+            p.setVersion(stored[0].getVersion());
+        }
+        return outcome[0];
+    }
+
+    private boolean delete(int id) {
+        if (id <= 0) {
+            return false;
+        }
+        Person previous = persons.update(id, current -> {
+            if (current != null) {
+                idsByName.remove(key(current));
+            }
+            return null;
+        });
+        return previous != null;
+    }
+
+    /**
+     * Ajoute des IDs au tableau trié (nouvelle copie). Les IDs neufs étant les plus
+     * grands, c'est le plus souvent un simple ajout en fin de tableau.
+     */
+    private void addIds(int[] added) {
+        synchronized (idsLock) {
+            int[] current = sortedIds;
+            int[] next = Arrays.copyOf(current, current.length + added.length);
+            System.arraycopy(added, 0, next, current.length, added.length);
+            if (current.length > 0 && added.length > 0 && added[0] < current[current.length - 1]) {
+                Arrays.sort(next);
+            }
+            sortedIds = next;
+        }
+    }
+
+    private void removeIds(int[] removed) {
+        if (removed.length == 0) {
+            return;
+        }
+        Arrays.sort(removed);
+        synchronized (idsLock) {
+            int[] current = sortedIds;
+            int[] next = new int[current.length];
+            int count = 0;
+            for (int id : current) {
+                if (Arrays.binarySearch(removed, id) < 0) {
+                    next[count++] = id;
+                }
+            }
+            sortedIds = Arrays.copyOf(next, count);
+        }
+    }
+
+    private static int firstAfter(int[] ids, int afterId) {
+        int index = Arrays.binarySearch(ids, afterId);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private static String key(Person p) {
+        String hex = Integer.toHexString(p.getId());
+        StringBuilder key = new StringBuilder(p.getName().length() + 9);
+        key.append(normalize(p.getName())).append(SEPARATOR);
+        for (int i = hex.length(); i < 8; i++) {
+            key.append('0');
+        }
+        return key.append(hex).toString();
+    }
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static Person copy(Person p) {
+        Person copy = new Person(p.getId(), p.getName(), p.getAge());
+        copy.setVersion(p.getVersion());
+        return copy;
+    }
+}
@@ -0,0 +1,60 @@
+package com.info.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.info.db.PoolConfig;
+import com.info.db.PoolStats;
+import com.info.model.Person;
+
+/**
+ * Stockage en mémoire (InMemoryPersonService) : aucune base nécessaire, données
+ * perdues à l'arrêt. Pour les caches de périphérie, les essais et les benchmarks.
+ */
+public class InMemoryStorageProvider implements StorageProvider {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryStorageProvider.class);
+
+    @Override
+    public String getName() {
+        return "memory";
+    }
+
+    @Override
+    public PersonService open() {
+        InMemoryPersonService service = new InMemoryPersonService();
+        // Mêmes données de test que la table MySQL vide
+        service.addPersons(new Person[] {
+                new Person(0, "Jean Dupont", 30),
+                new Person(0, "Marie Curie", 45),
+                new Person(0, "Paul Martin", 28),
+                new Person(0, "Sophie Bernard", 32) });
+        LOGGER.info("✅ Stockage en mémoire initialisé avec {} personnes", service.size());
+        return service;
+    }
+
+    @Override
+    public boolean isHealthy() {
+        return true;
+    }
+
+    @Override
+    public PoolStats getPoolStats() {
+        return null;
+    }
+
+    @Override
+    public PoolConfig getPoolConfig() {
+        return null;
+    }
+
+    @Override
+    public void setPoolConfig(PoolConfig config) {
+        throw new UnsupportedOperationException("Aucun pool de connexions (stockage memory)");
+    }
+
+    @Override
+    public void close() {
+        // Rien à libérer
+    }
+}
@@ -0,0 +1,63 @@
+package com.info.service;
+
+import java.sql.SQLException;
+
+import com.info.db.ConnexionDB;
+import com.info.db.PoolConfig;
+import com.info.db.PoolStats;
+
+/**
+ * Stockage JDBC (MySQL ou H2) : PersonServiceImpl sur le pool de ConnexionDB.
+ */
+public class JdbcStorageProvider implements StorageProvider {
+
+    /** Délai accordé à Connection.isValid par la vérification de santé (s). */
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String name;
+
+    /**
+     * @param name Le nom du moteur (mysql ou h2).
+     */
+    public JdbcStorageProvider(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public PersonService open() throws SQLException {
+        PersonServiceImpl service = new PersonServiceImpl();
+        service.createTableIfNotExists();
+        return service;
+    }
+
+    @Override
+    public boolean isHealthy() throws SQLException {
+        // Connexion dédiée : un pool épuisé par la charge n'est pas une base indisponible
+        return ConnexionDB.checkPrimary(VALIDATION_TIMEOUT_SECONDS);
+    }
+
+    @Override
+    public PoolStats getPoolStats() {
+        return ConnexionDB.getPoolStats();
+    }
+
+    @Override
+    public PoolConfig getPoolConfig() {
+        return ConnexionDB.getPoolConfig();
+    }
+
+    @Override
+    public void setPoolConfig(PoolConfig config) {
+        ConnexionDB.reconfigurePool(config);
+    }
+
+    @Override
+    public void close() {
+        ConnexionDB.closeConnexion();
+    }
+}
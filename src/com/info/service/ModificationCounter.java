@@ -0,0 +1,44 @@
+package com.info.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.info.model.Person;
+
+/**
+ * Compteur de modifications de la table, incrémenté à chaque écriture réussie.
+ *
+ * Sa valeur sert d'ETag aux listes : tant qu'elle ne change pas, une liste déjà
+ * reçue par le client est toujours valide et peut être confirmée par un 304 sans
+ * lire la base. L'horodatage de démarrage distingue les compteurs de deux
+ * exécutions successives. Seules les écritures passant par cette instance sont
+ * vues.
+ */
+public class ModificationCounter implements PersonChangeListener {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong modifications = new AtomicLong();
+
+    @Override
+    public void personCreated(Person p) {
+        modifications.incrementAndGet();
+    }
+
+    @Override
+    public void personUpdated(Person p) {
+        modifications.incrementAndGet();
+    }
+
+    @Override
+    public void personDeleted(int id) {
+        modifications.incrementAndGet();
+    }
+
+    /**
+     * À lire avant la requête SQL : une écriture concurrente rendra la réponse
+     * obsolète plus tôt, jamais plus tard.
+     * @return La version courante de la table.
+     */
+    public String version() {
+        return epoch + "-" + modifications.get();
+    }
+}
@@ -0,0 +1,108 @@
+package com.info.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.info.model.Person;
+
+/**
+ * Index trié des noms en mémoire pour l'autocomplétion, sans accès à la base.
+ *
+ * Les clés sont le nom en minuscules suivi de l'ID, de sorte que tous les noms
+ * commençant par un préfixe forment une plage contiguë de la ConcurrentSkipListMap.
+ * L'index est chargé au démarrage puis tenu à jour comme PersonChangeListener.
+ */
+public class NameIndex implements PersonChangeListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NameIndex.class);
+
+    /** Sépare le nom de l'ID dans la clé ; inférieur à tout caractère d'un nom. */
+    private static final char SEPARATOR = '\u0000';
+
+    private final ConcurrentSkipListMap<String, String> names = new ConcurrentSkipListMap<>();
+    private final Map<Integer, String> keysById = new ConcurrentHashMap<>();
+
+    /**
+     * Charge toutes les personnes existantes.
+     * @param service Le service à parcourir.
+     * @throws IOException si la lecture en base échoue.
+     */
+    public void load(PersonService service) throws IOException {
+        service.forEachPerson(0, this::index);
+        LOGGER.info("✅ Index des noms chargé : {} personnes", keysById.size());
+    }
+
+    @Override
+    public void personCreated(Person p) {
+        index(p);
+    }
+
+    @Override
+    public void personUpdated(Person p) {
+        index(p);
+    }
+
+    @Override
+    public void personDeleted(int id) {
+        keysById.computeIfPresent(id, (key, previous) -> {
+            names.remove(previous);
+            return null;
+        });
+    }
+
+    private void index(Person p) {
+        String name = p.getName();
+        String key = normalize(name) + SEPARATOR + p.getId();
+        // compute est atomique par ID : deux mises à jour concurrentes ne laissent pas d'ancienne clé
+        keysById.compute(p.getId(), (id, previous) -> {
+            if (previous != null && !previous.equals(key)) {
+                names.remove(previous);
+            }
+            names.put(key, name);
+            return key;
+        });
+    }
+
+    /**
+     * Noms distincts commençant par le préfixe, sans tenir compte de la casse, triés.
+     * @param prefix Le début du nom.
+     * @param limit Nombre maximum de noms retournés.
+     * @return Les noms trouvés (vide si aucun).
+     */
+    public String[] complete(String prefix, int limit) {
+        String from = normalize(prefix);
+        List<String> result = new ArrayList<>(Math.min(limit, 64));
+        String last = null;
+        for (Map.Entry<String, String> entry : names.tailMap(from).entrySet()) {
+            if (result.size() >= limit || !entry.getKey().startsWith(from)) {
+                break;
+            }
+            // Les homonymes sont adjacents : il suffit de comparer au nom précédent
+            String name = entry.getValue();
+            if (!name.equals(last)) {
+                result.add(name);
+                last = name;
+            }
+        }
+        return result.toArray(new String[0]);
+    }
+
+    /**
+     * @return Le nombre de personnes indexées.
+     */
+    public int size() {
+        return keysById.size();
+    }
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,160 @@
+package com.info.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.info.model.BulkResult;
+import com.info.model.Person;
+
+/**
+ * Notifie les PersonChangeListener de chaque écriture réussie.
+ *
+ * Les notifications sont envoyées sur le thread de l'appelant, après le retour du
+ * service réel : un écouteur doit donc être rapide et ne jamais bloquer. Une
+ * exception levée par un écouteur est journalisée sans faire échouer l'écriture.
+ */
+public class ObservablePersonService implements PersonService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ObservablePersonService.class);
+
+    private final PersonService delegate;
+    private final List<PersonChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    public ObservablePersonService(PersonService delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @param listener L'écouteur à ajouter.
+     */
+    public void addListener(PersonChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public boolean addPerson(Person p) {
+        boolean added = delegate.addPerson(p);
+        if (added) {
+            fire(listener -> listener.personCreated(p));
+        }
+        return added;
+    }
+
+    @Override
+    public boolean updatePerson(Person p) {
+        boolean updated = delegate.updatePerson(p);
+        if (updated) {
+            fire(listener -> listener.personUpdated(p));
+        }
+        return updated;
+    }
+
+    @Override
+    public UpdateOutcome updatePerson(Person p, int expectedVersion) {
+        UpdateOutcome outcome = delegate.updatePerson(p, expectedVersion);
+        if (outcome == UpdateOutcome.UPDATED) {
+            fire(listener -> listener.personUpdated(p));
+        }
+        return outcome;
+    }
+
+    @Override
+    public boolean deletePerson(int id) {
+        boolean deleted = delegate.deletePerson(id);
+        if (deleted) {
+            fire(listener -> listener.personDeleted(id));
+        }
+        return deleted;
+    }
+
+    @Override
+    public BulkResult[] addPersons(Person[] persons) {
+        BulkResult[] results = delegate.addPersons(persons);
+        for (int i = 0; i < results.length; i++) {
+            if (results[i].isSuccess()) {
+                Person p = persons[i];
+                fire(listener -> listener.personCreated(p));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public BulkResult[] updatePersons(Person[] persons) {
+        BulkResult[] results = delegate.updatePersons(persons);
+        for (int i = 0; i < results.length; i++) {
+            if (results[i].isSuccess()) {
+                Person p = persons[i];
+                fire(listener -> listener.personUpdated(p));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public BulkResult[] deletePersons(int[] ids) {
+        BulkResult[] results = delegate.deletePersons(ids);
+        for (int i = 0; i < results.length; i++) {
+            if (results[i].isSuccess()) {
+                int id = ids[i];
+                fire(listener -> listener.personDeleted(id));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public Person getPersonByName(String name) {
+        return delegate.getPersonByName(name);
+    }
+
+    @Override
+    public Person[] searchPersons(String query, boolean prefix, int afterId, int limit) {
+        return delegate.searchPersons(query, prefix, afterId, limit);
+    }
+
+    @Override
+    public Person[] getPersonsByAge(int minAge, int maxAge, int afterId, int limit) {
+        return delegate.getPersonsByAge(minAge, maxAge, afterId, limit);
+    }
+
+    @Override
+    public Person getPerson(int id) {
+        return delegate.getPerson(id);
+    }
+
+    @Override
+    public Person[] getPersonsByIds(int[] ids) {
+        return delegate.getPersonsByIds(ids);
+    }
+
+    @Override
+    public Person[] getAllPersons() {
+        return delegate.getAllPersons();
+    }
+
+    @Override
+    public Person[] getPersons(int afterId, int limit) {
+        return delegate.getPersons(afterId, limit);
+    }
+
+    @Override
+    public void forEachPerson(int afterId, PersonVisitor visitor) throws IOException {
+        delegate.forEachPerson(afterId, visitor);
+    }
+
+    private void fire(Consumer<PersonChangeListener> event) {
+        for (PersonChangeListener listener : listeners) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                LOGGER.error("❌ Erreur écouteur {} : {}", listener.getClass().getSimpleName(), e.getMessage(), e);
+            }
+        }
+    }
+}
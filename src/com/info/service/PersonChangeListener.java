@@ -0,0 +1,27 @@
+package com.info.service;
+
+import com.info.model.Person;
+
+/**
+ * Reçoit les modifications de personnes une fois validées en base.
+ */
+public interface PersonChangeListener {
+
+	/**
+	 * Une personne a été ajoutée.
+	 * @param p La personne, avec son ID (à ne pas modifier).
+	 */
+	public void personCreated(Person p);
+
+	/**
+	 * Une personne a été mise à jour.
+	 * @param p La personne mise à jour (à ne pas modifier).
+	 */
+	public void personUpdated(Person p);
+
+	/**
+	 * Une personne a été supprimée.
+	 * @param id L'ID de la personne supprimée.
+	 */
+	public void personDeleted(int id);
+}
@@ -0,0 +1,37 @@
+package com.info.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.info.model.Person;
+
+/**
+ * Conversion d'une ligne de la table 'person' en Person.
+ *
+ * Les requêtes sélectionnent explicitement {@link #COLUMNS} : les colonnes sont
+ * lues par position, sans recherche de libellé à chaque ligne, et l'ajout d'une
+ * colonne à la table ne change pas ce qui est ramené.
+ */
+public final class PersonRowMapper {
+
+    /** Colonnes lues par {@link #map(ResultSet)}, dans cet ordre. */
+    public static final String COLUMNS = "id, name, age, version";
+
+    private static final int ID = 1;
+    private static final int NAME = 2;
+    private static final int AGE = 3;
+    private static final int VERSION = 4;
+
+    private PersonRowMapper() {}
+
+    /**
+     * Construit une personne à partir de la ligne courante.
+     * @param rs Résultat d'une requête "SELECT " + COLUMNS + " FROM person ...".
+     * @return La personne.
+     */
+    public static Person map(ResultSet rs) throws SQLException {
+        Person person = new Person(rs.getInt(ID), rs.getString(NAME), rs.getInt(AGE));
+        person.setVersion(rs.getInt(VERSION));
+        return person;
+    }
+}
@@ -1,5 +1,8 @@
 package com.info.service;
 
+import java.io.IOException;
+
+import com.info.model.BulkResult;
 import com.info.model.Person;
 
 public interface PersonService {
@@ -19,12 +22,34 @@ public interface PersonService {
 	public boolean deletePerson(int id);
 
 	/**
-	 * Récupère une personne par nom.
+	 * Récupère une personne par nom ; entre homonymes, celle de plus petit id.
 	 * @param name Le nom.
 	 * @return La personne ou null si non trouvée.
 	 */
 	public Person getPersonByName(String name);
 
+	/**
+	 * Recherche toutes les personnes dont le nom correspond, sans tenir compte de la casse,
+	 * triées par ID (pagination par clé).
+	 * @param query Le nom ou le début du nom recherché.
+	 * @param prefix true pour une recherche par préfixe, false pour une correspondance exacte.
+	 * @param afterId ID après lequel commencer (0 pour la première page).
+	 * @param limit Nombre maximum de personnes retournées.
+	 * @return Tableau de personnes (vide s'il n'y a plus de résultats).
+	 */
+	public Person[] searchPersons(String query, boolean prefix, int afterId, int limit);
+
+	/**
+	 * Récupère les personnes dont l'âge est compris entre deux bornes incluses,
+	 * triées par ID (pagination par clé).
+	 * @param minAge Âge minimum.
+	 * @param maxAge Âge maximum.
+	 * @param afterId ID après lequel commencer (0 pour la première page).
+	 * @param limit Nombre maximum de personnes retournées.
+	 * @return Tableau de personnes (vide s'il n'y a plus de résultats).
+	 */
+	public Person[] getPersonsByAge(int minAge, int maxAge, int afterId, int limit);
+
 	/**
 	 * Récupère une personne par ID.
 	 * @param id L'ID.
@@ -32,6 +57,13 @@ public interface PersonService {
 	 */
 	public Person getPerson(int id);
 
+	/**
+	 * Récupère plusieurs personnes par ID en un seul accès au stockage.
+	 * @param ids Les IDs recherchés.
+	 * @return Les personnes trouvées, dans l'ordre des IDs (les IDs inconnus sont ignorés).
+	 */
+	public Person[] getPersonsByIds(int[] ids);
+
 	/**
 	 * Récupère toutes les personnes.
 	 * @return Tableau de personnes (vide si aucune).
@@ -39,9 +71,54 @@ public interface PersonService {
 	public Person[] getAllPersons();
 
 	/**
-	 * Met à jour une personne.
-	 * @param p La personne mise à jour.
+	 * Récupère une page de personnes triées par ID (pagination par clé).
+	 * @param afterId ID après lequel commencer (0 pour la première page).
+	 * @param limit Nombre maximum de personnes retournées.
+	 * @return Tableau de personnes (vide s'il n'y a plus de résultats).
+	 */
+	public Person[] getPersons(int afterId, int limit);
+
+	/**
+	 * Parcourt les personnes triées par ID sans les charger en mémoire.
+	 * @param afterId ID après lequel commencer (0 pour tout parcourir).
+	 * @param visitor Reçoit chaque personne lue.
+	 * @throws IOException si le visiteur ou la lecture en base échoue.
+	 */
+	public void forEachPerson(int afterId, PersonVisitor visitor) throws IOException;
+
+	/**
+	 * Met à jour une personne, quelle que soit sa version.
+	 * @param p La personne mise à jour (sa nouvelle version est renseignée en cas de succès).
 	 * @return true si succès, false sinon.
 	 */
 	public boolean updatePerson(Person p);
+
+	/**
+	 * Met à jour une personne seulement si sa version n'a pas changé (verrouillage optimiste).
+	 * @param p La personne mise à jour (sa nouvelle version est renseignée en cas de succès).
+	 * @param expectedVersion La version lue par l'appelant.
+	 * @return UPDATED, NOT_FOUND, CONFLICT si la personne a été modifiée entre-temps, ou ERROR.
+	 */
+	public UpdateOutcome updatePerson(Person p, int expectedVersion);
+
+	/**
+	 * Ajoute plusieurs personnes par lots (un lot = une transaction).
+	 * @param persons Les personnes à ajouter (leur ID est renseigné en cas de succès).
+	 * @return Un résultat par personne, dans le même ordre.
+	 */
+	public BulkResult[] addPersons(Person[] persons);
+
+	/**
+	 * Met à jour plusieurs personnes par lots (un lot = une transaction).
+	 * @param persons Les personnes mises à jour.
+	 * @return Un résultat par personne, dans le même ordre.
+	 */
+	public BulkResult[] updatePersons(Person[] persons);
+
+	/**
+	 * Supprime plusieurs personnes par lots (un lot = une transaction).
+	 * @param ids Les IDs à supprimer.
+	 * @return Un résultat par ID, dans le même ordre.
+	 */
+	public BulkResult[] deletePersons(int[] ids);
 }
\ No newline at end of file
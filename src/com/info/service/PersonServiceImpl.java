@@ -1,257 +1,676 @@
 package com.info.service;
 
+import java.io.IOException;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
 
-import com.info.db.ConnexionDB;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.info.config.Settings;
+import com.info.db.TransactionManager;
+import com.info.model.BulkResult;
 import com.info.model.Person;
 
 public class PersonServiceImpl implements PersonService {
 
-    private Connection connection;
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersonServiceImpl.class);
+
+
+    /** Début commun des lectures : colonnes explicites, lues par position. */
+    private static final String SELECT_PERSON = "SELECT " + PersonRowMapper.COLUMNS + " FROM person";
 
     /**
-     * Constructeur : Initialise la connexion.
+     * Nombre maximum d'IDs par requête IN. Le nombre de paramètres est arrondi à la
+     * puissance de 2 supérieure (en répétant le dernier ID) : quelques formes de requête
+     * seulement, réutilisées par le cache de requêtes préparées du driver.
+     */
+    private static final int MAX_IN_PARAMS = 256;
+
+    /** Nombre d'éléments envoyés par executeBatch (un lot = une transaction). */
+    private final int bulkChunkSize;
+
+    /** Nombre de lignes ramenées par aller-retour lors d'un parcours en flux. */
+    private final int streamFetchSize;
+
+    /**
+     * Constructeur : les connexions sont empruntées au pool à chaque appel.
      */
     public PersonServiceImpl() {
-        this.connection = ConnexionDB.getConnexion();
-        if (this.connection == null) {
-            System.err.println("❌ Connexion MySQL non disponible.");
-        } else {
-            System.out.println("✅ Service initialisé avec connexion BD");
-        }
+        this.bulkChunkSize = Settings.getInt("tp333.bulk.chunkSize", 500);
+        this.streamFetchSize = Settings.getInt("tp333.db.fetchSize", 500);
+        LOGGER.info("✅ Service initialisé (pool de connexions BD)");
     }
 
     @Override
     public boolean addPerson(Person p) {
-        if (connection == null) {
-            System.err.println("❌ Connexion null dans addPerson");
-            return false;
-        }
-        
         String sql = "INSERT INTO person (name, age) VALUES (?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, p.getName());
-            pstmt.setInt(2, p.getAge());
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
-                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        p.setId(generatedKeys.getInt(1));
-                        System.out.println("✅ Personne ajoutée avec ID: " + p.getId());
+        try {
+            return TransactionManager.execute(connection -> {
+                try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setString(1, p.getName());
+                    pstmt.setInt(2, p.getAge());
+                    int affectedRows = pstmt.executeUpdate();
+                    if (affectedRows > 0) {
+                        try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                            if (generatedKeys.next()) {
+                                p.setId(generatedKeys.getInt(1));
+                                p.setVersion(0);
+                                if (LOGGER.isDebugEnabled()) {
+                                    LOGGER.debug("Personne ajoutée avec ID: {}", p.getId());
+                                }
+                            }
+                        }
+                        return true;
                     }
+                    return false;
                 }
-                return true;
-            }
-            return false;
+            });
         } catch (SQLException e) {
-            System.err.println("❌ Erreur SQL addPerson: " + e.getMessage());
-            e.printStackTrace();
+            LOGGER.error("❌ Erreur SQL addPerson: {}", e.getMessage(), e);
             return false;
         }
     }
 
     @Override
     public boolean deletePerson(int id) {
-        if (connection == null) {
-            System.err.println("❌ Connexion null dans deletePerson");
-            return false;
-        }
-        
         String sql = "DELETE FROM person WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, id);
-            boolean deleted = pstmt.executeUpdate() > 0;
-            if (deleted) {
-                System.out.println("✅ Personne supprimée ID: " + id);
-            } else {
-                System.out.println("⚠️ Aucune personne trouvée avec ID: " + id);
-            }
-            return deleted;
+        try {
+            return TransactionManager.execute(connection -> {
+                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                    pstmt.setInt(1, id);
+                    boolean deleted = pstmt.executeUpdate() > 0;
+                    if (LOGGER.isDebugEnabled()) {
+                        LOGGER.debug(deleted ? "Personne supprimée ID: {}" : "Aucune personne trouvée avec ID: {}", id);
+                    }
+                    return deleted;
+                }
+            });
         } catch (SQLException e) {
-            System.err.println("❌ Erreur deletePerson: " + e.getMessage());
-            e.printStackTrace();
+            LOGGER.error("❌ Erreur deletePerson: {}", e.getMessage(), e);
             return false;
         }
     }
 
     @Override
     public Person getPerson(int id) {
-        if (connection == null) {
-            System.err.println("❌ Connexion null dans getPerson");
+        String sql = SELECT_PERSON + " WHERE id = ?";
+        try {
+            return TransactionManager.read(connection -> {
+                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                    pstmt.setInt(1, id);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        Person person = rs.next() ? PersonRowMapper.map(rs) : null;
+                        if (LOGGER.isDebugEnabled()) {
+                            LOGGER.debug(person != null ? "Personne trouvée ID: {}" : "Personne non trouvée ID: {}", id);
+                        }
+                        return person;
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            LOGGER.error("❌ Erreur getPerson: {}", e.getMessage(), e);
             return null;
         }
-        
-        String sql = "SELECT * FROM person WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, id);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    Person person = new Person();
-                    person.setId(rs.getInt("id"));
-                    person.setName(rs.getString("name"));
-                    person.setAge(rs.getInt("age"));
-                    System.out.println("✅ Personne trouvée ID: " + id);
-                    return person;
-                } else {
-                    System.out.println("⚠️ Personne non trouvée ID: " + id);
-                    return null;
+    }
+
+    @Override
+    public Person[] getPersonsByIds(int[] ids) {
+        if (ids.length == 0) {
+            return new Person[0];
+        }
+        try {
+            Map<Integer, Person> found = TransactionManager.read(connection -> {
+                Map<Integer, Person> result = new HashMap<>(ids.length * 2);
+                for (int from = 0; from < ids.length; from += MAX_IN_PARAMS) {
+                    selectByIds(connection, ids, from, Math.min(MAX_IN_PARAMS, ids.length - from), result);
                 }
+                return result;
+            });
+            List<Person> persons = new ArrayList<>(found.size());
+            for (int id : ids) {
+                Person person = found.get(id);
+                if (person != null) {
+                    persons.add(person);
+                }
+            }
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("{} personnes trouvées sur {} IDs", persons.size(), ids.length);
             }
+            return persons.toArray(new Person[0]);
         } catch (SQLException e) {
-            System.err.println("❌ Erreur getPerson: " + e.getMessage());
-            e.printStackTrace();
-            return null;
+            LOGGER.error("❌ Erreur getPersonsByIds: {}", e.getMessage(), e);
+            return new Person[0];
+        }
+    }
+
+    private static void selectByIds(Connection connection, int[] ids, int from, int count,
+                                    Map<Integer, Person> result) throws SQLException {
+        int params = count == 1 ? 1 : Integer.highestOneBit(count - 1) << 1;
+        StringBuilder sql = new StringBuilder(SELECT_PERSON).append(" WHERE id IN (?");
+        for (int i = 1; i < params; i++) {
+            sql.append(", ?");
+        }
+        sql.append(')');
+        try (PreparedStatement pstmt = connection.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params; i++) {
+                pstmt.setInt(i + 1, ids[from + Math.min(i, count - 1)]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Person person = PersonRowMapper.map(rs);
+                    result.put(person.getId(), person);
+                }
+            }
         }
     }
 
     @Override
     public Person getPersonByName(String name) {
-        if (connection == null) {
-            System.err.println("❌ Connexion null dans getPersonByName");
+        String sql = SELECT_PERSON + " WHERE name = ? ORDER BY id LIMIT 1";
+        try {
+            return TransactionManager.read(connection -> {
+                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                    pstmt.setString(1, name);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        Person person = rs.next() ? PersonRowMapper.map(rs) : null;
+                        if (LOGGER.isDebugEnabled()) {
+                            LOGGER.debug(person != null ? "Personne trouvée nom: {}" : "Personne non trouvée nom: {}", name);
+                        }
+                        return person;
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            LOGGER.error("❌ Erreur getPersonByName: {}", e.getMessage(), e);
             return null;
         }
-        
-        String sql = "SELECT * FROM person WHERE name = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, name);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    Person person = new Person();
-                    person.setId(rs.getInt("id"));
-                    person.setName(rs.getString("name"));
-                    person.setAge(rs.getInt("age"));
-                    System.out.println("✅ Personne trouvée nom: " + name);
-                    return person;
-                } else {
-                    System.out.println("⚠️ Personne non trouvée nom: " + name);
-                    return null;
+    }
+
+    @Override
+    public Person[] searchPersons(String query, boolean prefix, int afterId, int limit) {
+        // La casse est ignorée par la collation de la colonne (utf8mb4 *_ci) : l'index sur name
+        // sert aussi bien l'égalité que le préfixe « abc% »
+        String sql = prefix
+                ? SELECT_PERSON + " WHERE name LIKE ? ESCAPE '!' AND id > ? ORDER BY id LIMIT ?"
+                : SELECT_PERSON + " WHERE name = ? AND id > ? ORDER BY id LIMIT ?";
+        String pattern = prefix ? escapeLike(query) + "%" : query;
+        try {
+            List<Person> persons = TransactionManager.read(connection -> {
+                List<Person> result = new ArrayList<>(Math.min(limit, 1024));
+                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                    pstmt.setString(1, pattern);
+                    pstmt.setInt(2, afterId);
+                    pstmt.setInt(3, limit);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            result.add(PersonRowMapper.map(rs));
+                        }
+                    }
                 }
+                return result;
+            });
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("{} personnes trouvées pour '{}'", persons.size(), query);
             }
+            return persons.toArray(new Person[0]);
         } catch (SQLException e) {
-            System.err.println("❌ Erreur getPersonByName: " + e.getMessage());
-            e.printStackTrace();
-            return null;
+            LOGGER.error("❌ Erreur searchPersons: {}", e.getMessage(), e);
+            return new Person[0];
         }
     }
 
     @Override
-    public Person[] getAllPersons() {
-        if (connection == null) {
-            System.err.println("❌ Connexion null dans getAllPersons");
+    public Person[] getPersonsByAge(int minAge, int maxAge, int afterId, int limit) {
+        // Plage parcourue sur idx_person_age, puis seules les "limit" premières par ID sont triées
+        String sql = SELECT_PERSON + " WHERE age BETWEEN ? AND ? AND id > ? ORDER BY id LIMIT ?";
+        try {
+            List<Person> persons = TransactionManager.read(connection -> {
+                List<Person> result = new ArrayList<>(Math.min(limit, 1024));
+                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                    pstmt.setInt(1, minAge);
+                    pstmt.setInt(2, maxAge);
+                    pstmt.setInt(3, afterId);
+                    pstmt.setInt(4, limit);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            result.add(PersonRowMapper.map(rs));
+                        }
+                    }
+                }
+                return result;
+            });
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("{} personnes trouvées entre {} et {} ans", persons.size(), minAge, maxAge);
+            }
+            return persons.toArray(new Person[0]);
+        } catch (SQLException e) {
+            LOGGER.error("❌ Erreur getPersonsByAge: {}", e.getMessage(), e);
             return new Person[0];
         }
-        
-        String sql = "SELECT * FROM person ORDER BY id";
-        List<Person> persons = new ArrayList<>();
-        try (PreparedStatement pstmt = connection.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-            while (rs.next()) {
-                Person person = new Person();
-                person.setId(rs.getInt("id"));
-                person.setName(rs.getString("name"));
-                person.setAge(rs.getInt("age"));
-                persons.add(person);
+    }
+
+    @Override
+    public Person[] getAllPersons() {
+        String sql = SELECT_PERSON + " ORDER BY id";
+        try {
+            List<Person> persons = TransactionManager.read(connection -> {
+                List<Person> result = new ArrayList<>();
+                try (PreparedStatement pstmt = connection.prepareStatement(sql);
+                     ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(PersonRowMapper.map(rs));
+                    }
+                }
+                return result;
+            });
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("{} personnes chargées", persons.size());
             }
-            System.out.println("✅ " + persons.size() + " personnes chargées");
+            return persons.toArray(new Person[0]);
+        } catch (SQLException e) {
+            LOGGER.error("❌ Erreur getAllPersons: {}", e.getMessage(), e);
+            return new Person[0];
+        }
+    }
+
+    @Override
+    public Person[] getPersons(int afterId, int limit) {
+        String sql = SELECT_PERSON + " WHERE id > ? ORDER BY id LIMIT ?";
+        try {
+            List<Person> persons = TransactionManager.read(connection -> {
+                List<Person> result = new ArrayList<>(Math.min(limit, 1024));
+                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                    pstmt.setInt(1, afterId);
+                    pstmt.setInt(2, limit);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            result.add(PersonRowMapper.map(rs));
+                        }
+                    }
+                }
+                return result;
+            });
+            return persons.toArray(new Person[0]);
+        } catch (SQLException e) {
+            LOGGER.error("❌ Erreur getPersons: {}", e.getMessage(), e);
+            return new Person[0];
+        }
+    }
+
+    @Override
+    public void forEachPerson(int afterId, PersonVisitor visitor) throws IOException {
+        String sql = SELECT_PERSON + " WHERE id > ? ORDER BY id";
+        try {
+            TransactionManager.read(connection -> {
+                // Curseur en avant seulement : le driver ne garde que streamFetchSize lignes en mémoire
+                try (PreparedStatement pstmt = connection.prepareStatement(sql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    pstmt.setFetchSize(streamFetchSize);
+                    pstmt.setInt(1, afterId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            visitor.visit(PersonRowMapper.map(rs));
+                        }
+                    } catch (IOException e) {
+                        throw new SQLException("Parcours interrompu par le client", e);
+                    }
+                }
+                return null;
+            });
         } catch (SQLException e) {
-            System.err.println("❌ Erreur getAllPersons: " + e.getMessage());
-            e.printStackTrace();
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            LOGGER.error("❌ Erreur forEachPerson: {}", e.getMessage(), e);
+            throw new IOException("Erreur de lecture des personnes", e);
         }
-        return persons.toArray(new Person[0]);
     }
 
     @Override
     public boolean updatePerson(Person p) {
-        if (connection == null) {
-            System.err.println("❌ Connexion null dans updatePerson");
+        String sql = "UPDATE person SET name = ?, age = ?, version = version + 1 WHERE id = ?";
+        try {
+            // La nouvelle version est relue dans la même transaction, sous le verrou de la ligne
+            return TransactionManager.inTransaction(connection -> {
+                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                    pstmt.setString(1, p.getName());
+                    pstmt.setInt(2, p.getAge());
+                    pstmt.setInt(3, p.getId());
+                    boolean updated = pstmt.executeUpdate() > 0;
+                    if (updated) {
+                        p.setVersion(readVersion(connection, p.getId()));
+                    }
+                    if (LOGGER.isDebugEnabled()) {
+                        LOGGER.debug(updated ? "Personne mise à jour ID: {}" : "Personne non trouvée pour mise à jour ID: {}", p.getId());
+                    }
+                    return updated;
+                }
+            });
+        } catch (SQLException e) {
+            LOGGER.error("❌ Erreur updatePerson: {}", e.getMessage(), e);
             return false;
         }
-        
-        String sql = "UPDATE person SET name = ?, age = ? WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+    }
+
+    @Override
+    public UpdateOutcome updatePerson(Person p, int expectedVersion) {
+        String sql = "UPDATE person SET name = ?, age = ?, version = version + 1 WHERE id = ? AND version = ?";
+        try {
+            return TransactionManager.execute(connection -> {
+                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                    pstmt.setString(1, p.getName());
+                    pstmt.setInt(2, p.getAge());
+                    pstmt.setInt(3, p.getId());
+                    pstmt.setInt(4, expectedVersion);
+                    if (pstmt.executeUpdate() > 0) {
+                        p.setVersion(expectedVersion + 1);
+                        return UpdateOutcome.UPDATED;
+                    }
+                }
+                // Aucune ligne modifiée : personne absente, ou version changée entre-temps
+                UpdateOutcome outcome = readVersion(connection, p.getId()) < 0
+                        ? UpdateOutcome.NOT_FOUND : UpdateOutcome.CONFLICT;
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Mise à jour refusée ID: {} (version attendue {}) : {}", p.getId(), expectedVersion, outcome);
+                }
+                return outcome;
+            });
+        } catch (SQLException e) {
+            LOGGER.error("❌ Erreur updatePerson: {}", e.getMessage(), e);
+            return UpdateOutcome.ERROR;
+        }
+    }
+
+    /**
+     * @return La version actuelle de la personne, ou -1 si elle n'existe pas.
+     */
+    private static int readVersion(Connection connection, int id) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement("SELECT version FROM person WHERE id = ?")) {
+            pstmt.setInt(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : -1;
+            }
+        }
+    }
+
+    @Override
+    public BulkResult[] addPersons(Person[] persons) {
+        String sql = "INSERT INTO person (name, age) VALUES (?, ?)";
+        BulkResult[] results = executeInChunks("addPersons", sql, persons, true, 201, (pstmt, p) -> {
             pstmt.setString(1, p.getName());
             pstmt.setInt(2, p.getAge());
-            pstmt.setInt(3, p.getId());
-            boolean updated = pstmt.executeUpdate() > 0;
-            if (updated) {
-                System.out.println("✅ Personne mise à jour ID: " + p.getId());
-            } else {
-                System.out.println("⚠️ Personne non trouvée pour mise à jour ID: " + p.getId());
+        }, Person::getId, null);
+        for (int i = 0; i < persons.length; i++) {
+            if (results[i].isSuccess()) {
+                persons[i].setId(results[i].getId());
             }
-            return updated;
-        } catch (SQLException e) {
-            System.err.println("❌ Erreur updatePerson: " + e.getMessage());
-            e.printStackTrace();
-            return false;
         }
+        return results;
     }
-    
+
+    @Override
+    public BulkResult[] updatePersons(Person[] persons) {
+        String sql = "UPDATE person SET name = ?, age = ?, version = version + 1 WHERE id = ?";
+        // Comme pour updatePerson, les nouvelles versions sont relues dans la transaction du lot
+        return executeInChunks("updatePersons", sql, persons, false, 200, (pstmt, p) -> {
+            pstmt.setString(1, p.getName());
+            pstmt.setInt(2, p.getAge());
+            pstmt.setInt(3, p.getId());
+        }, Person::getId, PersonServiceImpl::readVersions);
+    }
+
     /**
-     * Crée la table 'person' si elle n'existe pas.
+     * Renseigne la version des personnes mises à jour d'un lot, en une requête IN.
      */
-    public void createTableIfNotExists() {
-        if (connection == null) {
-            System.err.println("❌ Connexion null, impossible de créer la table");
+    private static void readVersions(Connection connection, Person[] persons, BulkResult[] results,
+                                     int start, int end) throws SQLException {
+        Map<Integer, List<Person>> updated = new HashMap<>();
+        for (int i = start; i < end; i++) {
+            if (results[i].isSuccess()) {
+                updated.computeIfAbsent(persons[i].getId(), id -> new ArrayList<>(1)).add(persons[i]);
+            }
+        }
+        if (updated.isEmpty()) {
             return;
         }
-        
+        StringBuilder sql = new StringBuilder("SELECT id, version FROM person WHERE id IN (");
+        for (int i = 0; i < updated.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+        try (PreparedStatement pstmt = connection.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (Integer id : updated.keySet()) {
+                pstmt.setInt(index++, id);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int version = rs.getInt(2);
+                    for (Person p : updated.get(rs.getInt(1))) {
+                        p.setVersion(version);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public BulkResult[] deletePersons(int[] ids) {
+        String sql = "DELETE FROM person WHERE id = ?";
+        Integer[] boxed = new Integer[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            boxed[i] = ids[i];
+        }
+        return executeInChunks("deletePersons", sql, boxed, false, 200,
+                (pstmt, id) -> pstmt.setInt(1, id), Integer::intValue, null);
+    }
+
+    /**
+     * Lie un élément aux paramètres d'une requête préparée.
+     */
+    private interface BatchBinder<T> {
+        void bind(PreparedStatement pstmt, T item) throws SQLException;
+    }
+
+    /**
+     * Traitement complémentaire d'un lot réussi, dans sa transaction.
+     */
+    private interface ChunkCallback<T> {
+        void afterChunk(Connection connection, T[] items, BulkResult[] results, int start, int end)
+                throws SQLException;
+    }
+
+    /**
+     * Exécute une requête par lots JDBC (addBatch/executeBatch), chaque lot dans sa
+     * propre transaction. Si un lot échoue, il est annulé en entier et ses éléments
+     * sont marqués en erreur ; les lots suivants sont tout de même exécutés.
+     * @param afterChunk Appelé après chaque lot, avant sa validation ; null si inutile.
+     */
+    private <T> BulkResult[] executeInChunks(String operation, String sql, T[] items, boolean generatedKeys,
+                                             int successStatus, BatchBinder<T> binder, ToIntFunction<T> idOf,
+                                             ChunkCallback<T> afterChunk) {
+        BulkResult[] results = new BulkResult[items.length];
+        for (int from = 0; from < items.length; from += bulkChunkSize) {
+            int start = from;
+            int end = Math.min(items.length, from + bulkChunkSize);
+            try {
+                TransactionManager.inTransaction(connection -> {
+                    try (PreparedStatement pstmt = generatedKeys
+                            ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                            : connection.prepareStatement(sql)) {
+                        for (int i = start; i < end; i++) {
+                            binder.bind(pstmt, items[i]);
+                            pstmt.addBatch();
+                        }
+                        int[] counts = pstmt.executeBatch();
+                        try (ResultSet keys = generatedKeys ? pstmt.getGeneratedKeys() : null) {
+                            for (int i = start; i < end; i++) {
+                                int count = counts[i - start];
+                                if (count == 0) {
+                                    results[i] = new BulkResult(idOf.applyAsInt(items[i]), 404, "Personne non trouvée");
+                                } else {
+                                    int id = keys != null && keys.next() ? keys.getInt(1) : idOf.applyAsInt(items[i]);
+                                    results[i] = new BulkResult(id, successStatus, null);
+                                }
+                            }
+                        }
+                    }
+                    if (afterChunk != null) {
+                        afterChunk.afterChunk(connection, items, results, start, end);
+                    }
+                    return null;
+                });
+            } catch (SQLException e) {
+                LOGGER.error("❌ Erreur {} (lot {}-{}): {}", operation, start, end - 1, e.getMessage(), e);
+                // 503 : la base est indisponible, le même lot peut réussir plus tard ; 500 : refusé par la base
+                boolean retryable = isTransient(e);
+                for (int i = start; i < end; i++) {
+                    results[i] = retryable
+                            ? new BulkResult(idOf.applyAsInt(items[i]), 503, "Lot annulé : base de données indisponible")
+                            : new BulkResult(idOf.applyAsInt(items[i]), 500, "Lot annulé : erreur de base de données");
+                }
+            }
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("{} : {} éléments traités", operation, items.length);
+        }
+        return results;
+    }
+
+    /**
+     * @return true si l'erreur tient à la disponibilité de la base (connexion, délai,
+     *         interblocage) et non aux données : la même requête peut réussir plus tard.
+     */
+    private static boolean isTransient(SQLException e) {
+        if (e instanceof SQLTransientException || e instanceof SQLRecoverableException) {
+            return true;
+        }
+        // Classes SQLState 08 (connexion), 40 (transaction annulée), HYT (délai dépassé)
+        String state = e.getSQLState();
+        return state != null && (state.startsWith("08") || state.startsWith("40") || state.startsWith("HYT"));
+    }
+
+    /**
+     * Crée la table 'person' si elle n'existe pas, puis insère les données de test
+     * si la table est vide. Appelé une seule fois au démarrage de l'application.
+     * @throws SQLException si la base est indisponible ou si la création échoue.
+     */
+    public void createTableIfNotExists() throws SQLException {
         String sql = "CREATE TABLE IF NOT EXISTS person (" +
                      "id INT AUTO_INCREMENT PRIMARY KEY, " +
                      "name VARCHAR(100) NOT NULL, " +
-                     "age INT NOT NULL" +
+                     "age INT NOT NULL, " +
+                     "version INT NOT NULL DEFAULT 0, " +
+                     "INDEX idx_person_name (name), " +
+                     "INDEX idx_person_age (age)" +
                      ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.executeUpdate();
-            System.out.println("✅ Table 'person' créée ou déjà existante.");
-            
-            // Vérifier si la table est vide et insérer des données de test
-            checkAndInsertTestData();
-        } catch (SQLException e) {
-            System.err.println("❌ Erreur createTableIfNotExists: " + e.getMessage());
-            e.printStackTrace();
+        TransactionManager.execute(connection -> {
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.executeUpdate();
+            }
+            addColumnIfMissing(connection, "version", "INT NOT NULL DEFAULT 0");
+            createIndexIfMissing(connection, "idx_person_name", "name");
+            createIndexIfMissing(connection, "idx_person_age", "age");
+            return null;
+        });
+        LOGGER.info("✅ Table 'person' créée ou déjà existante.");
+
+        // Vérifier si la table est vide et insérer des données de test
+        checkAndInsertTestData();
+    }
+
+    /**
+     * Ajoute une colonne aux tables créées avant son introduction.
+     */
+    private static void addColumnIfMissing(Connection connection, String column, String definition) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet rs = metaData.getColumns(connection.getCatalog(), null, "person", column)) {
+            if (rs.next()) {
+                return;
+            }
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("ALTER TABLE person ADD COLUMN " + column + " " + definition);
         }
+        LOGGER.info("✅ Colonne {} ajoutée à la table 'person'.", column);
     }
-    
+
+    /**
+     * Ajoute un index aux tables créées avant son introduction.
+     */
+    private static void createIndexIfMissing(Connection connection, String index, String column) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), null, "person", false, true)) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("COLUMN_NAME")) && rs.getShort("ORDINAL_POSITION") == 1) {
+                    return;
+                }
+            }
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE INDEX " + index + " ON person (" + column + ")");
+        }
+        LOGGER.info("✅ Index {} ajouté à la table 'person'.", index);
+    }
+
+    /**
+     * Échappe les caractères spéciaux de LIKE (caractère d'échappement '!').
+     */
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '!' || c == '%' || c == '_') {
+                escaped.append('!');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
     /**
      * Insère des données de test si la table est vide.
      */
-    private void checkAndInsertTestData() {
-        try {
-            String countSql = "SELECT COUNT(*) as count FROM person";
-            PreparedStatement countStmt = connection.prepareStatement(countSql);
-            ResultSet rs = countStmt.executeQuery();
-            
-            if (rs.next() && rs.getInt("count") == 0) {
-                System.out.println("📝 Table vide, insertion de données de test...");
-                
-                String[] testNames = {"Jean Dupont", "Marie Curie", "Paul Martin", "Sophie Bernard"};
-                int[] testAges = {30, 45, 28, 32};
-                
-                String insertSql = "INSERT INTO person (name, age) VALUES (?, ?)";
-                PreparedStatement insertStmt = connection.prepareStatement(insertSql);
-                
+    private void checkAndInsertTestData() throws SQLException {
+        TransactionManager.inTransaction(connection -> {
+            String countSql = "SELECT COUNT(*) FROM person";
+            try (PreparedStatement countStmt = connection.prepareStatement(countSql);
+                 ResultSet rs = countStmt.executeQuery()) {
+                int count = rs.next() ? rs.getInt(1) : 0;
+                if (count > 0) {
+                    LOGGER.info("📊 Table contient déjà {} enregistrements", count);
+                    return null;
+                }
+            }
+
+            LOGGER.info("📝 Table vide, insertion de données de test...");
+
+            String[] testNames = {"Jean Dupont", "Marie Curie", "Paul Martin", "Sophie Bernard"};
+            int[] testAges = {30, 45, 28, 32};
+
+            String insertSql = "INSERT INTO person (name, age) VALUES (?, ?)";
+            try (PreparedStatement insertStmt = connection.prepareStatement(insertSql)) {
                 for (int i = 0; i < testNames.length; i++) {
                     insertStmt.setString(1, testNames[i]);
                     insertStmt.setInt(2, testAges[i]);
                     insertStmt.addBatch();
                 }
-                
                 insertStmt.executeBatch();
-                System.out.println("✅ Données de test insérées");
-            } else {
-                System.out.println("📊 Table contient déjà " + rs.getInt("count") + " enregistrements");
             }
-            
-            rs.close();
-            countStmt.close();
-        } catch (SQLException e) {
-            System.err.println("❌ Erreur lors de l'insertion des données test: " + e.getMessage());
-        }
+            LOGGER.info("✅ Données de test insérées");
+            return null;
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,18 @@
+package com.info.service;
+
+import java.io.IOException;
+
+import com.info.model.Person;
+
+/**
+ * Reçoit les personnes une par une lors d'un parcours en flux.
+ */
+public interface PersonVisitor {
+
+	/**
+	 * Traite une personne.
+	 * @param p La personne lue.
+	 * @throws IOException si l'écriture de la personne échoue.
+	 */
+	public void visit(Person p) throws IOException;
+}
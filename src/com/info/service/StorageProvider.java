@@ -0,0 +1,78 @@
+package com.info.service;
+
+import java.sql.SQLException;
+import java.util.Locale;
+
+import com.info.config.Settings;
+import com.info.db.PoolConfig;
+import com.info.db.PoolStats;
+
+/**
+ * Moteur de stockage des personnes, choisi au démarrage par tp333.storage :
+ * mysql (par défaut), h2 (base embarquée en mémoire) ou memory (sans base).
+ */
+public interface StorageProvider {
+
+	/**
+	 * @return Le nom du moteur (pour les journaux et l'administration).
+	 */
+	public String getName();
+
+	/**
+	 * Prépare le stockage (schéma, données de test) et renvoie le service.
+	 * @return Le service de persistance.
+	 * @throws SQLException si le stockage est indisponible.
+	 */
+	public PersonService open() throws SQLException;
+
+	/**
+	 * Vérifie que le stockage répond (appelé en tâche de fond par les sondes).
+	 * @return true si le stockage est disponible.
+	 * @throws SQLException si la vérification échoue.
+	 */
+	public boolean isHealthy() throws SQLException;
+
+	/**
+	 * @return Les statistiques du pool de connexions, ou null si le moteur n'en a pas.
+	 */
+	public PoolStats getPoolStats();
+
+	/**
+	 * @return Les paramètres du pool de connexions, ou null si le moteur n'en a pas.
+	 */
+	public PoolConfig getPoolConfig();
+
+	/**
+	 * Applique de nouveaux paramètres au pool sans interrompre les requêtes en cours.
+	 * @param config Les nouveaux paramètres.
+	 * @throws IllegalArgumentException si les paramètres sont invalides.
+	 * @throws UnsupportedOperationException si le moteur n'a pas de pool.
+	 */
+	public void setPoolConfig(PoolConfig config);
+
+	/**
+	 * Libère les ressources du stockage (pool de connexions).
+	 */
+	public void close();
+
+	/**
+	 * Choisit le moteur d'après le paramètre tp333.storage (voir Settings).
+	 * @return Le moteur configuré.
+	 * @throws IllegalArgumentException si le moteur est inconnu.
+	 */
+	public static StorageProvider fromSettings() {
+		String name = Settings.get("tp333.storage", "mysql").toLowerCase(Locale.ROOT);
+		switch (name) {
+			case "mysql":
+				return new JdbcStorageProvider(name);
+			case "h2":
+				// Base embarquée (ConnexionDB.H2_DEFAULT_URL) : aucune installation nécessaire, données perdues à l'arrêt
+				return new JdbcStorageProvider(name);
+			case "memory":
+				return new InMemoryStorageProvider();
+			default:
+				throw new IllegalArgumentException("Moteur de stockage inconnu : " + name
+						+ " (attendu : mysql, h2 ou memory)");
+		}
+	}
+}
@@ -0,0 +1,217 @@
+package com.info.service;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Table de hachage à clés int primitives (sans boxing), découpée en segments
+ * protégés chacun par un StampedLock.
+ *
+ * Les lectures sont optimistes (aucun verrou pris si aucune écriture concurrente
+ * sur le segment) ; les écritures verrouillent un seul segment. Adressage ouvert
+ * à sondage linéaire, suppression par décalage arrière (pas de pierres tombales).
+ * Les clés doivent être strictement positives : 0 marque une case vide.
+ */
+final class StripedIntMap<V> {
+
+    private static final int STRIPES = 16;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Stripe<V>[] stripes;
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    StripedIntMap() {
+        stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe<>();
+        }
+    }
+
+    V get(int key) {
+        return stripeFor(key).get(key);
+    }
+
+    /**
+     * Remplace atomiquement la valeur d'une clé (verrou du segment tenu pendant l'appel).
+     * @param key La clé.
+     * @param update Reçoit la valeur actuelle (ou null) et renvoie la nouvelle (null pour supprimer).
+     * @return La valeur précédente, ou null.
+     */
+    V update(int key, UnaryOperator<V> update) {
+        return stripeFor(key).update(key, update);
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe<V> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private Stripe<V> stripeFor(int key) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Clé invalide : " + key);
+        }
+        // Bits de poids fort pour le segment, bits de poids faible pour la case
+        return stripes[mix(key) >>> 28];
+    }
+
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16) ^ (h << 11);
+    }
+
+    private static final class Table<V> {
+        final int[] keys;
+        final Object[] values;
+        final int mask;
+
+        Table(int capacity) {
+            keys = new int[capacity];
+            values = new Object[capacity];
+            mask = capacity - 1;
+        }
+    }
+
+    private static final class Stripe<V> {
+        private final StampedLock lock = new StampedLock();
+        private volatile Table<V> table = new Table<>(INITIAL_CAPACITY);
+        private int size;
+
+        V get(int key) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                V value = find(table, key);
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return find(table, key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        V update(int key, UnaryOperator<V> update) {
+            long stamp = lock.writeLock();
+            try {
+                Table<V> t = table;
+                int slot = indexOf(t, key);
+                @SuppressWarnings("unchecked")
+                V previous = slot >= 0 ? (V) t.values[slot] : null;
+                V next = update.apply(previous);
+                if (next == null) {
+                    if (slot >= 0) {
+                        delete(t, slot);
+                        size--;
+                    }
+                } else if (slot >= 0) {
+                    t.values[slot] = next;
+                } else {
+                    if ((size + 1) * 2 > t.keys.length) {
+                        t = resize(t);
+                    }
+                    insert(t, key, next);
+                    size++;
+                }
+                return previous;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Lecture tolérante aux écritures concurrentes : le résultat n'est utilisé
+         * que si le tampon optimiste est toujours valide.
+         */
+        @SuppressWarnings("unchecked")
+        private static <V> V find(Table<V> t, int key) {
+            int[] keys = t.keys;
+            Object[] values = t.values;
+            int mask = t.mask;
+            int slot = mix(key) & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                int k = keys[slot];
+                if (k == key) {
+                    return (V) values[slot];
+                }
+                if (k == 0) {
+                    return null;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        private static int indexOf(Table<?> t, int key) {
+            int slot = mix(key) & t.mask;
+            while (t.keys[slot] != 0) {
+                if (t.keys[slot] == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & t.mask;
+            }
+            return -1;
+        }
+
+        private static void insert(Table<?> t, int key, Object value) {
+            int slot = mix(key) & t.mask;
+            while (t.keys[slot] != 0) {
+                slot = (slot + 1) & t.mask;
+            }
+            t.values[slot] = value;
+            t.keys[slot] = key;
+        }
+
+        /**
+         * Suppression par décalage arrière : les éléments suivants du même groupe
+         * remontent pour qu'aucune recherche ne s'arrête trop tôt.
+         */
+        private static void delete(Table<?> t, int slot) {
+            int hole = slot;
+            int next = slot;
+            while (true) {
+                next = (next + 1) & t.mask;
+                int key = t.keys[next];
+                if (key == 0) {
+                    break;
+                }
+                int home = mix(key) & t.mask;
+                // L'élément peut combler le trou s'il ne se trouve pas entre sa case d'origine et le trou
+                boolean movable = hole <= next
+                        ? home <= hole || home > next
+                        : home <= hole && home > next;
+                if (movable) {
+                    t.keys[hole] = key;
+                    t.values[hole] = t.values[next];
+                    hole = next;
+                }
+            }
+            t.keys[hole] = 0;
+            t.values[hole] = null;
+        }
+
+        private Table<V> resize(Table<V> old) {
+            Table<V> bigger = new Table<>(old.keys.length * 2);
+            for (int i = 0; i < old.keys.length; i++) {
+                if (old.keys[i] != 0) {
+                    insert(bigger, old.keys[i], old.values[i]);
+                }
+            }
+            table = bigger;
+            return bigger;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.info.service;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+import com.info.metrics.MetricsRegistry;
+import com.info.metrics.Timer;
+import com.info.model.BulkResult;
+import com.info.model.Person;
+
+/**
+ * Chronomètre chaque appel au service de persistance.
+ *
+ * Placé directement autour de l'implémentation JDBC (sous le cache), il mesure
+ * le temps passé en base, séparément du temps de sérialisation mesuré par
+ * MetricsFilter. Pour forEachPerson, la lecture et l'écriture sont entrelacées :
+ * la mesure couvre les deux.
+ */
+public class TimedPersonService implements PersonService {
+
+    private final PersonService delegate;
+    private final Timer addPerson;
+    private final Timer deletePerson;
+    private final Timer getPersonByName;
+    private final Timer searchPersons;
+    private final Timer getPersonsByAge;
+    private final Timer getPerson;
+    private final Timer getPersonsByIds;
+    private final Timer getAllPersons;
+    private final Timer getPersons;
+    private final Timer forEachPerson;
+    private final Timer updatePerson;
+    private final Timer addPersons;
+    private final Timer updatePersons;
+    private final Timer deletePersons;
+
+    public TimedPersonService(PersonService delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.addPerson = registry.serviceTimer("addPerson");
+        this.deletePerson = registry.serviceTimer("deletePerson");
+        this.getPersonByName = registry.serviceTimer("getPersonByName");
+        this.searchPersons = registry.serviceTimer("searchPersons");
+        this.getPersonsByAge = registry.serviceTimer("getPersonsByAge");
+        this.getPerson = registry.serviceTimer("getPerson");
+        this.getPersonsByIds = registry.serviceTimer("getPersonsByIds");
+        this.getAllPersons = registry.serviceTimer("getAllPersons");
+        this.getPersons = registry.serviceTimer("getPersons");
+        this.forEachPerson = registry.serviceTimer("forEachPerson");
+        this.updatePerson = registry.serviceTimer("updatePerson");
+        this.addPersons = registry.serviceTimer("addPersons");
+        this.updatePersons = registry.serviceTimer("updatePersons");
+        this.deletePersons = registry.serviceTimer("deletePersons");
+    }
+
+    @Override
+    public boolean addPerson(Person p) {
+        return time(addPerson, () -> delegate.addPerson(p));
+    }
+
+    @Override
+    public boolean deletePerson(int id) {
+        return time(deletePerson, () -> delegate.deletePerson(id));
+    }
+
+    @Override
+    public Person getPersonByName(String name) {
+        return time(getPersonByName, () -> delegate.getPersonByName(name));
+    }
+
+    @Override
+    public Person[] searchPersons(String query, boolean prefix, int afterId, int limit) {
+        return time(searchPersons, () -> delegate.searchPersons(query, prefix, afterId, limit));
+    }
+
+    @Override
+    public Person[] getPersonsByAge(int minAge, int maxAge, int afterId, int limit) {
+        return time(getPersonsByAge, () -> delegate.getPersonsByAge(minAge, maxAge, afterId, limit));
+    }
+
+    @Override
+    public Person getPerson(int id) {
+        return time(getPerson, () -> delegate.getPerson(id));
+    }
+
+    @Override
+    public Person[] getPersonsByIds(int[] ids) {
+        return time(getPersonsByIds, () -> delegate.getPersonsByIds(ids));
+    }
+
+    @Override
+    public Person[] getAllPersons() {
+        return time(getAllPersons, delegate::getAllPersons);
+    }
+
+    @Override
+    public Person[] getPersons(int afterId, int limit) {
+        return time(getPersons, () -> delegate.getPersons(afterId, limit));
+    }
+
+    @Override
+    public void forEachPerson(int afterId, PersonVisitor visitor) throws IOException {
+        long start = System.nanoTime();
+        try {
+            delegate.forEachPerson(afterId, visitor);
+        } finally {
+            forEachPerson.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean updatePerson(Person p) {
+        return time(updatePerson, () -> delegate.updatePerson(p));
+    }
+
+    @Override
+    public BulkResult[] addPersons(Person[] persons) {
+        return time(addPersons, () -> delegate.addPersons(persons));
+    }
+
+    @Override
+    public UpdateOutcome updatePerson(Person p, int expectedVersion) {
+        return time(updatePerson, () -> delegate.updatePerson(p, expectedVersion));
+    }
+
+    @Override
+    public BulkResult[] updatePersons(Person[] persons) {
+        return time(updatePersons, () -> delegate.updatePersons(persons));
+    }
+
+    @Override
+    public BulkResult[] deletePersons(int[] ids) {
+        return time(deletePersons, () -> delegate.deletePersons(ids));
+    }
+
+    private static <T> T time(Timer timer, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            timer.record(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.info.service;
+
+/**
+ * Résultat d'une mise à jour conditionnée par la version (verrouillage optimiste).
+ */
+public enum UpdateOutcome {
+
+	/** La personne a été mise à jour. */
+	UPDATED,
+
+	/** Aucune personne avec cet ID. */
+	NOT_FOUND,
+
+	/** La personne a été modifiée depuis la version attendue. */
+	CONFLICT,
+
+	/** Le stockage n'a pas pu exécuter la mise à jour. */
+	ERROR
+}
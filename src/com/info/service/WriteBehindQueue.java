@@ -0,0 +1,578 @@
+package com.info.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.info.metrics.Timer;
+import com.info.model.BulkResult;
+import com.info.model.Person;
+
+/**
+ * Écriture différée des ajouts de personnes (mode d'ingestion asynchrone).
+ *
+ * Les ajouts sont acceptés dans une file bornée (lot en cours d'écriture compris)
+ * et la requête est acquittée sans attendre la base ; un thread unique les écrit
+ * par lots (addPersons, une transaction par lot) dès que batchSize personnes
+ * attendent ou que la plus ancienne attend depuis lingerMs. File pleine : l'ajout
+ * est refusé, le client réessaie plus tard.
+ *
+ * Base indisponible (statut 503) : les ajouts sont réessayés avec un délai croissant,
+ * jusqu'à maxAttempts tentatives. Ajout refusé par la base : le lot est coupé en deux
+ * jusqu'à isoler les lignes fautives, sans attente. Les ajouts abandonnés, et sans
+ * journal ceux que l'arrêt empêche d'écrire, sont écrits dans le fichier des rejets
+ * (une ligne JSON par ajout), à défaut dans le journal applicatif : un ajout acquitté
+ * n'est jamais perdu sans trace.
+ *
+ * Avec un journal, chaque ajout accepté est d'abord écrit dans un fichier local
+ * en ajout seul ; un point de reprise note le dernier ajout écrit en base (ou dans
+ * le fichier des rejets) et le journal est vidé quand la file l'est. Si un rejet ne
+ * peut pas être écrit, le point de reprise n'avance plus jusqu'au redémarrage.
+ * Au démarrage, les ajouts non écrits sont rejoués : rien n'est perdu si le
+ * processus s'arrête brutalement, mais un lot écrit juste avant l'arrêt peut
+ * l'être deux fois.
+ */
+public class WriteBehindQueue {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    /** Longueur maximale d'un nom (colonne name) : vérifiée avant d'accepter l'ajout. */
+    public static final int MAX_NAME_LENGTH = 100;
+    private static final long POLL_MS = 100;
+    private static final long FIRST_BACKOFF_MS = 100;
+    private static final long MAX_BACKOFF_MS = 5000;
+    private static final int UNAVAILABLE = 503;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final PersonService delegate;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final int capacity;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final int batchSize;
+    private final long lingerNanos;
+    private final int maxAttempts;
+    private final Timer flushTimer;
+    private final Journal journal;
+    private final File deadLetterFile;
+    private final Thread writer;
+    private volatile boolean running = true;
+    /** Plus ancien ajout du lot en cours, null entre deux lots. */
+    private volatile Entry oldest;
+    /** Dernière erreur d'écriture, pour les journaux (thread d'écriture seulement). */
+    private String lastError;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    /**
+     * @param delegate Le service qui écrit en base (et prévient les index).
+     * @param capacity Nombre maximum d'ajouts acceptés et pas encore écrits.
+     * @param batchSize Nombre maximum d'ajouts par lot.
+     * @param lingerMs Attente maximale (ms) d'un ajout avant l'écriture de son lot.
+     * @param maxAttempts Tentatives d'écriture, base indisponible, avant d'abandonner des ajouts.
+     * @param journalFile Le journal local, ou null pour garder les ajouts en mémoire seulement.
+     * @param deadLetterFile Le fichier des ajouts abandonnés, ou null pour les écrire dans le journal applicatif.
+     * @param flushTimer Chronomètre de l'écriture des lots.
+     * @throws IOException si le journal ne peut pas être lu ou ouvert.
+     */
+    public WriteBehindQueue(PersonService delegate, int capacity, int batchSize, long lingerMs, int maxAttempts,
+                            File journalFile, File deadLetterFile, Timer flushTimer) throws IOException {
+        if (capacity <= 0 || batchSize <= 0 || lingerMs < 0 || maxAttempts <= 0) {
+            throw new IllegalArgumentException("Paramètres de l'écriture différée invalides");
+        }
+        this.delegate = delegate;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.maxAttempts = maxAttempts;
+        this.flushTimer = flushTimer;
+        this.journal = journalFile != null ? new Journal(journalFile) : null;
+        this.deadLetterFile = deadLetterFile;
+        this.writer = new Thread(this::run, "write-behind");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Rejoue les ajouts du journal non écrits en base, puis démarre l'écriture des lots.
+     */
+    public void start() {
+        if (journal != null) {
+            List<Entry> replayed = journal.getPending();
+            for (int from = 0; from < replayed.size(); from += batchSize) {
+                if (!flush(replayed.subList(from, Math.min(replayed.size(), from + batchSize)))) {
+                    // Interrompu : la suite reste dans le journal
+                    break;
+                }
+            }
+            if (!replayed.isEmpty()) {
+                LOGGER.info("✅ Journal d'ingestion rejoué : {} ajouts", replayed.size());
+            }
+        }
+        writer.start();
+    }
+
+    /**
+     * Accepte un ajout : il sera écrit en base par un lot ultérieur.
+     * @param person La personne à ajouter (copiée ; son ID n'est pas connu).
+     * @return false si la file est pleine, si l'écriture s'arrête ou si le journal est en erreur.
+     */
+    public boolean offer(Person person) {
+        if (!running) {
+            rejected.increment();
+            return false;
+        }
+        if (!reserve()) {
+            rejected.increment();
+            return false;
+        }
+        Entry entry = new Entry(person.getName(), person.getAge());
+        if (journal == null) {
+            queue.add(entry);
+            // stop() a pu commencer entre le test de running et l'ajout, et le thread d'écriture
+            // s'arrêter sans voir l'ajout : il est repris, faute de journal pour le rejouer
+            if (!running && queue.remove(entry)) {
+                pending.decrementAndGet();
+                rejected.increment();
+                return false;
+            }
+        } else {
+            try {
+                journal.append(entry, queue);
+            } catch (IOException e) {
+                LOGGER.error("❌ Écriture du journal d'ingestion impossible : {}", e.getMessage(), e);
+                pending.decrementAndGet();
+                rejected.increment();
+                return false;
+            }
+        }
+        accepted.increment();
+        return true;
+    }
+
+    /**
+     * Réserve une place sans verrou.
+     * @return false si capacity ajouts attendent déjà.
+     */
+    private boolean reserve() {
+        while (true) {
+            int current = pending.get();
+            if (current >= capacity) {
+                return false;
+            }
+            if (pending.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void run() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                Entry first = queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                oldest = first;
+                // L'attente court depuis l'arrivée du plus ancien ajout du lot
+                long deadline = first.enqueuedNanos + lingerNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long wait = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || wait <= 0 || !running) {
+                        break;
+                    }
+                    Entry next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                boolean written = flush(batch);
+                pending.addAndGet(-batch.size());
+                oldest = null;
+                batch.clear();
+                if (!written) {
+                    // Interrompu pendant un nouvel essai : arrêt forcé
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandonUnwritten(new ArrayList<>(batch));
+            pending.addAndGet(-batch.size());
+            oldest = null;
+        }
+        drainUnwritten();
+    }
+
+    /**
+     * Écrit un lot, en réessayant les ajouts en échec temporaire avec un délai croissant.
+     * Le point de reprise n'avance qu'une fois chaque ajout écrit en base ou dans les rejets.
+     * @return false si l'écriture a été interrompue ; les ajouts non écrits sont alors mis de côté.
+     */
+    private boolean flush(List<Entry> batch) {
+        List<Entry> abandoned = new ArrayList<>();
+        List<Entry> pending = write(batch, abandoned);
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            if (attempt >= maxAttempts) {
+                LOGGER.error("❌ Écriture différée : {} ajouts abandonnés après {} tentatives ({})",
+                        pending.size(), attempt, lastError);
+                abandoned.addAll(pending);
+                break;
+            }
+            long backoffMs = Math.min(MAX_BACKOFF_MS, FIRST_BACKOFF_MS << Math.min(attempt - 1, 16));
+            LOGGER.warn("⚠️ Écriture différée : échec de {} ajouts ({}), nouvel essai dans {} ms",
+                    pending.size(), lastError, backoffMs);
+            try {
+                TimeUnit.MILLISECONDS.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                // Arrêt forcé : sans point de reprise, le lot sera rejoué depuis le journal
+                Thread.currentThread().interrupt();
+                abandoned.addAll(pending);
+                abandonUnwritten(abandoned);
+                return false;
+            }
+            pending = write(pending, abandoned);
+        }
+        batches.increment();
+        boolean kept = abandoned.isEmpty() || deadLetter(abandoned);
+        if (journal != null) {
+            try {
+                if (kept) {
+                    journal.commit(batch.get(batch.size() - 1).sequence);
+                } else {
+                    journal.hold();
+                }
+            } catch (IOException e) {
+                LOGGER.error("❌ Point de reprise du journal d'ingestion impossible : {}", e.getMessage(), e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ajouts acceptés qui ne seront pas écrits avant l'arrêt : rejoués au prochain
+     * démarrage avec un journal, sinon mis de côté dans les rejets (à défaut les logs).
+     */
+    private void abandonUnwritten(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (journal != null) {
+            LOGGER.warn("⚠️ Écriture différée interrompue : {} ajouts non écrits, rejoués au prochain démarrage",
+                    entries.size());
+        } else {
+            LOGGER.warn("⚠️ Écriture différée interrompue : {} ajouts non écrits", entries.size());
+            deadLetter(entries);
+        }
+    }
+
+    /**
+     * Met de côté les ajouts restés dans la file une fois l'écriture arrêtée.
+     */
+    private void drainUnwritten() {
+        List<Entry> left = new ArrayList<>();
+        queue.drainTo(left);
+        pending.addAndGet(-left.size());
+        abandonUnwritten(left);
+    }
+
+    /**
+     * Écrit des ajouts en une fois. Les ajouts refusés par la base sont récrits par
+     * moitiés jusqu'à isoler chaque ligne fautive, ajoutée à abandoned.
+     * @return Les ajouts en échec temporaire (base indisponible), à réessayer.
+     */
+    private List<Entry> write(List<Entry> entries, List<Entry> abandoned) {
+        Person[] persons = new Person[entries.size()];
+        for (int i = 0; i < persons.length; i++) {
+            persons[i] = new Person(0, entries.get(i).name, entries.get(i).age);
+        }
+        List<Entry> retry = new ArrayList<>();
+        List<Entry> refused = new ArrayList<>();
+        long start = System.nanoTime();
+        try {
+            BulkResult[] results = delegate.addPersons(persons);
+            for (int i = 0; i < results.length; i++) {
+                if (!results[i].isSuccess()) {
+                    (results[i].getStatus() == UNAVAILABLE ? retry : refused).add(entries.get(i));
+                    lastError = results[i].getMessage();
+                }
+            }
+        } catch (RuntimeException e) {
+            // Erreur inattendue : réessayée, puis abandonnée après maxAttempts tentatives
+            retry = new ArrayList<>(entries);
+            lastError = e.getMessage();
+        }
+        flushTimer.record(System.nanoTime() - start);
+        flushed.add(entries.size() - retry.size() - refused.size());
+        if (refused.size() == 1) {
+            LOGGER.error("❌ Écriture différée : ajout refusé par la base ({})", lastError);
+            abandoned.add(refused.get(0));
+        } else if (!refused.isEmpty()) {
+            // Un lot JDBC est annulé en entier : seules quelques lignes sont peut-être fautives
+            int half = refused.size() / 2;
+            retry.addAll(write(refused.subList(0, half), abandoned));
+            retry.addAll(write(refused.subList(half, refused.size()), abandoned));
+        }
+        return retry;
+    }
+
+    /**
+     * Écrit des ajouts abandonnés dans le fichier des rejets, à défaut dans le journal applicatif.
+     * @return false si le fichier des rejets n'a pas pu être écrit.
+     */
+    private synchronized boolean deadLetter(List<Entry> entries) {
+        failed.add(entries.size());
+        StringBuilder lines = new StringBuilder();
+        for (Entry entry : entries) {
+            ObjectNode node = MAPPER.createObjectNode();
+            node.put("name", entry.name);
+            node.put("age", entry.age);
+            try {
+                lines.append(MAPPER.writeValueAsString(node)).append('\n');
+            } catch (IOException e) {
+                // Nœud construit ici : sérialisation toujours possible
+                throw new IllegalStateException(e);
+            }
+        }
+        if (deadLetterFile == null) {
+            LOGGER.error("❌ Ajouts abandonnés (aucun fichier de rejets) :\n{}", lines);
+            return true;
+        }
+        try {
+            Files.write(deadLetterFile.toPath(), lines.toString().getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            LOGGER.warn("⚠️ {} ajouts abandonnés écrits dans {}", entries.size(), deadLetterFile);
+            return true;
+        } catch (IOException e) {
+            LOGGER.error("❌ Écriture des rejets dans {} impossible : {}\n{}", deadLetterFile, e.getMessage(), lines, e);
+            return false;
+        }
+    }
+
+    /**
+     * Refuse les nouveaux ajouts et attend l'écriture de ceux en attente.
+     * @param timeoutMs Attente maximale (ms) ; au-delà, l'écriture est interrompue.
+     */
+    public void stop(long timeoutMs) {
+        running = false;
+        try {
+            writer.join(timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            writer.interrupt();
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!writer.isAlive()) {
+            drainUnwritten();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+        LOGGER.info("Écriture différée arrêtée : {} ajouts écrits, {} abandonnés", flushed.sum(), failed.sum());
+    }
+
+    /**
+     * @return Le nombre d'ajouts acceptés et pas encore écrits (lot en cours compris).
+     */
+    public int getDepth() {
+        return pending.get();
+    }
+
+    /**
+     * @return L'attente (s) du plus ancien ajout pas encore écrit, 0 s'il n'y en a pas.
+     */
+    public double getLagSeconds() {
+        Entry entry = oldest;
+        if (entry == null) {
+            entry = queue.peek();
+        }
+        return entry != null ? (System.nanoTime() - entry.enqueuedNanos) / 1e9 : 0.0;
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getFlushed() {
+        return flushed.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    /** Un ajout en attente. */
+    private static final class Entry {
+
+        private final String name;
+        private final int age;
+        private final long enqueuedNanos = System.nanoTime();
+        private long sequence;
+
+        Entry(String name, int age) {
+            this.name = name;
+            this.age = age;
+        }
+    }
+
+    /**
+     * Journal en ajout seul : une ligne "numéro TAB {name, age}" par ajout accepté,
+     * et un fichier .checkpoint portant le numéro du dernier ajout écrit en base.
+     */
+    private static final class Journal {
+
+        private final File file;
+        private final File checkpoint;
+        private final List<Entry> pending = new ArrayList<>();
+        private final FileOutputStream stream;
+        private final Writer out;
+        private long lastSequence;
+        private long committed;
+        /** Des ajouts non écrits précèdent : le point de reprise ne doit plus avancer. */
+        private boolean held;
+
+        Journal(File file) throws IOException {
+            this.file = file;
+            this.checkpoint = new File(file.getPath() + ".checkpoint");
+            if (checkpoint.exists()) {
+                committed = Long.parseLong(new String(Files.readAllBytes(checkpoint.toPath()),
+                        StandardCharsets.UTF_8).trim());
+            }
+            lastSequence = committed;
+            if (file.exists()) {
+                read();
+            }
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                throw new IOException("Impossible de créer " + parent);
+            }
+            this.stream = new FileOutputStream(file, true);
+            this.out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+        }
+
+        private void read() throws IOException {
+            try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int tab = line.indexOf('\t');
+                    try {
+                        long sequence = Long.parseLong(line.substring(0, tab));
+                        JsonNode node = MAPPER.readTree(line.substring(tab + 1));
+                        lastSequence = Math.max(lastSequence, sequence);
+                        if (sequence > committed) {
+                            Entry entry = new Entry(node.path("name").asText(), node.path("age").asInt());
+                            entry.sequence = sequence;
+                            pending.add(entry);
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        // Dernière ligne tronquée par un arrêt brutal : l'ajout n'avait pas été acquitté
+                        LOGGER.warn("⚠️ Ligne ignorée dans le journal d'ingestion : {}", line);
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return Les ajouts acceptés mais pas encore écrits en base lors de l'arrêt précédent.
+         */
+        List<Entry> getPending() {
+            return pending;
+        }
+
+        /**
+         * Numérote l'ajout, l'écrit dans le journal puis le place dans la file :
+         * la file et le journal restent dans le même ordre.
+         */
+        synchronized void append(Entry entry, BlockingQueue<Entry> queue) throws IOException {
+            entry.sequence = lastSequence + 1;
+            ObjectNode node = MAPPER.createObjectNode();
+            node.put("name", entry.name);
+            node.put("age", entry.age);
+            out.write(entry.sequence + "\t" + MAPPER.writeValueAsString(node) + "\n");
+            // Confié au système : l'ajout survit à un arrêt brutal du processus
+            out.flush();
+            lastSequence = entry.sequence;
+            queue.add(entry);
+        }
+
+        /**
+         * Note qu'un lot est écrit en base, et vide le journal si plus rien n'est en attente.
+         * @param sequence Numéro du dernier ajout du lot.
+         */
+        synchronized void commit(long sequence) throws IOException {
+            if (held) {
+                return;
+            }
+            committed = sequence;
+            File temporary = new File(checkpoint.getPath() + ".tmp");
+            Files.write(temporary.toPath(), Long.toString(sequence).getBytes(StandardCharsets.UTF_8));
+            Files.move(temporary.toPath(), checkpoint.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            if (committed == lastSequence) {
+                out.flush();
+                stream.getChannel().truncate(0);
+            }
+        }
+
+        /**
+         * Fige le point de reprise : les ajouts suivants seront rejoués au prochain
+         * démarrage, y compris ceux qui n'ont pas pu être écrits.
+         */
+        synchronized void hold() {
+            if (!held) {
+                held = true;
+                LOGGER.error("❌ Point de reprise du journal d'ingestion figé à {} : ajouts rejoués au redémarrage",
+                        committed);
+            }
+        }
+
+        synchronized void close() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                LOGGER.warn("⚠️ Fermeture du journal d'ingestion : {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.info.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class ConnectionPoolTest {
+
+    private final AtomicInteger opened = new AtomicInteger();
+    private ConnectionPool pool;
+
+    @After
+    public void closePool() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void closedLeaseReturnsTheConnectionToThePool() throws Exception {
+        pool = newPool(config(2, 0));
+        Connection first = pool.borrow();
+        first.close();
+        Connection second = pool.borrow();
+        second.close();
+
+        // La connexion libre est réutilisée, aucune nouvelle ouverture
+        assertEquals(1, opened.get());
+        PoolStats stats = pool.getStats();
+        assertEquals(0, stats.getActive());
+        assertEquals(1, stats.getIdle());
+        assertEquals(2, stats.getBorrowCount());
+    }
+
+    @Test
+    public void borrowTimesOutWhenEveryConnectionIsLeased() throws Exception {
+        pool = newPool(config(2, 0));
+        Connection a = pool.borrow();
+        Connection b = pool.borrow();
+        try {
+            pool.borrow();
+            fail("Emprunt attendu en échec");
+        } catch (SQLTimeoutException e) {
+            assertEquals(1, pool.getStats().getTimeoutCount());
+        }
+        a.close();
+        pool.borrow().close();
+        b.close();
+        assertEquals(2, opened.get());
+    }
+
+    @Test
+    public void secondCloseDoesNotReturnTheConnectionTwice() throws Exception {
+        pool = newPool(config(2, 0));
+        Connection lease = pool.borrow();
+        lease.close();
+        lease.close();
+
+        assertTrue(lease.isClosed());
+        assertEquals(1, pool.getStats().getIdle());
+        try {
+            lease.createStatement();
+            fail("Connexion rendue : utilisation attendue en échec");
+        } catch (SQLException e) {
+            // Attendu
+        }
+        // Deux emprunts simultanés n'obtiennent pas la même connexion physique
+        Connection a = pool.borrow();
+        Connection b = pool.borrow();
+        assertEquals(2, opened.get());
+        a.close();
+        b.close();
+    }
+
+    @Test
+    public void leaseHeldPastTheThresholdIsReportedAsALeak() throws Exception {
+        PoolConfig config = config(1, 0);
+        config.setLeakDetectionThresholdMs(50);
+        config.setHousekeepingIntervalMs(20);
+        pool = newPool(config);
+        Connection lease = pool.borrow();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pool.getStats().getLeakCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, pool.getStats().getLeakCount());
+
+        // Rendue ensuite : de nouveau disponible, la fuite n'est comptée qu'une fois
+        lease.close();
+        Thread.sleep(100);
+        assertEquals(1, pool.getStats().getLeakCount());
+        assertEquals(1, pool.getStats().getIdle());
+    }
+
+    @Test
+    public void statsExposeWaitQuantiles() throws Exception {
+        pool = newPool(config(1, 0));
+        pool.borrow().close();
+        PoolStats stats = pool.getStats();
+        assertNotNull(stats.getWaitTimeQuantilesMs());
+        assertEquals(4, stats.getWaitTimeQuantilesMs().size());
+        assertTrue(stats.getWaitTimeQuantilesMs().containsKey("0.99"));
+        assertTrue(stats.getTotalWaitMs() >= 0);
+    }
+
+    private ConnectionPool newPool(PoolConfig config) {
+        return new ConnectionPool("test", () -> {
+            opened.incrementAndGet();
+            return DriverManager.getConnection("jdbc:h2:mem:");
+        }, config);
+    }
+
+    private static PoolConfig config(int maxSize, int minSize) {
+        PoolConfig config = new PoolConfig();
+        config.setMaxSize(maxSize);
+        config.setMinSize(minSize);
+        config.setBorrowTimeoutMs(100);
+        return config;
+    }
+}
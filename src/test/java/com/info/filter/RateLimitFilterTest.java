@@ -0,0 +1,69 @@
+package com.info.filter;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.info.filter.RateLimitFilter.Limit;
+
+public class RateLimitFilterTest {
+
+    /** 10 jetons/s : un jeton toutes les 100 ms. */
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long T0 = TimeUnit.SECONDS.toNanos(1000);
+
+    private final RateLimitFilter filter = new RateLimitFilter();
+    private final Limit limit = new Limit(10, 5);
+
+    @Test
+    public void fullBucketAllowsExactlyTheBurst() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, filter.acquireToken("a", limit, T0));
+        }
+        // Rafale épuisée : prochain jeton dans un intervalle
+        assertEquals(INTERVAL, filter.acquireToken("a", limit, T0));
+        assertEquals(INTERVAL - 1000, filter.acquireToken("a", limit, T0 + 1000));
+    }
+
+    @Test
+    public void bucketRefillsAtTheConfiguredRate() {
+        for (int i = 0; i < 5; i++) {
+            filter.acquireToken("a", limit, T0);
+        }
+        assertEquals(0, filter.acquireToken("a", limit, T0 + INTERVAL));
+        assertEquals(INTERVAL, filter.acquireToken("a", limit, T0 + INTERVAL));
+
+        // Inactif assez longtemps : de nouveau une rafale complète, pas davantage
+        long later = T0 + 20 * INTERVAL;
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, filter.acquireToken("a", limit, later));
+        }
+        assertEquals(INTERVAL, filter.acquireToken("a", limit, later));
+    }
+
+    @Test
+    public void clientsHaveSeparateBuckets() {
+        for (int i = 0; i < 5; i++) {
+            filter.acquireToken("a", limit, T0);
+        }
+        assertEquals(INTERVAL, filter.acquireToken("a", limit, T0));
+        assertEquals(0, filter.acquireToken("b", limit, T0));
+    }
+
+    @Test
+    public void zeroRateIsUnlimited() {
+        Limit unlimited = new Limit(0, 1);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, filter.acquireToken("a", unlimited, T0));
+        }
+    }
+
+    @Test
+    public void normalizeReplacesNumericSegments() {
+        assertEquals("/persons/{id}", RateLimitFilter.normalize("/persons/42/"));
+        assertEquals("/persons/all", RateLimitFilter.normalize("/persons/all"));
+        assertEquals("/", RateLimitFilter.normalize(null));
+    }
+}
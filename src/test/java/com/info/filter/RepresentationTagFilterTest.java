@@ -0,0 +1,114 @@
+package com.info.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+
+import org.junit.Test;
+
+public class RepresentationTagFilterTest {
+
+    private final RepresentationTagFilter filter = new RepresentationTagFilter();
+
+    @Test
+    public void stripRemovesRepresentationSuffixes() {
+        assertEquals("\"5\"", RepresentationTagFilter.strip("\"5-gzip\""));
+        assertEquals("\"5\"", RepresentationTagFilter.strip("\"5-deflate\""));
+        assertEquals("\"5\"", RepresentationTagFilter.strip("\"5-cbor\""));
+        assertEquals("\"5\"", RepresentationTagFilter.strip("\"5-cbor-gzip\""));
+        assertEquals("\"5\", W/\"6\", \"7\"", RepresentationTagFilter.strip("\"5-gzip\", W/\"6-cbor\", \"7\""));
+        assertEquals("*", RepresentationTagFilter.strip("*"));
+    }
+
+    @Test
+    public void stripReportsTheFirstSuffixOfEachTag() {
+        Map<String, String> suffixes = new HashMap<>();
+        RepresentationTagFilter.strip("\"5-cbor-gzip\", \"5-gzip\", \"6\"", suffixes);
+        assertEquals("-cbor-gzip", suffixes.get("5"));
+        assertNull(suffixes.get("6"));
+    }
+
+    @Test
+    public void addSuffixSkipsWeakTags() {
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        headers.putSingle(HttpHeaders.ETAG, new EntityTag("5"));
+        RepresentationTagFilter.addSuffix(headers, "-gzip");
+        assertEquals(new EntityTag("5-gzip"), headers.getFirst(HttpHeaders.ETAG));
+
+        headers.putSingle(HttpHeaders.ETAG, new EntityTag("5", true));
+        RepresentationTagFilter.addSuffix(headers, "-gzip");
+        assertEquals(new EntityTag("5", true), headers.getFirst(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void notModifiedCarriesTheTagTheClientSent() {
+        ContainerRequestContext request = request("\"5-cbor-gzip\"");
+        filter.filter(request);
+        // La ressource compare l'ETag du contenu
+        assertEquals("\"5\"", request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH));
+
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        headers.putSingle(HttpHeaders.ETAG, new EntityTag("5"));
+        filter.filter(request, response(304, null, headers));
+        assertEquals(new EntityTag("5-cbor-gzip"), headers.getFirst(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void okResponseInCborGetsTheCborSuffix() {
+        ContainerRequestContext request = request(null);
+        filter.filter(request);
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        headers.putSingle(HttpHeaders.ETAG, new EntityTag("5"));
+        filter.filter(request, response(200, MediaType.valueOf("application/cbor"), headers));
+        assertEquals(new EntityTag("5-cbor"), headers.getFirst(HttpHeaders.ETAG));
+    }
+
+    private static ContainerRequestContext request(String ifNoneMatch) {
+        MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+        if (ifNoneMatch != null) {
+            headers.putSingle(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        Map<String, Object> properties = new HashMap<>();
+        return (ContainerRequestContext) Proxy.newProxyInstance(ContainerRequestContext.class.getClassLoader(),
+                new Class<?>[] { ContainerRequestContext.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getHeaders":
+                            return headers;
+                        case "getProperty":
+                            return properties.get(args[0]);
+                        case "setProperty":
+                            return properties.put((String) args[0], args[1]);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static ContainerResponseContext response(int status, MediaType type,
+                                                     MultivaluedMap<String, Object> headers) {
+        return (ContainerResponseContext) Proxy.newProxyInstance(ContainerResponseContext.class.getClassLoader(),
+                new Class<?>[] { ContainerResponseContext.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getStatus":
+                            return status;
+                        case "getMediaType":
+                            return type;
+                        case "getHeaders":
+                            return headers;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
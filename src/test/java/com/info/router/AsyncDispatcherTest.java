@@ -0,0 +1,152 @@
+package com.info.router;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.TimeoutHandler;
+import javax.ws.rs.core.Response;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class AsyncDispatcherTest {
+
+    private final AsyncDispatcher dispatcher = new AsyncDispatcher(2, 2, 1000, false);
+
+    @After
+    public void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void readIsResumedWithTheHandlerResponse() throws Exception {
+        Suspended request = new Suspended();
+        dispatcher.submit(request.proxy(), () -> Response.ok("ok").build());
+        assertEquals(200, request.status());
+        assertEquals(Long.valueOf(1000), request.timeoutMs);
+        waitForPending(0);
+    }
+
+    @Test
+    public void timedOutReadAnswers503AndStaysVisibleUntilItEnds() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Suspended request = new Suspended();
+        dispatcher.submit(request.proxy(), () -> {
+            await(release);
+            return Response.ok().build();
+        });
+        request.timeoutHandler.handleTimeout(request.proxy());
+        assertEquals(503, request.status());
+        assertEquals(1, dispatcher.getTimeouts());
+
+        // Le traitement continue et garde sa place
+        assertEquals(1, dispatcher.getTimedOutRunning());
+        assertEquals(1, dispatcher.getPending());
+        release.countDown();
+        waitForPending(0);
+        assertEquals(0, dispatcher.getTimedOutRunning());
+    }
+
+    @Test
+    public void writeHasNoResponseTimeout() throws Exception {
+        Suspended request = new Suspended();
+        dispatcher.submitWrite(request.proxy(), () -> Response.status(201).build());
+        assertEquals(201, request.status());
+        assertNull(request.timeoutMs);
+        assertNull(request.timeoutHandler);
+    }
+
+    @Test
+    public void submissionBeyondMaxPendingIsRejectedImmediately() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Suspended first = new Suspended();
+        Suspended second = new Suspended();
+        dispatcher.submit(first.proxy(), () -> {
+            await(release);
+            return Response.ok().build();
+        });
+        dispatcher.submitWrite(second.proxy(), () -> {
+            await(release);
+            return Response.ok().build();
+        });
+
+        Suspended third = new Suspended();
+        dispatcher.submit(third.proxy(), () -> Response.ok().build());
+        assertEquals(503, third.status());
+        assertEquals(1, dispatcher.getRejected());
+
+        release.countDown();
+        assertEquals(200, first.status());
+        assertEquals(200, second.status());
+        waitForPending(0);
+    }
+
+    private void waitForPending(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dispatcher.getPending() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, dispatcher.getPending());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Requête suspendue : garde le délai, le gestionnaire d'expiration et la première reprise.
+     */
+    private static final class Suspended {
+
+        private final LinkedBlockingQueue<Object> resumed = new LinkedBlockingQueue<>();
+        private volatile boolean done;
+        private volatile Long timeoutMs;
+        private volatile TimeoutHandler timeoutHandler;
+        private AsyncResponse proxy;
+
+        AsyncResponse proxy() {
+            if (proxy == null) {
+                proxy = (AsyncResponse) Proxy.newProxyInstance(AsyncResponse.class.getClassLoader(),
+                        new Class<?>[] { AsyncResponse.class }, (p, method, args) -> {
+                            switch (method.getName()) {
+                                case "resume":
+                                    synchronized (this) {
+                                        if (done) {
+                                            return false;
+                                        }
+                                        done = true;
+                                    }
+                                    resumed.add(args[0]);
+                                    return true;
+                                case "setTimeout":
+                                    timeoutMs = ((TimeUnit) args[1]).toMillis((Long) args[0]);
+                                    return true;
+                                case "setTimeoutHandler":
+                                    timeoutHandler = (TimeoutHandler) args[0];
+                                    return null;
+                                default:
+                                    throw new UnsupportedOperationException(method.getName());
+                            }
+                        });
+            }
+            return proxy;
+        }
+
+        int status() throws InterruptedException {
+            Object response = resumed.poll(5, TimeUnit.SECONDS);
+            resumed.add(response);
+            return ((Response) response).getStatus();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.info.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.info.model.Person;
+
+public class CachingPersonServiceTest {
+
+    private final InMemoryPersonService db = new InMemoryPersonService();
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    /** Si non null, la prochaine lecture getPerson lit la base puis attend ce verrou avant de répondre. */
+    private volatile CountDownLatch holdRead;
+    private final CountDownLatch readDone = new CountDownLatch(1);
+    private final CachingPersonService cache = new CachingPersonService(counting(), 100, 60000);
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void secondReadIsServedFromTheCache() {
+        int id = add("Ada", 36);
+        assertEquals("Ada", cache.getPerson(id).getName());
+        assertEquals("Ada", cache.getPerson(id).getName());
+        assertEquals(1, calls("getPerson"));
+        assertEquals(1, cache.getStats().getHits());
+    }
+
+    @Test
+    public void writesInvalidateTheCachedPerson() {
+        int id = add("Ada", 36);
+        cache.getPerson(id);
+        cache.updatePerson(new Person(id, "Ada", 37));
+        assertEquals(37, cache.getPerson(id).getAge());
+
+        cache.deletePerson(id);
+        assertNull(cache.getPerson(id));
+        assertEquals(3, calls("getPerson"));
+    }
+
+    @Test
+    public void readStartedBeforeAWriteDoesNotCacheTheOldValue() throws Exception {
+        int id = add("Ada", 36);
+        CountDownLatch release = new CountDownLatch(1);
+        holdRead = release;
+        // Lecture en cours : la base a répondu l'ancienne valeur, pas encore mise en cache
+        Future<Person> slowRead = executor.submit(() -> cache.getPerson(id));
+        assertTrue(readDone.await(5, TimeUnit.SECONDS));
+
+        cache.updatePerson(new Person(id, "Ada", 37));
+        release.countDown();
+        assertEquals(36, slowRead.get(5, TimeUnit.SECONDS).getAge());
+
+        // L'ancienne valeur n'a pas été mise en cache : relue en base
+        assertEquals(37, cache.getPerson(id).getAge());
+        assertEquals(2, calls("getPerson"));
+    }
+
+    @Test
+    public void sharedNameResolvesToTheLowestIdLikeTheDatabase() {
+        int first = add("Bo", 3);
+        int second = add("Bo", 4);
+        // Lire le second homonyme par ID ne doit pas détourner l'index des noms
+        cache.getPerson(second);
+        assertEquals(first, cache.getPersonByName("Bo").getId());
+        assertEquals(first, cache.getPersonByName("Bo").getId());
+        assertEquals(1, calls("getPersonByName"));
+
+        // Homonyme supprimé : la réponse change, comme en base
+        cache.deletePerson(first);
+        assertEquals(second, cache.getPersonByName("Bo").getId());
+    }
+
+    @Test
+    public void addingAHomonymInvalidatesTheName() {
+        add("Bo", 3);
+        cache.getPersonByName("Bo");
+        cache.addPerson(new Person(0, "Bo", 5));
+        cache.getPersonByName("Bo");
+        assertEquals(2, calls("getPersonByName"));
+    }
+
+    @Test
+    public void cachedCopiesAreNotShared() {
+        int id = add("Ada", 36);
+        cache.getPerson(id).setAge(99);
+        assertEquals(36, cache.getPerson(id).getAge());
+    }
+
+    private int add(String name, int age) {
+        Person person = new Person(0, name, age);
+        db.addPerson(person);
+        return person.getId();
+    }
+
+    private int calls(String method) {
+        AtomicInteger count = calls.get(method);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * La base en mémoire, avec le nombre d'appels par méthode.
+     */
+    private PersonService counting() {
+        return (PersonService) Proxy.newProxyInstance(PersonService.class.getClassLoader(),
+                new Class<?>[] { PersonService.class }, (proxy, method, args) -> {
+                    calls.computeIfAbsent(method.getName(), name -> new AtomicInteger()).incrementAndGet();
+                    Object result;
+                    try {
+                        result = method.invoke(db, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    CountDownLatch hold = holdRead;
+                    if (hold != null && method.getName().equals("getPerson")) {
+                        holdRead = null;
+                        readDone.countDown();
+                        hold.await();
+                    }
+                    return result;
+                });
+    }
+}
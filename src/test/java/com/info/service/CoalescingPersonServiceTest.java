@@ -0,0 +1,170 @@
+package com.info.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.info.model.Person;
+
+public class CoalescingPersonServiceTest {
+
+    private final InMemoryPersonService db = new InMemoryPersonService();
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    /** Lecture getPerson bloquée en base jusqu'à release : un lot est alors en cours. */
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private volatile boolean block;
+    private volatile boolean failBatches;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void shutdown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void lookupGoesStraightToTheDatabaseUnderLowLoad() {
+        int id = add("Ada");
+        CoalescingPersonService service = new CoalescingPersonService(counting(), 10000, 64);
+        long start = System.nanoTime();
+        assertEquals("Ada", service.getPerson(id).getName());
+        // Aucun lot en cours : pas d'attente de la fenêtre
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(1, calls("getPerson"));
+        assertEquals(1, service.getBatches());
+    }
+
+    @Test
+    public void followersJoinTheLeaderBatchWhileAnotherRuns() throws Exception {
+        int[] ids = { add("A"), add("B"), add("C"), add("D") };
+        CoalescingPersonService service = new CoalescingPersonService(counting(), 1000, 64);
+        Future<Person> inFlight = startBlockedLookup(service, ids[0]);
+
+        // Pendant ce lot : un meneur attend la fenêtre, les autres rejoignent son lot
+        int[] wanted = { ids[1], ids[2], ids[1], ids[3], ids[2], ids[1] };
+        List<Future<Person>> followers = new ArrayList<>();
+        for (int id : wanted) {
+            followers.add(executor.submit(() -> service.getPerson(id)));
+        }
+        for (int i = 0; i < wanted.length; i++) {
+            assertEquals(wanted[i], followers.get(i).get(5, TimeUnit.SECONDS).getId());
+        }
+        release.countDown();
+        assertEquals(ids[0], inFlight.get(5, TimeUnit.SECONDS).getId());
+
+        // Une seule requête IN pour 3 IDs distincts, les doublons partagent le résultat
+        assertEquals(1, calls("getPersonsByIds"));
+        assertEquals(2, service.getBatches());
+        assertEquals(3, service.getMerged());
+        assertEquals(7, service.getLookups());
+    }
+
+    @Test
+    public void fullBatchLeavesWithoutWaitingTheWindow() throws Exception {
+        int first = add("A");
+        int second = add("B");
+        int third = add("C");
+        CoalescingPersonService service = new CoalescingPersonService(counting(), 60000, 2);
+        startBlockedLookup(service, first);
+
+        Future<Person> a = executor.submit(() -> service.getPerson(second));
+        Future<Person> b = executor.submit(() -> service.getPerson(third));
+        assertEquals(second, a.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(third, b.get(5, TimeUnit.SECONDS).getId());
+    }
+
+    @Test
+    public void batchFailureReachesEveryCaller() throws Exception {
+        int first = add("A");
+        int second = add("B");
+        int third = add("C");
+        CoalescingPersonService service = new CoalescingPersonService(counting(), 1000, 64);
+        startBlockedLookup(service, first);
+        failBatches = true;
+
+        Future<Person> a = executor.submit(() -> service.getPerson(second));
+        Future<Person> b = executor.submit(() -> service.getPerson(third));
+        for (Future<Person> caller : Arrays.asList(a, b)) {
+            try {
+                caller.get(5, TimeUnit.SECONDS);
+                fail("Échec du lot attendu");
+            } catch (ExecutionException e) {
+                assertEquals("Base indisponible", e.getCause().getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void mergedCallersReceiveTheirOwnCopy() throws Exception {
+        int first = add("A");
+        int second = add("B");
+        CoalescingPersonService service = new CoalescingPersonService(counting(), 1000, 64);
+        startBlockedLookup(service, first);
+
+        Future<Person> a = executor.submit(() -> service.getPerson(second));
+        Future<Person> b = executor.submit(() -> service.getPerson(second));
+        assertNotSame(a.get(5, TimeUnit.SECONDS), b.get(5, TimeUnit.SECONDS));
+    }
+
+    private Future<Person> startBlockedLookup(CoalescingPersonService service, int id) throws Exception {
+        block = true;
+        Future<Person> lookup = executor.submit(() -> service.getPerson(id));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        return lookup;
+    }
+
+    private int add(String name) {
+        Person person = new Person(0, name, 30);
+        db.addPerson(person);
+        return person.getId();
+    }
+
+    private int calls(String method) {
+        AtomicInteger count = calls.get(method);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * La base en mémoire, avec le nombre d'appels par méthode ; la première lecture
+     * getPerson reste bloquée si block est vrai.
+     */
+    private PersonService counting() {
+        return (PersonService) Proxy.newProxyInstance(PersonService.class.getClassLoader(),
+                new Class<?>[] { PersonService.class }, (proxy, method, args) -> {
+                    calls.computeIfAbsent(method.getName(), name -> new AtomicInteger()).incrementAndGet();
+                    if (block && method.getName().equals("getPerson")) {
+                        block = false;
+                        blocked.countDown();
+                        release.await();
+                    }
+                    if (failBatches && method.getName().equals("getPersonsByIds")) {
+                        throw new IllegalStateException("Base indisponible");
+                    }
+                    try {
+                        return method.invoke(db, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
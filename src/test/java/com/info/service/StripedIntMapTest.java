@@ -0,0 +1,82 @@
+package com.info.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class StripedIntMapTest {
+
+    /** Capacité initiale d'un segment (StripedIntMap.INITIAL_CAPACITY). */
+    private static final int SLOTS = 64;
+
+    @Test
+    public void deleteShiftsBackAcrossTheEndOfTheTable() {
+        // Clés d'un même segment rangées dans les dernières cases : le groupe déborde sur les cases 0 et 1
+        int last = keyAt(SLOTS - 1, 0);
+        int beforeLast = keyAt(SLOTS - 2, 0);
+        int wrapped = keyAt(SLOTS - 1, last);
+        int wrappedAgain = keyAt(SLOTS - 1, wrapped);
+
+        StripedIntMap<String> map = new StripedIntMap<>();
+        map.update(last, v -> "last");
+        map.update(beforeLast, v -> "beforeLast");
+        map.update(wrapped, v -> "wrapped");
+        map.update(wrappedAgain, v -> "wrappedAgain");
+
+        assertEquals("last", map.update(last, v -> null));
+        assertNull(map.get(last));
+        assertEquals("beforeLast", map.get(beforeLast));
+        assertEquals("wrapped", map.get(wrapped));
+        assertEquals("wrappedAgain", map.get(wrappedAgain));
+
+        assertEquals("beforeLast", map.update(beforeLast, v -> null));
+        assertEquals("wrapped", map.get(wrapped));
+        assertEquals("wrappedAgain", map.get(wrappedAgain));
+
+        assertEquals("wrapped", map.update(wrapped, v -> null));
+        assertEquals("wrappedAgain", map.get(wrappedAgain));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void matchesHashMapUnderRandomUpdates() {
+        Random random = new Random(42);
+        StripedIntMap<Integer> map = new StripedIntMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            int key = 1 + random.nextInt(2000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.update(key, v -> null));
+            } else {
+                int value = i;
+                assertEquals(expected.put(key, value), map.update(key, v -> value));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int key = 1; key <= 2000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveKeys() {
+        new StripedIntMap<String>().get(0);
+    }
+
+    /**
+     * @return La première clé après after dont la case d'origine est slot dans le segment 0.
+     */
+    private static int keyAt(int slot, int after) {
+        for (int key = after + 1; ; key++) {
+            int h = StripedIntMap.mix(key);
+            if (h >>> 28 == 0 && (h & (SLOTS - 1)) == slot) {
+                return key;
+            }
+        }
+    }
+}
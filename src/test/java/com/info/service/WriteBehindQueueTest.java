@@ -0,0 +1,136 @@
+package com.info.service;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.info.metrics.Timer;
+import com.info.model.BulkResult;
+import com.info.model.Person;
+
+public class WriteBehindQueueTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void offersRacingStopAreWrittenOrSetAside() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            InMemoryPersonService db = new InMemoryPersonService();
+            File rejects = new File(folder.getRoot(), "rejects-" + round + ".jsonl");
+            WriteBehindQueue queue = new WriteBehindQueue(db, 100000, 50, 5, 3, null, rejects, new Timer());
+            queue.start();
+
+            int threads = 4;
+            AtomicInteger acknowledged = new AtomicInteger();
+            CountDownLatch go = new CountDownLatch(1);
+            ExecutorService producers = Executors.newFixedThreadPool(threads);
+            for (int t = 0; t < threads; t++) {
+                producers.execute(() -> {
+                    try {
+                        go.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < 5000 && queue.offer(new Person(0, "p", 20)); i++) {
+                        acknowledged.incrementAndGet();
+                    }
+                });
+            }
+            go.countDown();
+            Thread.sleep(round % 5);
+            queue.stop(5000);
+            producers.shutdown();
+            producers.awaitTermination(10, TimeUnit.SECONDS);
+
+            // Chaque ajout acquitté est en base ou dans les rejets, jamais perdu
+            assertEquals(acknowledged.get(), queue.getAccepted());
+            assertEquals(acknowledged.get(), db.size() + lines(rejects).size());
+            assertEquals(0, queue.getDepth());
+            assertFalse(queue.offer(new Person(0, "tard", 20)));
+        }
+    }
+
+    @Test
+    public void interruptedRetrySetsPendingRowsAside() throws Exception {
+        File rejects = new File(folder.getRoot(), "rejects.jsonl");
+        WriteBehindQueue queue = new WriteBehindQueue(unavailable(), 100, 10, 0, 100, null, rejects, new Timer());
+        queue.start();
+        for (int i = 0; i < 5; i++) {
+            queue.offer(new Person(0, "p" + i, 20 + i));
+        }
+        // Base indisponible : l'arrêt interrompt les nouveaux essais
+        queue.stop(200);
+
+        assertEquals(5, lines(rejects).size());
+        assertEquals(5, queue.getFailed());
+        assertEquals(0, queue.getDepth());
+    }
+
+    @Test
+    public void journalIsReplayedAfterCrash() throws Exception {
+        File journal = new File(folder.getRoot(), "ingest.journal");
+        // Jamais démarrée : le processus s'arrête avant toute écriture en base
+        WriteBehindQueue crashed = new WriteBehindQueue(unavailable(), 100, 10, 0, 3, journal, null, new Timer());
+        crashed.offer(new Person(0, "Ada", 36));
+        crashed.offer(new Person(0, "Bob", 41));
+        crashed.offer(new Person(0, "Cyd", 29));
+        // Dernière ligne tronquée par l'arrêt brutal
+        Files.write(journal.toPath(), "4\t{\"name\":\"Da".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        InMemoryPersonService db = new InMemoryPersonService();
+        WriteBehindQueue restarted = new WriteBehindQueue(db, 100, 10, 0, 3, journal, null, new Timer());
+        restarted.start();
+        restarted.stop(1000);
+
+        String[] names = Arrays.stream(db.getAllPersons()).map(Person::getName).toArray(String[]::new);
+        assertArrayEquals(new String[] { "Ada", "Bob", "Cyd" }, names);
+
+        // Point de reprise enregistré : rien n'est rejoué une seconde fois
+        InMemoryPersonService again = new InMemoryPersonService();
+        WriteBehindQueue third = new WriteBehindQueue(again, 100, 10, 0, 3, journal, null, new Timer());
+        third.start();
+        third.stop(1000);
+        assertEquals(0, again.size());
+    }
+
+    private List<String> lines(File file) throws IOException {
+        return file.exists() ? Files.readAllLines(file.toPath(), StandardCharsets.UTF_8) : Arrays.asList();
+    }
+
+    /**
+     * Service dont la base est toujours indisponible (503 pour chaque ajout).
+     */
+    private static PersonService unavailable() {
+        return (PersonService) Proxy.newProxyInstance(PersonService.class.getClassLoader(),
+                new Class<?>[] { PersonService.class }, (proxy, method, args) -> {
+                    if (!method.getName().equals("addPersons")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    BulkResult[] results = new BulkResult[((Person[]) args[0]).length];
+                    for (int i = 0; i < results.length; i++) {
+                        results[i] = new BulkResult(0, 503, "Base indisponible");
+                    }
+                    return results;
+                });
+    }
+}